@@ -0,0 +1,171 @@
+package game;
+
+import javax.swing.JPanel;
+import java.awt.AWTException;
+import java.awt.BorderLayout;
+import java.awt.BufferCapabilities;
+import java.awt.Canvas;
+import java.awt.Graphics;
+import java.awt.ImageCapabilities;
+import java.awt.Toolkit;
+import java.awt.event.KeyListener;
+import java.awt.image.BufferStrategy;
+import java.util.concurrent.locks.LockSupport;
+
+// Optional active-render backend: a Canvas covering the game panel that draws straight into a
+// BufferStrategy (2 or 3 buffers, accelerated VolatileImage back buffers where the pipeline offers
+// them) and presents with show() instead of going through repaint() coalescing.
+// Selected per run with -Dgame.render=active (-Dgame.buffers=2|3, default 2); Swing stays the default.
+//
+// Two ways to drive it:
+//  - ownThread: repaint() wakes a render thread; for games that paint immutable GameLoop snapshots
+//  - inline: repaint() renders immediately on the calling thread; for games whose state lives on the
+//    EDT (TetrisGame), which then never paints state from another thread
+public class ActiveRenderer extends Canvas {
+    public interface Painter {
+        void paint(Graphics g);
+    }
+
+    private final String name;
+    private final Painter painter;
+    private final boolean ownThread;
+    private final int buffers;
+    private BufferStrategy strategy;
+    private RenderStats stats;
+
+    private volatile boolean running;
+    private Thread thread;
+
+    public ActiveRenderer(String name, Painter painter, boolean ownThread) {
+        this.name = name;
+        this.painter = painter;
+        this.ownThread = ownThread;
+        this.buffers = Integer.getInteger("game.buffers", 2) >= 3 ? 3 : 2;
+        this.stats = new RenderStats(name + " active");
+        // The render thread redraws continuously, so OS expose events need no separate paint
+        setIgnoreRepaint(ownThread);
+    }
+
+    public static boolean isSelected() {
+        return "active".equalsIgnoreCase(System.getProperty("game.render"));
+    }
+
+    // Covers `panel` with an active renderer when selected, forwarding the panel's key listeners;
+    // returns null (Swing painting) otherwise
+    public static ActiveRenderer install(JPanel panel, String name, Painter painter, boolean ownThread) {
+        if (!isSelected()) {
+            return null;
+        }
+        ActiveRenderer renderer = new ActiveRenderer(name, painter, ownThread);
+        renderer.setPreferredSize(panel.getPreferredSize());
+        renderer.setBackground(panel.getBackground());
+        for (KeyListener listener : panel.getKeyListeners()) {
+            renderer.addKeyListener(listener);
+        }
+        panel.setLayout(new BorderLayout());
+        panel.add(renderer, BorderLayout.CENTER);
+        return renderer;
+    }
+
+    public RenderStats getStats() {
+        return stats;
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        strategy = createStrategy();
+        stats = new RenderStats(name + " active, " + buffers + " buffers, "
+                + (strategy.getCapabilities().getBackBufferCapabilities().isAccelerated() ? "accelerated" : "unaccelerated"));
+        if (ownThread) {
+            running = true;
+            thread = new Thread(this::run, name + " render");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    @Override
+    public void removeNotify() {
+        if (thread != null) {
+            running = false;
+            LockSupport.unpark(thread);
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            thread = null;
+        }
+        strategy.dispose();
+        strategy = null;
+        super.removeNotify();
+    }
+
+    private BufferStrategy createStrategy() {
+        try {
+            ImageCapabilities accelerated = new ImageCapabilities(true);
+            createBufferStrategy(buffers, new BufferCapabilities(accelerated, accelerated, BufferCapabilities.FlipContents.UNDEFINED));
+        } catch (AWTException e) {
+            createBufferStrategy(buffers); // best available, possibly unaccelerated
+        }
+        return getBufferStrategy();
+    }
+
+    // Requests a frame: wakes the render thread, or renders now in inline mode
+    @Override
+    public void repaint() {
+        stats.requested();
+        if (ownThread) {
+            Thread t = thread;
+            if (t != null) {
+                LockSupport.unpark(t);
+            }
+        } else {
+            render();
+        }
+    }
+
+    // Inline mode only: expose events
+    @Override
+    public void paint(Graphics g) {
+        render();
+    }
+
+    @Override
+    public void update(Graphics g) {
+        render();
+    }
+
+    private void run() {
+        while (running) {
+            LockSupport.park(this);
+            if (running) {
+                render();
+            }
+        }
+    }
+
+    public void render() {
+        BufferStrategy strategy = this.strategy;
+        if (strategy == null) {
+            return;
+        }
+        // The back buffers are VolatileImages: redraw while their contents get restored or lost
+        do {
+            do {
+                Graphics g = strategy.getDrawGraphics();
+                try {
+                    g.setColor(getBackground());
+                    g.fillRect(0, 0, getWidth(), getHeight());
+                    painter.paint(g);
+                } finally {
+                    g.dispose();
+                }
+            } while (strategy.contentsRestored());
+            strategy.show();
+        } while (strategy.contentsLost());
+        Toolkit.getDefaultToolkit().sync();
+        stats.presented();
+    }
+}
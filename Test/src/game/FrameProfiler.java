@@ -0,0 +1,232 @@
+package game;
+
+import javax.management.ObjectName;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics;
+import java.awt.font.FontRenderContext;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+
+// Allocation-free per-frame profiler shared by the games.
+// Each named section keeps its last WINDOW durations in a preallocated ring buffer:
+//   long start = profiler.start(); ...; profiler.end(SECTION, start);
+// and frame() (called once per painted frame) records the frame-to-frame time and the number of
+// GC collections since the previous frame. p50/p99 sort a copy of a ring into preallocated scratch.
+// Each section must only be ended from one thread (update on the simulation thread, paint on the
+// EDT); readers (HUD, JMX) see slightly stale values, which is fine for statistics.
+// The HUD (toggled with F3 in every game) formats into a char[] and draws it with drawChars.
+public final class FrameProfiler implements FrameProfilerMBean {
+    public static final int WINDOW = 256;
+
+    private static final Font HUD_FONT = new Font("Monospaced", Font.PLAIN, 12);
+    private static final int HUD_LINE_HEIGHT = 14;
+    private static final int HUD_DESCENT = (int) Math.ceil(
+            HUD_FONT.getLineMetrics("gp", new FontRenderContext(null, false, false)).getDescent());
+
+    private final String[] names;      // the caller's sections, then "frame"
+    private final int frameSection;
+    private final long[][] samples;
+    private final long[] recorded;     // total samples per section
+    private final long[] scratch = new long[WINDOW];
+    private final char[] line = new char[64];
+
+    private final List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+    private final long[] gcDeltas = new long[WINDOW];
+    private long lastGcCount = -1;
+    private long lastFrameNanos;
+    private volatile boolean hudVisible;
+
+    public FrameProfiler(String... sections) {
+        names = Arrays.copyOf(sections, sections.length + 1);
+        frameSection = sections.length;
+        names[frameSection] = "frame";
+        samples = new long[names.length][WINDOW];
+        recorded = new long[names.length];
+    }
+
+    // Registers the MBean as game:type=FrameProfiler,name=<name>; failures only disable JMX
+    public FrameProfiler register(String name) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this,
+                    new ObjectName("game:type=FrameProfiler,name=" + ObjectName.quote(name)));
+        } catch (Exception e) {
+            System.err.println("Could not register profiler MBean for " + name + ": " + e);
+        }
+        return this;
+    }
+
+    public long start() {
+        return System.nanoTime();
+    }
+
+    public void end(int section, long start) {
+        record(section, System.nanoTime() - start);
+    }
+
+    // Once per painted frame, before painting
+    public void frame() {
+        long now = System.nanoTime();
+        long gcCount = 0;
+        for (int i = 0; i < collectors.size(); i++) {
+            gcCount += Math.max(0, collectors.get(i).getCollectionCount());
+        }
+        if (lastFrameNanos != 0) {
+            gcDeltas[(int) (recorded[frameSection] % WINDOW)] = gcCount - lastGcCount;
+            record(frameSection, now - lastFrameNanos);
+        }
+        lastFrameNanos = now;
+        lastGcCount = gcCount;
+    }
+
+    private void record(int section, long nanos) {
+        samples[section][(int) (recorded[section] % WINDOW)] = nanos;
+        recorded[section]++;
+    }
+
+    // Percentile (0..100) of the section's window in nanoseconds, 0 before the first sample
+    public synchronized long percentile(int section, int percent) {
+        int n = (int) Math.min(recorded[section], WINDOW);
+        if (n == 0) {
+            return 0;
+        }
+        System.arraycopy(samples[section], 0, scratch, 0, n);
+        Arrays.sort(scratch, 0, n);
+        return scratch[Math.min(n - 1, n * percent / 100)];
+    }
+
+    public void toggleHud() {
+        hudVisible = !hudVisible;
+    }
+
+    // Distance from the first baseline given to drawHud down to the bottom of the GC line
+    public int hudHeight() {
+        return names.length * HUD_LINE_HEIGHT + HUD_DESCENT;
+    }
+
+    // Draws one line per section plus a GC line, starting at (x, y) and growing downwards
+    public synchronized void drawHud(Graphics g, int x, int y) {
+        if (!hudVisible) {
+            return;
+        }
+        g.setFont(HUD_FONT);
+        g.setColor(Color.WHITE);
+        for (int s = names.length - 1; s >= 0; s--) { // frame first
+            int n = 0;
+            n = appendPadded(names[s], 10, n);
+            n = appendText("p50", n);
+            n = appendMillis(percentile(s, 50), n);
+            n = appendText(" p99", n);
+            n = appendMillis(percentile(s, 99), n);
+            n = appendText(" ms", n);
+            g.drawChars(line, 0, n, x, y);
+            y += HUD_LINE_HEIGHT;
+        }
+        int n = appendPadded("gc", 10, 0);
+        n = appendLong(getGcCollections(), n);
+        n = appendText(" in last ", n);
+        n = appendLong(Math.min(recorded[frameSection], WINDOW), n);
+        n = appendText(" frames", n);
+        g.drawChars(line, 0, n, x, y);
+    }
+
+    private int appendText(String text, int n) {
+        for (int i = 0; i < text.length() && n < line.length; i++) {
+            line[n++] = text.charAt(i);
+        }
+        return n;
+    }
+
+    private int appendPadded(String text, int width, int n) {
+        int end = n + width;
+        n = appendText(text, n);
+        while (n < end) {
+            line[n++] = ' ';
+        }
+        return n;
+    }
+
+    private int appendLong(long value, int n) {
+        if (value >= 10) {
+            n = appendLong(value / 10, n);
+        }
+        line[n++] = (char) ('0' + value % 10);
+        return n;
+    }
+
+    // Right-aligned in 7 columns with two decimals, e.g. "  16.67"
+    private int appendMillis(long nanos, int n) {
+        long hundredths = (nanos + 5_000) / 10_000;
+        int start = n;
+        n = appendLong(hundredths / 100, n);
+        line[n++] = '.';
+        line[n++] = (char) ('0' + hundredths / 10 % 10);
+        line[n++] = (char) ('0' + hundredths % 10);
+        int width = n - start;
+        if (width < 7) {
+            int shift = 7 - width;
+            System.arraycopy(line, start, line, start + shift, width);
+            Arrays.fill(line, start, start + shift, ' ');
+            n += shift;
+        }
+        return n;
+    }
+
+    @Override
+    public String[] getSections() {
+        return names.clone();
+    }
+
+    @Override
+    public double[] getP50Millis() {
+        return percentilesMillis(50);
+    }
+
+    @Override
+    public double[] getP99Millis() {
+        return percentilesMillis(99);
+    }
+
+    private double[] percentilesMillis(int percent) {
+        double[] millis = new double[names.length];
+        for (int s = 0; s < names.length; s++) {
+            millis[s] = percentile(s, percent) / 1e6;
+        }
+        return millis;
+    }
+
+    @Override
+    public long getFrames() {
+        return recorded[frameSection];
+    }
+
+    // Collections during the frames in the current window
+    @Override
+    public long getGcCollections() {
+        long total = 0;
+        int n = (int) Math.min(recorded[frameSection], WINDOW);
+        for (int i = 0; i < n; i++) {
+            total += gcDeltas[i];
+        }
+        return total;
+    }
+
+    @Override
+    public boolean isHudVisible() {
+        return hudVisible;
+    }
+
+    @Override
+    public void setHudVisible(boolean visible) {
+        hudVisible = visible;
+    }
+
+    @Override
+    public synchronized void reset() {
+        Arrays.fill(recorded, 0);
+        Arrays.fill(gcDeltas, 0);
+        lastFrameNanos = 0;
+    }
+}
@@ -0,0 +1,21 @@
+package game;
+
+// JMX view of a FrameProfiler (registered as game:type=FrameProfiler,name=<game>).
+// Arrays are indexed like getSections(); times are milliseconds over the last ring-buffer window.
+public interface FrameProfilerMBean {
+    String[] getSections();
+
+    double[] getP50Millis();
+
+    double[] getP99Millis();
+
+    long getFrames();
+
+    long getGcCollections();
+
+    boolean isHudVisible();
+
+    void setHudVisible(boolean visible);
+
+    void reset();
+}
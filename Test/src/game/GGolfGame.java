@@ -11,21 +11,20 @@ public class GGolfGame extends JPanel implements ActionListener {
     private static final int GOAL_X = 750;  // 목표 홀의 X 좌표
     private static final int GOAL_Y = 300;  // 목표 홀의 Y 좌표
 
+    private static final int GROUND_Y = 300; // 땅에 있는 공의 Y 좌표
+
+    // 옆에서 본 공의 물리 (GolfPhysics, 100틱/초 = 타이머 10ms). 공은 정해진 틱 안에 멈추고 그때 타이머도 멈춘다.
+    private final GolfPhysics ball = new GolfPhysics(0, PANEL_WIDTH - 20, 50);
     private int ballX = 50;  // 공의 현재 X 좌표
-    private int ballY = 300; // 공의 현재 Y 좌표
+    private int ballY = GROUND_Y; // 공의 현재 Y 좌표
     private int strokeCount = 0;  // 타수
 
     private Timer timer;
-    private boolean isMoving = false;
-    private int targetX;
-    private int targetY;
-    private int dx;
-    private int dy;
 
     public GGolfGame() {
         this.setPreferredSize(new Dimension(PANEL_WIDTH, PANEL_HEIGHT));
         this.setBackground(Color.GREEN);
-        timer = new Timer(10, this);
+        timer = new Timer(1000 / GolfPhysics.TICKS_PER_SECOND, this);
     }
 
     public static void main(String[] args) {
@@ -71,33 +70,24 @@ public class GGolfGame extends JPanel implements ActionListener {
 
     // 공을 치는 동작 구현
     public void hitBall(int angle, int power) {
-        if (isMoving) return;  // 공이 이미 이동 중이면 무시
+        if (ball.isMoving()) return;  // 공이 이미 이동 중이면 무시
 
         strokeCount++;
         System.out.println("타수: " + strokeCount);
 
-        // 목표 좌표 계산
-        double radians = Math.toRadians(angle);
-        targetX = ballX + (int) (power * Math.cos(radians) * 5);
-        targetY = ballY - (int) (power * Math.sin(radians) * 5);
-
-        // 속도 계산 (단순한 이동량)
-        dx = (targetX - ballX) / 50;
-        dy = (targetY - ballY) / 50;
-
-        isMoving = true;
+        ball.launch(angle, power);
         timer.start();
     }
 
     @Override
     public void actionPerformed(ActionEvent e) {
-        if (isMoving) {
-            ballX += dx;
-            ballY += dy;
+        if (ball.isMoving()) {
+            boolean moving = ball.step();
+            ballX = (int) Math.round(ball.getX());
+            ballY = GROUND_Y - (int) Math.round(ball.getZ());
 
-            // 목표 지점에 도달했을 때
-            if (Math.abs(ballX - targetX) < 2 && Math.abs(ballY - targetY) < 2) {
-                isMoving = false;
+            // 공이 멈췄을 때
+            if (!moving) {
                 timer.stop();
                 checkIfGoal();
             }
@@ -115,8 +105,9 @@ public class GGolfGame extends JPanel implements ActionListener {
 
     // 게임 재시작
     private void resetGame() {
+        ball.place(50);
         ballX = 50;
-        ballY = 300;
+        ballY = GROUND_Y;
         strokeCount = 0;
         repaint();
     }
@@ -0,0 +1,191 @@
+package game;
+
+import java.awt.Rectangle;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+// 충돌 검사 마이크로벤치마크: 예전 checkCollisions() 의 적 x 총알 이중 루프 (쌍마다 Rectangle 두 개 생성) 와
+// GalaxyGrid broadphase 를 적/총알 수를 늘려 가며 비교한다. 적:총알 비율은 2:5 (2,000 / 5,000 웨이브와 같음).
+// 적은 화면 위쪽 절반, 총알은 화면 전체에 무작위로 놓고, 매 반복 같은 배치에서 맞은 적과 총알을 표시만 한다.
+// 이어서 GalaxyEntities 로 한 틱 전체 (이동, 충돌, compact) 를 총알 50,000 개까지 재서 20 ms 프레임과 비교한다.
+//
+// usage: GalaxyCollisionBenchmark [enemyCounts...]
+public class GalaxyCollisionBenchmark {
+    private static final int WIDTH = 800;
+    private static final int HEIGHT = 600;
+    private static final int ENEMY_SIZE = 40;
+    private static final int BULLET_WIDTH = 5;
+    private static final int BULLET_HEIGHT = 10;
+    private static final long TARGET_NANOS = 200_000_000L;
+
+    public static void main(String[] args) {
+        int[] enemyCounts = {10, 25, 50, 100, 250, 500, 1000, 2000, 4000};
+        if (args.length > 0) {
+            enemyCounts = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                enemyCounts[i] = Integer.parseInt(args[i]);
+            }
+        }
+        // JIT 워밍업
+        Scenario warmup = new Scenario(500, 1250, 1);
+        measure(warmup, true);
+        measure(warmup, false);
+
+        System.out.println("enemies  bullets   hits   nested us/tick   grid us/tick  speedup");
+        for (int enemies : enemyCounts) {
+            Scenario scenario = new Scenario(enemies, enemies * 5 / 2, enemies);
+            double nested = measure(scenario, true);
+            boolean[] nestedHits = scenario.bulletHit.clone();
+            double grid = measure(scenario, false);
+            for (int b = 0; b < scenario.bulletCount; b++) {
+                if (nestedHits[b] == scenario.bullets.isAlive(b)) {
+                    throw new IllegalStateException("Grid and nested loop removed different bullets");
+                }
+            }
+            System.out.printf(Locale.ROOT, "%7d  %7d  %5d  %15.1f  %13.1f  %6.1fx%n",
+                    enemies, scenario.bulletCount, scenario.hits, nested / 1000, grid / 1000, nested / grid);
+        }
+
+        System.out.println();
+        System.out.println("enemies  bullets   update ms/tick  (budget 20 ms)");
+        for (int bulletCount : new int[] {5_000, 20_000, 50_000}) {
+            System.out.printf(Locale.ROOT, "%7d  %7d  %15.3f%n", 2000, bulletCount, measureTick(2000, bulletCount) / 1e6);
+        }
+    }
+
+    // GalaxyGame 한 틱과 같은 순서 (적 이동, 총알 이동, 충돌). 사라진 만큼 다시 채워 개체 수를 유지한다.
+    private static double measureTick(int enemyCount, int bulletCount) {
+        Random random = new Random(42);
+        GalaxyEntities enemies = new GalaxyEntities(ENEMY_SIZE, ENEMY_SIZE, enemyCount);
+        GalaxyEntities bullets = new GalaxyEntities(BULLET_WIDTH, BULLET_HEIGHT, bulletCount);
+        GalaxyGrid grid = new GalaxyGrid(WIDTH, HEIGHT, 64);
+        long ticks = 0;
+        long start = 0;
+        for (int tick = 0; ; tick++) {
+            if (tick == 200) {
+                start = System.nanoTime(); // 앞의 200 틱은 워밍업
+            }
+            while (enemies.size() < enemyCount) {
+                enemies.acquire(random.nextInt(WIDTH - ENEMY_SIZE), random.nextInt(HEIGHT), 0, 2);
+            }
+            while (bullets.size() < bulletCount) {
+                bullets.acquire(random.nextInt(WIDTH - BULLET_WIDTH), random.nextInt(HEIGHT), 0, -5);
+            }
+            enemies.move(Integer.MIN_VALUE, HEIGHT);
+            enemies.compact();
+            bullets.move(0, Integer.MAX_VALUE);
+            bullets.compact();
+            grid.build(bullets);
+            for (int i = 0; i < enemies.count; i++) {
+                int hit = grid.firstOverlap(enemies.x[i], enemies.y[i], ENEMY_SIZE, ENEMY_SIZE);
+                if (hit >= 0) {
+                    bullets.release(hit);
+                    enemies.release(i);
+                }
+            }
+            enemies.compact();
+            bullets.compact();
+            if (tick >= 200 && ++ticks >= 50 && System.nanoTime() - start > TARGET_NANOS) {
+                return (double) (System.nanoTime() - start) / ticks;
+            }
+        }
+    }
+
+    // 한 틱 분량의 충돌 검사 시간 (ns)
+    private static double measure(Scenario scenario, boolean nested) {
+        int runs = 0;
+        long check = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            check += nested ? scenario.nested() : scenario.grid();
+            runs++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < TARGET_NANOS);
+        if (check != (long) scenario.hits * runs) {
+            throw new IllegalStateException("Hit count changed between runs");
+        }
+        return (double) elapsed / runs;
+    }
+
+    static final class Scenario {
+        final int enemyCount;
+        final int bulletCount;
+        final int[] enemyX;
+        final int[] enemyY;
+        final int[] bulletX;
+        final int[] bulletY;
+        final boolean[] enemyHit;
+        final boolean[] bulletHit;
+        final GalaxyEntities bullets;
+        final GalaxyGrid grid = new GalaxyGrid(WIDTH, HEIGHT, 64);
+        int hits;
+
+        Scenario(int enemyCount, int bulletCount, long seed) {
+            this.enemyCount = enemyCount;
+            this.bulletCount = bulletCount;
+            Random random = new Random(seed);
+            enemyX = new int[enemyCount];
+            enemyY = new int[enemyCount];
+            for (int i = 0; i < enemyCount; i++) {
+                enemyX[i] = random.nextInt(WIDTH - ENEMY_SIZE);
+                enemyY[i] = random.nextInt(HEIGHT / 2);
+            }
+            bulletX = new int[bulletCount];
+            bulletY = new int[bulletCount];
+            for (int i = 0; i < bulletCount; i++) {
+                bulletX[i] = random.nextInt(WIDTH - BULLET_WIDTH);
+                bulletY[i] = random.nextInt(HEIGHT);
+            }
+            enemyHit = new boolean[enemyCount];
+            bulletHit = new boolean[bulletCount];
+            bullets = new GalaxyEntities(BULLET_WIDTH, BULLET_HEIGHT, bulletCount);
+        }
+
+        // 예전 구현: 모든 적 x 모든 총알, getBounds() 처럼 쌍마다 Rectangle 을 새로 만든다
+        int nested() {
+            reset();
+            for (int e = 0; e < enemyCount; e++) {
+                for (int b = 0; b < bulletCount; b++) {
+                    if (bulletHit[b]) {
+                        continue;
+                    }
+                    Rectangle bullet = new Rectangle(bulletX[b], bulletY[b], BULLET_WIDTH, BULLET_HEIGHT);
+                    if (bullet.intersects(new Rectangle(enemyX[e], enemyY[e], ENEMY_SIZE, ENEMY_SIZE))) {
+                        enemyHit[e] = true;
+                        bulletHit[b] = true;
+                        hits++;
+                        break;
+                    }
+                }
+            }
+            return hits;
+        }
+
+        // 저장소를 매번 다시 채우는 비용 (선형) 도 포함된다
+        int grid() {
+            reset();
+            bullets.clear();
+            for (int b = 0; b < bulletCount; b++) {
+                bullets.acquire(bulletX[b], bulletY[b], 0, 0);
+            }
+            grid.build(bullets);
+            for (int e = 0; e < enemyCount; e++) {
+                int b = grid.firstOverlap(enemyX[e], enemyY[e], ENEMY_SIZE, ENEMY_SIZE);
+                if (b >= 0) {
+                    enemyHit[e] = true;
+                    bullets.release(b);
+                    hits++;
+                }
+            }
+            return hits;
+        }
+
+        private void reset() {
+            hits = 0;
+            Arrays.fill(enemyHit, false);
+            Arrays.fill(bulletHit, false);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package game;
+
+import java.awt.Graphics;
+import java.util.Arrays;
+
+// 적/총알용 structure-of-arrays 저장소이자 고정 용량 풀. 같은 종류의 개체는 크기가 같으므로 위치와 속도만 int 배열로 둔다.
+// 배열은 생성할 때 한 번만 만들고, acquire() 는 빈 칸을 꺼내 쓰며 꽉 차 있으면 -1 (miss) 을 돌려준다.
+// 개체는 항상 0..count-1 에 빈칸 없이 모여 있다. release() 는 alive 비트만 지우고 (충돌 검사 중에도 인덱스가 바뀌지 않음),
+// compact() 가 반납된 칸을 맨 뒤 개체로 채운다 (swap-remove, O(1), 순서는 보존하지 않음).
+// hits/misses/highWater 는 웨이브마다 용량을 정할 때 쓴다.
+public class GalaxyEntities {
+    final int width;
+    final int height;
+
+    final int[] x;
+    final int[] y;
+    final int[] vx;
+    final int[] vy;
+    final long[] alive;
+    int count;
+
+    private long hits;
+    private long misses;
+    private int highWater;
+
+    public GalaxyEntities(int width, int height, int capacity) {
+        this.width = width;
+        this.height = height;
+        x = new int[capacity];
+        y = new int[capacity];
+        vx = new int[capacity];
+        vy = new int[capacity];
+        alive = new long[(capacity + 63) >>> 6];
+    }
+
+    // 새 개체의 인덱스, 풀이 꽉 찼으면 -1
+    public int acquire(int px, int py, int pvx, int pvy) {
+        if (count == x.length) {
+            misses++;
+            return -1;
+        }
+        hits++;
+        int i = count++;
+        if (count > highWater) {
+            highWater = count;
+        }
+        x[i] = px;
+        y[i] = py;
+        vx[i] = pvx;
+        vy[i] = pvy;
+        alive[i >>> 6] |= 1L << i;
+        return i;
+    }
+
+    public boolean isAlive(int i) {
+        return (alive[i >>> 6] & 1L << i) != 0;
+    }
+
+    // 다음 compact() 에서 칸이 풀로 돌아간다
+    public void release(int i) {
+        alive[i >>> 6] &= ~(1L << i);
+    }
+
+    // 모든 개체를 속도만큼 움직이고, y 가 [minY, maxY] 를 벗어난 개체는 반납한다
+    public void move(int minY, int maxY) {
+        int[] x = this.x;
+        int[] y = this.y;
+        int[] vx = this.vx;
+        int[] vy = this.vy;
+        for (int i = 0; i < count; i++) {
+            x[i] += vx[i];
+            int ny = y[i] += vy[i];
+            if (ny < minY || ny > maxY) {
+                release(i);
+            }
+        }
+    }
+
+    // 반납된 칸을 맨 뒤의 살아 있는 개체로 채운다
+    public void compact() {
+        int i = 0;
+        while (i < count) {
+            if (isAlive(i)) {
+                i++;
+                continue;
+            }
+            int last = --count;
+            if (last != i) {
+                x[i] = x[last];
+                y[i] = y[last];
+                vx[i] = vx[last];
+                vy[i] = vy[last];
+                if (isAlive(last)) {
+                    alive[i >>> 6] |= 1L << i;
+                }
+                // 가져온 개체도 죽었을 수 있으므로 i 는 그대로 두고 다시 본다
+            }
+            release(last);
+        }
+    }
+
+    // 그리기용 불변 복사본 (GameLoop 스냅샷)
+    public Snapshot snapshot() {
+        return new Snapshot(this);
+    }
+
+    public static final class Snapshot {
+        public final int width;
+        public final int height;
+        public final int count;
+        public final int capacity;
+        public final long hits;
+        public final long misses;
+        public final int highWater;
+        private final int[] x;
+        private final int[] y;
+        private final int[] vx;
+        private final int[] vy;
+
+        private Snapshot(GalaxyEntities entities) {
+            width = entities.width;
+            height = entities.height;
+            count = entities.count;
+            capacity = entities.capacity();
+            hits = entities.hits;
+            misses = entities.misses;
+            highWater = entities.highWater;
+            x = Arrays.copyOf(entities.x, count);
+            y = Arrays.copyOf(entities.y, count);
+            vx = Arrays.copyOf(entities.vx, count);
+            vy = Arrays.copyOf(entities.vy, count);
+        }
+
+        int x(int i) {
+            return x[i];
+        }
+
+        int y(int i) {
+            return y[i];
+        }
+
+        // 한 틱 전 위치 (x - v) 와 현재 위치 사이를 보간해서 그린다. swap-remove 로 인덱스가 바뀌어도 맞다.
+        public void fill(Graphics g, double alpha) {
+            double back = 1 - alpha;
+            for (int i = 0; i < count; i++) {
+                g.fillRect(x[i] - (int) Math.round(vx[i] * back), y[i] - (int) Math.round(vy[i] * back), width, height);
+            }
+        }
+
+        // fill() 과 같은 위치에 아틀라스의 스프라이트를 그린다
+        public void draw(Graphics g, GalaxySprites sprites, int sprite, double alpha) {
+            double back = 1 - alpha;
+            for (int i = 0; i < count; i++) {
+                sprites.draw(g, sprite, x[i] - (int) Math.round(vx[i] * back), y[i] - (int) Math.round(vy[i] * back));
+            }
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(alive, 0, (count + 63) >>> 6, 0L);
+        count = 0;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public int capacity() {
+        return x.length;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public int getHighWater() {
+        return highWater;
+    }
+
+    public void resetStats() {
+        hits = 0;
+        misses = 0;
+        highWater = count;
+    }
+}
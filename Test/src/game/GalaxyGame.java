@@ -2,29 +2,34 @@ package game;
 
 import javax.swing.JFrame;
 import javax.swing.JPanel;
-import javax.swing.Timer;
 
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Font;
 import java.awt.Graphics;
-import java.awt.Rectangle;
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.Random;
 
-public class GalaxyGame extends JPanel implements ActionListener, KeyListener {
+// 게임 로직 (GalaxyWorld) 은 GameLoop 의 시뮬레이션 스레드에서 50틱/초로 돌고, 화면은 틱마다 만든 Snapshot 만 그린다.
+// 키 입력은 post() 로 시뮬레이션 스레드에 넘긴다.
+public class GalaxyGame extends JPanel implements GameLoop.Game<GalaxyWorld.Snapshot>, KeyListener {
 
-    private Timer timer;
-    private SpaceShip player;
-    private ArrayList<Enemy> enemies;
-    private ArrayList<Bullet> bullets;
-    private boolean gameOver;
-    private int score;
+    private final GameLoop<GalaxyWorld.Snapshot> loop;
+    // -Dgame.render=active 일 때만 사용, 아니면 Swing 이 paintComponent 로 그린다
+    private final ActiveRenderer renderer;
+    private final RenderStats swingStats = new RenderStats("Galaxy swing");
+
+    // F3: 프로파일러 HUD 와 프레임당 그리기 호출 수 (프로파일러는 JMX 로도 볼 수 있음)
+    private static final int PROFILE_UPDATE = 0, PROFILE_COLLISIONS = 1, PROFILE_PAINT = 2;
+    private final FrameProfiler profiler = new FrameProfiler("update", "collisions", "paint").register("Galaxy");
+    // 게임 상태와 규칙 (-Dgalaxy.seed 로 적 생성 순서 고정, -Dgalaxy.threads 로 충돌 검사 스레드 수)
+    private final GalaxyWorld world = new GalaxyWorld(Long.getLong("galaxy.seed", System.nanoTime()));
+    private boolean showPoolStats; // "P" 키: 풀 사용량 표시 (EDT 전용)
+
+    // 스프라이트 아틀라스와 글꼴은 한 번만 만든다
+    private final GalaxySprites sprites = new GalaxySprites();
+    private static final Font GAME_OVER_FONT = new Font("Arial", Font.BOLD, 50);
+    private static final Font POOL_STATS_FONT = new Font("Monospaced", Font.PLAIN, 12);
 
     public GalaxyGame() {
         setPreferredSize(new Dimension(800, 600));
@@ -32,17 +37,10 @@ public class GalaxyGame extends JPanel implements ActionListener, KeyListener {
         setFocusable(true);
         addKeyListener(this);
 
-        player = new SpaceShip(400, 500);
-        enemies = new ArrayList<>();
-        bullets = new ArrayList<>();
-        gameOver = false;
-        score = 0;
-
-        timer = new Timer(20, this);
-        timer.start();
-
-        // 적 생성 타이머
-        new Timer(1000, e -> spawnEnemy()).start();
+        world.setCollisionThreads(Integer.getInteger("galaxy.threads", 1));
+        renderer = ActiveRenderer.install(this, "Galaxy", this::render, true);
+        loop = new GameLoop<>("Galaxy", this, renderer != null ? renderer : this, 50, 60);
+        loop.start();
     }
 
     public static void main(String[] args) {
@@ -55,212 +53,114 @@ public class GalaxyGame extends JPanel implements ActionListener, KeyListener {
     }
 
     @Override
-    public void actionPerformed(ActionEvent e) {
-        if (!gameOver) {
-            player.move();
-            moveEnemies();
-            moveBullets();
-            checkCollisions();
-        }
-        repaint();
+    public void update() {
+        long start = profiler.start();
+        if (!world.isGameOver()) {
+            world.advance();
+            long collisions = profiler.start();
+            world.checkCollisions();
+            profiler.end(PROFILE_COLLISIONS, collisions);
+        }
+        profiler.end(PROFILE_UPDATE, start);
     }
 
-    // 적 생성
-    public void spawnEnemy() {
-        if (!gameOver) {
-            Random rand = new Random();
-            int x = rand.nextInt(750); // 랜덤 x 위치
-            enemies.add(new Enemy(x, 0));
-        }
-    }
-
-    // 적 이동
-    public void moveEnemies() {
-        Iterator<Enemy> iterator = enemies.iterator();
-        while (iterator.hasNext()) {
-            Enemy enemy = iterator.next();
-            enemy.move();
-            if (enemy.getY() > 600) { // 화면 아래로 사라지면 제거
-                iterator.remove();
-            }
-        }
+    @Override
+    public GalaxyWorld.Snapshot snapshot() {
+        return world.snapshot();
     }
 
-    // 총알 이동
-    public void moveBullets() {
-        Iterator<Bullet> iterator = bullets.iterator();
-        while (iterator.hasNext()) {
-            Bullet bullet = iterator.next();
-            bullet.move();
-            if (bullet.getY() < 0) { // 화면 위로 사라지면 제거
-                iterator.remove();
-            }
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        if (renderer == null) {
+            render(g);
+            swingStats.presented();
         }
     }
 
-    // 충돌 체크
-    public void checkCollisions() {
-        Iterator<Enemy> enemyIterator = enemies.iterator();
-        while (enemyIterator.hasNext()) {
-            Enemy enemy = enemyIterator.next();
-
-            // 적과 플레이어 충돌 확인
-            if (player.getBounds().intersects(enemy.getBounds())) {
-                gameOver = true;
-                return;
-            }
-
-            // 적과 총알 충돌 확인
-            Iterator<Bullet> bulletIterator = bullets.iterator();
-            while (bulletIterator.hasNext()) {
-                Bullet bullet = bulletIterator.next();
-                if (bullet.getBounds().intersects(enemy.getBounds())) {
-                    enemyIterator.remove();
-                    bulletIterator.remove();
-                    score += 10;
-                    break;
-                }
-            }
+    @Override
+    public void repaint() {
+        if (swingStats != null) { // JPanel 생성자에서도 불린다
+            swingStats.requested();
         }
+        super.repaint();
     }
 
-    @Override
-    protected void paintComponent(Graphics g) {
-        super.paintComponent(g);
-        if (gameOver) {
+    private void render(Graphics g) {
+        profiler.frame();
+        sprites.beginFrame();
+        long start = profiler.start();
+        GameLoop.Frame<GalaxyWorld.Snapshot> frame = loop.getFrame();
+        GalaxyWorld.Snapshot state = frame.current;
+        double alpha = frame.alpha();
+        if (state.gameOver) {
             g.setColor(Color.RED);
-            g.setFont(new Font("Arial", Font.BOLD, 50));
+            g.setFont(GAME_OVER_FONT);
             g.drawString("Game Over", 250, 300);
+            sprites.countDraw();
         } else {
-            player.draw(g);
-            for (Enemy enemy : enemies) {
-                enemy.draw(g);
-            }
-            for (Bullet bullet : bullets) {
-                bullet.draw(g);
-            }
+            // 종류별로 모아서 그린다 (우주선, 적 전부, 총알 전부)
+            sprites.draw(g, GalaxySprites.SHIP, GameLoop.Frame.lerp(state.previousPlayerX, state.playerX, alpha),
+                    state.playerY);
+            state.enemies.draw(g, sprites, GalaxySprites.ENEMY, alpha);
+            state.bullets.draw(g, sprites, GalaxySprites.BULLET, alpha);
 
             // 점수 표시
-            g.setColor(Color.WHITE);
-            g.setFont(new Font("Arial", Font.BOLD, 20));
-            g.drawString("Score: " + score, 10, 20);
+            sprites.drawScore(g, state.score, 10, 20);
+            if (showPoolStats) {
+                g.setColor(Color.WHITE);
+                g.setFont(POOL_STATS_FONT);
+                drawPoolStats(g, "enemies", state.enemies, 40);
+                drawPoolStats(g, "bullets", state.bullets, 55);
+                sprites.countDraw();
+                sprites.countDraw();
+            }
+        }
+        profiler.end(PROFILE_PAINT, start);
+        profiler.drawHud(g, 520, 20);
+        if (profiler.isHudVisible()) {
+            sprites.drawCounter(g, 520, 90); // 프로파일러 HUD 다섯 줄 아래
         }
     }
 
+    private static void drawPoolStats(Graphics g, String name, GalaxyEntities.Snapshot pool, int y) {
+        g.drawString(String.format("%-7s %4d/%-4d hit %d miss %d max %d", name, pool.count, pool.capacity,
+                pool.hits, pool.misses, pool.highWater), 10, y);
+    }
+
     @Override
     public void keyPressed(KeyEvent e) {
-        if (!gameOver) {
-            if (e.getKeyCode() == KeyEvent.VK_LEFT) {
-                player.setDx(-5);
-            }
-            if (e.getKeyCode() == KeyEvent.VK_RIGHT) {
-                player.setDx(5);
-            }
-            if (e.getKeyCode() == KeyEvent.VK_SPACE) {
-                bullets.add(new Bullet(player.getX() + 20, player.getY()));
+        int key = e.getKeyCode();
+        if (key == KeyEvent.VK_P) {
+            showPoolStats = !showPoolStats;
+            repaint();
+        }
+        if (key == KeyEvent.VK_F3) {
+            profiler.toggleHud();
+        }
+        loop.post(() -> {
+            if (!world.isGameOver()) {
+                if (key == KeyEvent.VK_LEFT) {
+                    world.setPlayerDx(-5);
+                }
+                if (key == KeyEvent.VK_RIGHT) {
+                    world.setPlayerDx(5);
+                }
+                if (key == KeyEvent.VK_SPACE) {
+                    world.fire();
+                }
             }
-        }
+        });
     }
 
     @Override
     public void keyReleased(KeyEvent e) {
-        if (e.getKeyCode() == KeyEvent.VK_LEFT || e.getKeyCode() == KeyEvent.VK_RIGHT) {
-            player.setDx(0);
+        int key = e.getKeyCode();
+        if (key == KeyEvent.VK_LEFT || key == KeyEvent.VK_RIGHT) {
+            loop.post(() -> world.setPlayerDx(0));
         }
     }
 
     @Override
     public void keyTyped(KeyEvent e) {}
-
-    class SpaceShip {
-        private int x, y, dx;
-        private final int WIDTH = 50, HEIGHT = 50;
-
-        public SpaceShip(int x, int y) {
-            this.x = x;
-            this.y = y;
-            this.dx = 0;
-        }
-
-        public void move() {
-            x += dx;
-            if (x < 0) x = 0;
-            if (x > 750) x = 750;
-        }
-
-        public void draw(Graphics g) {
-            g.setColor(Color.BLUE);
-            g.fillRect(x, y, WIDTH, HEIGHT);
-        }
-
-        public void setDx(int dx) {
-            this.dx = dx;
-        }
-
-        public int getX() {
-            return x;
-        }
-
-        public int getY() {
-            return y;
-        }
-
-        public Rectangle getBounds() {
-            return new Rectangle(x, y, WIDTH, HEIGHT);
-        }
-    }
-
-    class Enemy {
-        private int x, y;
-        private final int WIDTH = 40, HEIGHT = 40;
-
-        public Enemy(int x, int y) {
-            this.x = x;
-            this.y = y;
-        }
-
-        public void move() {
-            y += 2; // 적의 이동 속도
-        }
-
-        public void draw(Graphics g) {
-            g.setColor(Color.RED);
-            g.fillRect(x, y, WIDTH, HEIGHT);
-        }
-
-        public int getY() {
-            return y;
-        }
-
-        public Rectangle getBounds() {
-            return new Rectangle(x, y, WIDTH, HEIGHT);
-        }
-    }
-
-    class Bullet {
-        private int x, y;
-        private final int WIDTH = 5, HEIGHT = 10;
-
-        public Bullet(int x, int y) {
-            this.x = x;
-            this.y = y;
-        }
-
-        public void move() {
-            y -= 5; // 총알의 속도
-        }
-
-        public void draw(Graphics g) {
-            g.setColor(Color.YELLOW);
-            g.fillRect(x, y, WIDTH, HEIGHT);
-        }
-
-        public int getY() {
-            return y;
-        }
-
-        public Rectangle getBounds() {
-            return new Rectangle(x, y, WIDTH, HEIGHT);
-        }
-    }
 }
@@ -0,0 +1,143 @@
+package game;
+
+import java.util.Arrays;
+
+// 균일 격자 broadphase.
+// GalaxyEntities 의 개체(총알)를 왼쪽 위 좌표가 속한 셀별로 묶어 두고, 질의 사각형과 겹칠 수 있는 셀만 검사한다.
+// 매 틱 counting sort 로 다시 만들기 때문에 셀 안의 인덱스는 항상 오름차순이고, build/query 모두 할당이 없다.
+// 화면 밖 좌표는 가장자리 셀로 모인다. firstSweptHit() 은 틱 동안의 이동까지 보는 연속 충돌 검사로, 개체의
+// 최대 속도만큼 넓힌 셀들만 본다 (SweptCollision).
+public class GalaxyGrid {
+    private final int cellSize;
+    private final int columns;
+    private final int rows;
+
+    // 셀 c 의 물체는 items[cellStart[c] .. cellStart[c + 1]) 에 있다
+    private final int[] cellStart;
+    private int[] items = new int[256];
+    // 마지막 build() 의 개체 중 가장 빠른 것의 한 틱 이동 거리 (축별)
+    private int maxSpeedX;
+    private int maxSpeedY;
+
+    // 마지막 build() 의 저장소. 다음 build() 까지 위치가 바뀌거나 compact() 되면 안 된다 (release() 는 괜찮음).
+    private GalaxyEntities entities;
+
+    public GalaxyGrid(int worldWidth, int worldHeight, int cellSize) {
+        this.cellSize = cellSize;
+        this.columns = (worldWidth + cellSize - 1) / cellSize;
+        this.rows = (worldHeight + cellSize - 1) / cellSize;
+        this.cellStart = new int[columns * rows + 1];
+    }
+
+    public void build(GalaxyEntities entities) {
+        this.entities = entities;
+        int count = entities.count;
+        int[] xs = entities.x;
+        int[] ys = entities.y;
+        int[] vxs = entities.vx;
+        int[] vys = entities.vy;
+        maxSpeedX = 0;
+        maxSpeedY = 0;
+        for (int i = 0; i < count; i++) {
+            maxSpeedX = Math.max(maxSpeedX, Math.abs(vxs[i]));
+            maxSpeedY = Math.max(maxSpeedY, Math.abs(vys[i]));
+        }
+        if (items.length < count) {
+            items = new int[Math.max(count, items.length * 2)];
+        }
+        int cells = columns * rows;
+        Arrays.fill(cellStart, 0);
+        for (int i = 0; i < count; i++) {
+            cellStart[cell(xs[i], ys[i])]++;
+        }
+        // 누적합: cellStart[c] = 셀 c 의 끝, 그 다음 뒤에서부터 채우면 시작 위치가 된다
+        for (int c = 1; c < cells; c++) {
+            cellStart[c] += cellStart[c - 1];
+        }
+        cellStart[cells] = count;
+        for (int i = count - 1; i >= 0; i--) {
+            items[--cellStart[cell(xs[i], ys[i])]] = i;
+        }
+    }
+
+    // (x, y, w, h) 와 겹치는 살아 있는 개체 중 가장 작은 인덱스, 없으면 -1
+    public int firstOverlap(int x, int y, int w, int h) {
+        int[] itemX = entities.x;
+        int[] itemY = entities.y;
+        int itemWidth = entities.width;
+        int itemHeight = entities.height;
+        // 개체는 왼쪽 위 기준으로 들어가 있으므로 질의 범위를 개체 크기만큼 왼쪽/위로 넓힌다
+        int fromCol = column(x - itemWidth + 1);
+        int toCol = column(x + w - 1);
+        int fromRow = row(y - itemHeight + 1);
+        int toRow = row(y + h - 1);
+        int best = -1;
+        for (int r = fromRow; r <= toRow; r++) {
+            for (int c = fromCol; c <= toCol; c++) {
+                int cell = r * columns + c;
+                for (int k = cellStart[cell], end = cellStart[cell + 1]; k < end; k++) {
+                    int i = items[k];
+                    if (best >= 0 && i > best) {
+                        break; // 셀 안은 오름차순
+                    }
+                    if (entities.isAlive(i) && intersects(x, y, w, h, itemX[i], itemY[i], itemWidth, itemHeight)) {
+                        best = i;
+                        break;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    // (x, y, w, h) 가 이번 틱에 (vx, vy) 만큼 움직여 왔을 때, 틱 동안 한 번이라도 겹친 살아 있는 개체 중
+    // 가장 작은 인덱스, 없으면 -1. 틱 끝에 겹친 개체는 항상 포함되므로 firstOverlap() 의 결과를 넓힌 것이다.
+    public int firstSweptHit(int x, int y, int w, int h, int vx, int vy) {
+        int[] itemX = entities.x;
+        int[] itemY = entities.y;
+        int[] itemVx = entities.vx;
+        int[] itemVy = entities.vy;
+        int itemWidth = entities.width;
+        int itemHeight = entities.height;
+        // 질의 사각형이 지나간 범위를 개체 크기와 개체의 최대 이동 거리만큼 더 넓힌다
+        int fromCol = column(Math.min(x, x - vx) - itemWidth + 1 - maxSpeedX);
+        int toCol = column(Math.max(x, x - vx) + w - 1 + maxSpeedX);
+        int fromRow = row(Math.min(y, y - vy) - itemHeight + 1 - maxSpeedY);
+        int toRow = row(Math.max(y, y - vy) + h - 1 + maxSpeedY);
+        int best = -1;
+        for (int r = fromRow; r <= toRow; r++) {
+            for (int c = fromCol; c <= toCol; c++) {
+                int cell = r * columns + c;
+                for (int k = cellStart[cell], end = cellStart[cell + 1]; k < end; k++) {
+                    int i = items[k];
+                    if (best >= 0 && i > best) {
+                        break; // 셀 안은 오름차순
+                    }
+                    if (entities.isAlive(i) && SweptCollision.hits(x, y, w, h, vx, vy,
+                            itemX[i], itemY[i], itemWidth, itemHeight, itemVx[i], itemVy[i])) {
+                        best = i;
+                        break;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    // Rectangle.intersects 와 같은 판정을 int 로 (크기는 양수)
+    public static boolean intersects(int ax, int ay, int aw, int ah, int bx, int by, int bw, int bh) {
+        return ax < bx + bw && bx < ax + aw && ay < by + bh && by < ay + ah;
+    }
+
+    private int cell(int x, int y) {
+        return row(y) * columns + column(x);
+    }
+
+    private int column(int x) {
+        return x < 0 ? 0 : Math.min(x / cellSize, columns - 1);
+    }
+
+    private int row(int y) {
+        return y < 0 ? 0 : Math.min(y / cellSize, rows - 1);
+    }
+}
@@ -0,0 +1,138 @@
+package game;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+// 병렬 충돌 검사 확장성 벤치마크: 개체 10만 개 (적:총알 = 2:5) 를 한 번 배치해 두고, 충돌 검사 스레드 수를
+// 1 부터 코어 수까지 늘려 가며 GalaxyWorld.checkCollisions() 한 번의 시간을 잰다. 매 반복 같은 배치로 다시 채운다.
+// 먼저 같은 seed 로 단일 스레드 월드와 병렬 월드를 웨이브와 함께 나란히 돌려 매 틱 상태가 같은지 확인한다.
+//
+// usage: GalaxyParallelBenchmark [entities] [threadCounts...]
+public class GalaxyParallelBenchmark {
+    private static final long TARGET_NANOS = 500_000_000L;
+
+    public static void main(String[] args) {
+        int entities = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int[] threadCounts;
+        if (args.length > 1) {
+            threadCounts = new int[args.length - 1];
+            for (int i = 1; i < args.length; i++) {
+                threadCounts[i - 1] = Integer.parseInt(args[i]);
+            }
+        } else {
+            int cores = Runtime.getRuntime().availableProcessors();
+            threadCounts = new int[32 - Integer.numberOfLeadingZeros(cores)];
+            for (int i = 0; i < threadCounts.length; i++) {
+                threadCounts[i] = 1 << i;
+            }
+            if (threadCounts[threadCounts.length - 1] != cores) {
+                threadCounts = Arrays.copyOf(threadCounts, threadCounts.length + 1);
+                threadCounts[threadCounts.length - 1] = cores;
+            }
+        }
+
+        for (int threads : threadCounts) {
+            if (threads > 1) {
+                verify(threads, 300);
+            }
+        }
+        System.out.println("same result as single-threaded for " + Arrays.toString(threadCounts) + " threads");
+
+        int enemyCount = entities * 2 / 7;
+        int bulletCount = entities - enemyCount;
+        Random random = new Random(7);
+        int[] enemyX = new int[enemyCount], enemyY = new int[enemyCount];
+        for (int i = 0; i < enemyCount; i++) {
+            enemyX[i] = random.nextInt(GalaxyWorld.WIDTH - 40);
+            enemyY[i] = random.nextInt(GalaxyWorld.HEIGHT - 40);
+        }
+        int[] bulletX = new int[bulletCount], bulletY = new int[bulletCount];
+        for (int i = 0; i < bulletCount; i++) {
+            bulletX[i] = random.nextInt(GalaxyWorld.WIDTH - 5);
+            bulletY[i] = random.nextInt(GalaxyWorld.HEIGHT - 10);
+        }
+
+        System.out.printf(Locale.ROOT, "%d enemies, %d bullets, %d cores%n", enemyCount, bulletCount,
+                Runtime.getRuntime().availableProcessors());
+        System.out.println("threads  ms/pass  speedup");
+        double single = 0;
+        for (int threads : threadCounts) {
+            GalaxyWorld world = new GalaxyWorld(1, enemyCount, bulletCount);
+            world.setInvincible(true);
+            world.setCollisionThreads(threads);
+            measure(world, enemyX, enemyY, bulletX, bulletY); // JIT 워밍업
+            double nanos = measure(world, enemyX, enemyY, bulletX, bulletY);
+            world.setCollisionThreads(1);
+            if (single == 0) {
+                single = nanos;
+            }
+            System.out.printf(Locale.ROOT, "%7d  %7.2f  %6.2fx%n", threads, nanos / 1e6, single / nanos);
+        }
+    }
+
+    // 한 번의 충돌 검사 (배치 다시 채우기 포함) 시간 (ns)
+    private static double measure(GalaxyWorld world, int[] enemyX, int[] enemyY, int[] bulletX, int[] bulletY) {
+        GalaxyEntities enemies = world.enemies();
+        GalaxyEntities bullets = world.bullets();
+        long kills = -1;
+        int runs = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            long before = world.getKills();
+            enemies.clear();
+            for (int i = 0; i < enemyX.length; i++) {
+                enemies.acquire(enemyX[i], enemyY[i], 0, 2);
+            }
+            bullets.clear();
+            for (int i = 0; i < bulletX.length; i++) {
+                bullets.acquire(bulletX[i], bulletY[i], 0, -5);
+            }
+            world.checkCollisions();
+            long passKills = world.getKills() - before;
+            if (kills >= 0 && passKills != kills) {
+                throw new IllegalStateException("Kill count changed between runs");
+            }
+            kills = passKills;
+            runs++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < TARGET_NANOS);
+        return (double) elapsed / runs;
+    }
+
+    // 같은 seed 의 단일 스레드 월드와 병렬 월드를 나란히 돌리며 매 틱 비교한다
+    private static void verify(int threads, int ticks) {
+        GalaxyWorld single = new GalaxyWorld(3, 20_000, 20_000);
+        GalaxyWorld parallel = new GalaxyWorld(3, 20_000, 20_000);
+        single.setInvincible(true);
+        parallel.setInvincible(true);
+        parallel.setCollisionThreads(threads);
+        for (int tick = 0; tick < ticks; tick++) {
+            for (GalaxyWorld world : new GalaxyWorld[] {single, parallel}) {
+                for (int i = 0; i < 40; i++) {
+                    world.spawnEnemy();
+                }
+                for (int i = 0; i < 100; i++) {
+                    world.spawnBullet();
+                }
+                world.tick();
+            }
+            if (!sameState(single, parallel)) {
+                throw new IllegalStateException(threads + " threads diverged from single-threaded at tick " + tick);
+            }
+        }
+        parallel.setCollisionThreads(1);
+    }
+
+    private static boolean sameState(GalaxyWorld a, GalaxyWorld b) {
+        return a.getScore() == b.getScore() && a.getKills() == b.getKills()
+                && sameEntities(a.enemies(), b.enemies()) && sameEntities(a.bullets(), b.bullets());
+    }
+
+    private static boolean sameEntities(GalaxyEntities a, GalaxyEntities b) {
+        int n = a.count;
+        return n == b.count && Arrays.equals(a.x, 0, n, b.x, 0, n) && Arrays.equals(a.y, 0, n, b.y, 0, n)
+                && Arrays.equals(a.vx, 0, n, b.vx, 0, n) && Arrays.equals(a.vy, 0, n, b.vy, 0, n);
+    }
+}
@@ -0,0 +1,108 @@
+package game;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.Locale;
+import java.util.Random;
+
+// 그리기 벤치마크: 같은 스냅샷을 800x600 이미지에 세 가지로 그려서 프레임당 시간을 비교한다.
+//  - rects: 예전 방식, 개체마다 fillRect, 매 프레임 새 Font 와 점수 문자열
+//  - shapes: 아틀라스 없이 같은 스프라이트 그림 (안티앨리어싱 도형) 을 개체마다 직접 그리기
+//  - atlas: GalaxySprites 아틀라스에서 복사 (그리기 호출 수도 함께)
+// 화면 없이 돌아가므로 소프트웨어 파이프라인 숫자다. 가속 파이프라인에서는 아틀라스 복사가 텍스처 복사가 된다.
+//
+// usage: GalaxyRenderBenchmark [enemyCounts...]
+public class GalaxyRenderBenchmark {
+    private static final long TARGET_NANOS = 300_000_000L;
+    private static final int RECTS = 0, SHAPES = 1, ATLAS = 2;
+
+    public static void main(String[] args) {
+        int[] enemyCounts = {50, 500, 2000, 4000};
+        if (args.length > 0) {
+            enemyCounts = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                enemyCounts[i] = Integer.parseInt(args[i]);
+            }
+        }
+        BufferedImage screen = new BufferedImage(GalaxyWorld.WIDTH, GalaxyWorld.HEIGHT, BufferedImage.TYPE_INT_RGB);
+        GalaxySprites sprites = new GalaxySprites();
+
+        System.out.println("enemies  bullets  rects ms/frame  shapes ms/frame  atlas ms/frame  calls");
+        for (int enemies : enemyCounts) {
+            GalaxyWorld.Snapshot state = scene(enemies, enemies * 5 / 2);
+            for (int mode = RECTS; mode <= ATLAS; mode++) {
+                measure(screen, state, sprites, mode); // JIT 워밍업
+            }
+            double rects = measure(screen, state, sprites, RECTS);
+            double shapes = measure(screen, state, sprites, SHAPES);
+            double atlas = measure(screen, state, sprites, ATLAS);
+            System.out.printf(Locale.ROOT, "%7d  %7d  %14.3f  %15.3f  %14.3f  %5d%n", enemies, state.bullets.count,
+                    rects / 1e6, shapes / 1e6, atlas / 1e6, sprites.getDrawCalls());
+        }
+    }
+
+    // 총알에 맞지 않도록 서로 다른 띠에 적과 총알을 놓는다
+    private static GalaxyWorld.Snapshot scene(int enemyCount, int bulletCount) {
+        GalaxyWorld world = new GalaxyWorld(1, enemyCount, bulletCount);
+        Random random = new Random(enemyCount);
+        for (int i = 0; i < enemyCount; i++) {
+            world.enemies().acquire(random.nextInt(760), random.nextInt(200), 0, 2);
+        }
+        for (int i = 0; i < bulletCount; i++) {
+            world.bullets().acquire(random.nextInt(795), 300 + random.nextInt(290), 0, -5);
+        }
+        return world.snapshot();
+    }
+
+    private static double measure(BufferedImage screen, GalaxyWorld.Snapshot state, GalaxySprites sprites, int mode) {
+        Graphics2D g = screen.createGraphics();
+        if (mode == SHAPES) {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        }
+        int frames = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            g.setColor(Color.BLACK);
+            g.fillRect(0, 0, GalaxyWorld.WIDTH, GalaxyWorld.HEIGHT);
+            if (mode == ATLAS) {
+                sprites.beginFrame();
+                sprites.draw(g, GalaxySprites.SHIP, state.playerX, state.playerY);
+                state.enemies.draw(g, sprites, GalaxySprites.ENEMY, 0.5);
+                state.bullets.draw(g, sprites, GalaxySprites.BULLET, 0.5);
+                sprites.drawScore(g, state.score, 10, 20);
+            } else if (mode == SHAPES) {
+                GalaxySprites.paintShip(g, state.playerX, state.playerY);
+                for (int i = 0; i < state.enemies.count; i++) {
+                    GalaxySprites.paintEnemy(g, state.enemies.x(i), state.enemies.y(i));
+                }
+                for (int i = 0; i < state.bullets.count; i++) {
+                    GalaxySprites.paintBullet(g, state.bullets.x(i), state.bullets.y(i));
+                }
+                g.setColor(Color.WHITE);
+                g.setFont(new Font("Arial", Font.BOLD, 20));
+                g.drawString("Score: " + state.score, 10, 20);
+            } else {
+                g.setColor(Color.BLUE);
+                g.fillRect(state.playerX, state.playerY, 50, 50);
+                g.setColor(Color.RED);
+                state.enemies.fill(g, 0.5);
+                g.setColor(Color.YELLOW);
+                state.bullets.fill(g, 0.5);
+                g.setColor(Color.WHITE);
+                g.setFont(new Font("Arial", Font.BOLD, 20));
+                g.drawString("Score: " + state.score, 10, 20);
+            }
+            frames++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < TARGET_NANOS);
+        if (mode == ATLAS) {
+            sprites.beginFrame(); // 마지막 프레임의 호출 수를 getDrawCalls() 로
+        }
+        g.dispose();
+        return (double) elapsed / frames;
+    }
+}
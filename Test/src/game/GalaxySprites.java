@@ -0,0 +1,189 @@
+package game;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsEnvironment;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+
+// Galaxy 스프라이트 아틀라스: 우주선, 적, 총알 그림과 점수 글자 ("Score: ", 0-9) 를 시작할 때 한 번
+// 화면과 호환되는 BufferedImage 하나에 그려 두고, 매 프레임은 그 일부를 drawImage 로 복사만 한다.
+// 한 종류를 모아서 연달아 그리면 (적 전부, 그 다음 총알 전부) 같은 원본 이미지가 계속 쓰여서 가속 파이프라인이
+// 캐시해 둔 텍스처를 그대로 쓴다. 점수는 매 프레임 문자열과 Font 를 만드는 대신 숫자 글리프를 이어 붙인다.
+// 프레임마다 그리기 호출 수를 센다 (beginFrame() 부터). 한 번에 한 스레드에서만 그린다.
+public final class GalaxySprites {
+    public static final int SHIP = 0, ENEMY = 1, BULLET = 2;
+    private static final int DIGIT = 3;    // DIGIT + 0..9
+    private static final int LABEL = 13;   // "Score: "
+    private static final int SPRITES = 14;
+
+    private static final Font SCORE_FONT = new Font("Arial", Font.BOLD, 20);
+    private static final Font COUNTER_FONT = new Font("Monospaced", Font.PLAIN, 12);
+    private static final char[] COUNTER_LABEL = "draw calls ".toCharArray();
+
+    private final BufferedImage atlas;
+    private final int[] spriteX = new int[SPRITES];
+    private final int[] spriteY = new int[SPRITES];
+    private final int[] spriteWidth = new int[SPRITES];
+    private final int[] spriteHeight = new int[SPRITES];
+    private final int glyphAscent;
+
+    private int drawCalls;
+    private int lastFrameDrawCalls;
+    private final char[] line = new char[32];
+
+    public GalaxySprites() {
+        // 글리프 크기는 글꼴에 따라 다르므로 먼저 재고 한 줄로 배치한다
+        BufferedImage probe = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D pg = probe.createGraphics();
+        FontMetrics metrics = pg.getFontMetrics(SCORE_FONT);
+        pg.dispose();
+        glyphAscent = metrics.getAscent();
+        int glyphHeight = metrics.getHeight();
+
+        int x = 0;
+        x = layout(SHIP, x, 0, GalaxyWorld.SpaceShip.WIDTH, GalaxyWorld.SpaceShip.HEIGHT);
+        x = layout(ENEMY, x, 0, 40, 40);
+        x = layout(BULLET, x, 0, 5, 10);
+        int width = x;
+        x = 0;
+        for (int d = 0; d < 10; d++) {
+            x = layout(DIGIT + d, x, 50, metrics.charWidth((char) ('0' + d)), glyphHeight);
+        }
+        x = layout(LABEL, x, 50, metrics.stringWidth("Score: "), glyphHeight);
+        width = Math.max(width, x);
+
+        atlas = createCompatibleImage(width, 50 + glyphHeight);
+        Graphics2D g = atlas.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        paintShip(g, spriteX[SHIP], spriteY[SHIP]);
+        paintEnemy(g, spriteX[ENEMY], spriteY[ENEMY]);
+        paintBullet(g, spriteX[BULLET], spriteY[BULLET]);
+        g.setFont(SCORE_FONT);
+        g.setColor(Color.WHITE);
+        for (int d = 0; d < 10; d++) {
+            g.drawString(String.valueOf((char) ('0' + d)), spriteX[DIGIT + d], 50 + glyphAscent);
+        }
+        g.drawString("Score: ", spriteX[LABEL], 50 + glyphAscent);
+        g.dispose();
+    }
+
+    private int layout(int sprite, int x, int y, int width, int height) {
+        spriteX[sprite] = x;
+        spriteY[sprite] = y;
+        spriteWidth[sprite] = width;
+        spriteHeight[sprite] = height;
+        return x + width + 1; // 1px 간격
+    }
+
+    // 화면 장치와 같은 픽셀 형식 (헤드리스면 보통 ARGB) 이어야 복사할 때 변환이 없다
+    private static BufferedImage createCompatibleImage(int width, int height) {
+        if (GraphicsEnvironment.isHeadless()) {
+            return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+        }
+        return GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration()
+                .createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+    }
+
+    // 파란 우주선: 기체, 날개, 조종석
+    static void paintShip(Graphics2D g, int x, int y) {
+        g.setColor(Color.BLUE);
+        g.fillPolygon(new int[] {x + 25, x + 35, x + 35, x + 15, x + 15}, new int[] {y, y + 15, y + 45, y + 45, y + 15}, 5);
+        g.fillPolygon(new int[] {x + 15, x + 35, x + 50, x + 50, x, x}, new int[] {y + 22, y + 22, y + 38, y + 48, y + 48, y + 38}, 6);
+        g.setColor(new Color(120, 200, 255));
+        g.fillOval(x + 20, y + 12, 10, 14);
+        g.setColor(Color.ORANGE);
+        g.fillRect(x + 18, y + 45, 4, 5);
+        g.fillRect(x + 28, y + 45, 4, 5);
+    }
+
+    // 빨간 비행접시: 몸체, 돔, 불빛
+    static void paintEnemy(Graphics2D g, int x, int y) {
+        g.setColor(Color.RED);
+        g.fillOval(x, y + 14, 40, 18);
+        g.setColor(new Color(255, 140, 140));
+        g.fillArc(x + 10, y + 4, 20, 22, 0, 180);
+        g.setColor(Color.YELLOW);
+        for (int i = 0; i < 4; i++) {
+            g.fillOval(x + 5 + i * 9, y + 21, 4, 4);
+        }
+        g.setColor(new Color(120, 0, 0));
+        g.setStroke(new BasicStroke(2));
+        g.drawLine(x + 12, y + 32, x + 8, y + 39);
+        g.drawLine(x + 28, y + 32, x + 32, y + 39);
+    }
+
+    // 노란 총알
+    static void paintBullet(Graphics2D g, int x, int y) {
+        g.setColor(Color.YELLOW);
+        g.fillRoundRect(x, y, 5, 10, 4, 4);
+        g.setColor(Color.WHITE);
+        g.fillRect(x + 2, y + 1, 1, 4);
+    }
+
+    public void beginFrame() {
+        lastFrameDrawCalls = drawCalls;
+        drawCalls = 0;
+    }
+
+    // 지난 프레임의 그리기 호출 수
+    public int getDrawCalls() {
+        return lastFrameDrawCalls;
+    }
+
+    // 아틀라스를 거치지 않는 그리기 (fillRect, drawString 등) 도 세기 위해
+    public void countDraw() {
+        drawCalls++;
+    }
+
+    public void draw(Graphics g, int sprite, int x, int y) {
+        int sx = spriteX[sprite];
+        int sy = spriteY[sprite];
+        int w = spriteWidth[sprite];
+        int h = spriteHeight[sprite];
+        g.drawImage(atlas, x, y, x + w, y + h, sx, sy, sx + w, sy + h, null);
+        drawCalls++;
+    }
+
+    // "Score: 1234" 를 글리프로 그린다. y 는 drawString 처럼 기준선.
+    public void drawScore(Graphics g, int score, int x, int y) {
+        int top = y - glyphAscent;
+        draw(g, LABEL, x, top);
+        x += spriteWidth[LABEL];
+        int divisor = 1;
+        while (score / divisor >= 10) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            int digit = DIGIT + score / divisor % 10;
+            draw(g, digit, x, top);
+            x += spriteWidth[digit];
+        }
+    }
+
+    // "draw calls 123" (지난 프레임)
+    public void drawCounter(Graphics g, int x, int y) {
+        System.arraycopy(COUNTER_LABEL, 0, line, 0, COUNTER_LABEL.length);
+        int n = COUNTER_LABEL.length;
+        int value = lastFrameDrawCalls;
+        int start = n;
+        do {
+            line[n++] = (char) ('0' + value % 10);
+            value /= 10;
+        } while (value > 0);
+        for (int i = start, j = n - 1; i < j; i++, j--) {
+            char t = line[i];
+            line[i] = line[j];
+            line[j] = t;
+        }
+        g.setFont(COUNTER_FONT);
+        g.setColor(Color.WHITE);
+        g.drawChars(line, 0, n, x, y);
+    }
+}
@@ -0,0 +1,100 @@
+package game;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+
+// 헤드리스 스트레스 테스트: 화면 없이 (X 디스플레이 없는 서버에서도) GalaxyWorld 를 최대 속도로 돌린다.
+// 매 틱 적 N 개와 총알 M 개를 웨이브로 넣고, 1초마다 틱/초, 할당량, 충돌 (적 제거)/초, 풀 miss 를 찍는다.
+// 적은 300틱, 총알은 120틱쯤 살기 때문에 정상 상태의 개체 수는 대략 적 300N, 총알 120M 이다.
+// 틱/초가 50 보다 충분히 크면 그 개체 수를 게임 속도로 돌릴 수 있다. 첫 1초는 워밍업으로 합계에서 뺀다.
+//
+// usage: GalaxyStress [enemiesPerTick] [bulletsPerTick] [seconds] [seed] [collisionThreads]
+public class GalaxyStress {
+    private static final int GAME_TICKS_PER_SECOND = 50;
+
+    public static void main(String[] args) {
+        int enemiesPerTick = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        int bulletsPerTick = args.length > 1 ? Integer.parseInt(args[1]) : 25;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 1;
+        int threads = args.length > 4 ? Integer.parseInt(args[4]) : 1;
+
+        // 정상 상태 개체 수보다 넉넉하게 잡는다. 모자라면 miss 로 보인다.
+        int enemyCapacity = enemiesPerTick * (GalaxyWorld.HEIGHT / 2 + 10) + 64;
+        int bulletCapacity = bulletsPerTick * (GalaxyWorld.HEIGHT / 5 + 10) + 1024;
+        GalaxyWorld world = new GalaxyWorld(seed, enemyCapacity, bulletCapacity);
+        world.setInvincible(true);
+        world.setCollisionThreads(threads);
+        GalaxyEntities enemies = world.enemies();
+        GalaxyEntities bullets = world.bullets();
+
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        System.out.printf(Locale.ROOT, "%d enemies + %d bullets per tick, seed %d, capacity %d / %d, %d collision threads%n",
+                enemiesPerTick, bulletsPerTick, seed, enemyCapacity, bulletCapacity, threads);
+        System.out.println("  sec    ticks/s  x realtime  enemies  bullets   kills/s   alloc MB/s  B/tick  gc  misses");
+
+        long totalTicks = 0, totalKills = 0, totalBytes = 0, totalNanos = 0;
+        for (int second = 1; second <= seconds; second++) {
+            long ticks = 0;
+            long kills = world.getKills();
+            long misses = enemies.getMisses() + bullets.getMisses();
+            long gcs = gcCount();
+            long bytes = allocatedBytes(threadBean);
+            long start = System.nanoTime();
+            long end = start + 1_000_000_000L;
+            long now;
+            do {
+                for (int i = 0; i < 16; i++) {
+                    for (int e = 0; e < enemiesPerTick; e++) {
+                        world.spawnEnemy();
+                    }
+                    for (int b = 0; b < bulletsPerTick; b++) {
+                        world.spawnBullet();
+                    }
+                    world.tick();
+                }
+                ticks += 16;
+                now = System.nanoTime();
+            } while (now < end);
+            bytes = allocatedBytes(threadBean) - bytes;
+            long nanos = now - start;
+            kills = world.getKills() - kills;
+            double perSecond = ticks * 1e9 / nanos;
+            System.out.printf(Locale.ROOT, "%5d  %9.0f  %10.1f  %7d  %7d  %8.0f  %11.2f  %6d  %2d  %6d%n",
+                    second, perSecond, perSecond / GAME_TICKS_PER_SECOND, enemies.size(), bullets.size(),
+                    kills * 1e9 / nanos, bytes * 1e3 / nanos, bytes / ticks, gcCount() - gcs,
+                    enemies.getMisses() + bullets.getMisses() - misses);
+            if (second > 1) {
+                totalTicks += ticks;
+                totalKills += kills;
+                totalBytes += bytes;
+                totalNanos += nanos;
+            }
+        }
+        if (totalNanos > 0) {
+            System.out.printf(Locale.ROOT, "total  %9.0f ticks/s  %.0f kills/s  %.2f MB/s  %d B/tick%n",
+                    totalTicks * 1e9 / totalNanos, totalKills * 1e9 / totalNanos, totalBytes * 1e3 / totalNanos,
+                    totalBytes / totalTicks);
+        }
+    }
+
+    // 메인 스레드만 보면 충돌 풀 워커의 할당이 빠지므로 살아있는 모든 스레드의 할당량을 더한다.
+    // 측정 사이에 끝난 스레드의 몫은 빠지지만 풀 워커는 월드와 함께 계속 살아있다.
+    private static long allocatedBytes(com.sun.management.ThreadMXBean threadBean) {
+        long total = 0;
+        for (long bytes : threadBean.getThreadAllocatedBytes(threadBean.getAllThreadIds())) {
+            total += Math.max(0, bytes);
+        }
+        return total;
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, collector.getCollectionCount());
+        }
+        return count;
+    }
+}
@@ -0,0 +1,111 @@
+package game;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// GalaxyWorld.checkCollisions() 의 병렬 단계. 화면을 가로 띠 (strip) 로 나눠 ForkJoinPool 에서 띠마다
+// 그 띠에 있는 적들의 "처음 맞는 총알" (이번 틱 이동 중에 겹친 것 중 인덱스가 가장 작은 것) 을 격자에서 찾는다.
+// 이 단계는 격자와 저장소를 읽기만 하고 결과는 firstHit[적 인덱스] 에만 쓰므로 스레드끼리 겹치지 않는다.
+// 제거는 GalaxyWorld 가 적 인덱스 순서대로 한 스레드에서 합친다 (merge): 찾아 둔 총알이 그새 앞의 적에게
+// 먼저 맞아 없어졌으면 그 적만 다시 찾는다. 그래서 결과는 단일 스레드 모드와 항상 같다.
+// 작업 객체는 띠 수만큼 미리 만들어 두고 매 틱 reinitialize() 해서 쓴다.
+public class GalaxyStripCollisions {
+    private final ForkJoinPool pool;
+    private final int stripHeight;
+    private final Strip[] strips;
+    private final RecursiveAction all = new RecursiveAction() {
+        @Override
+        protected void compute() {
+            invokeAll(strips);
+        }
+    };
+
+    // 띠 s 의 적은 order[stripStart[s] .. stripStart[s + 1]) 에 있다 (counting sort)
+    private final int[] stripStart;
+    private int[] order = new int[256];
+    private int[] firstHit = new int[256];
+
+    private GalaxyEntities enemies;
+    private GalaxyGrid bullets;
+
+    // 띠는 스레드 수의 4배 (적이 한쪽에 몰려도 일을 나눠 가질 수 있게)
+    public GalaxyStripCollisions(int threads, int worldHeight) {
+        pool = new ForkJoinPool(threads);
+        int count = Math.min(threads * 4, worldHeight);
+        stripHeight = (worldHeight + count - 1) / count;
+        strips = new Strip[(worldHeight + stripHeight - 1) / stripHeight];
+        for (int s = 0; s < strips.length; s++) {
+            strips[s] = new Strip(s);
+        }
+        stripStart = new int[strips.length + 1];
+    }
+
+    public int getThreads() {
+        return pool.getParallelism();
+    }
+
+    // 모든 적의 firstHit 을 채운다. grid 는 이미 build() 되어 있어야 한다.
+    public void findHits(GalaxyEntities enemies, GalaxyGrid grid) {
+        int count = enemies.count;
+        if (order.length < count) {
+            order = new int[Math.max(count, order.length * 2)];
+            firstHit = new int[order.length];
+        }
+        int[] ys = enemies.y;
+        Arrays.fill(stripStart, 0);
+        for (int i = 0; i < count; i++) {
+            stripStart[strip(ys[i])]++;
+        }
+        for (int s = 1; s < strips.length; s++) {
+            stripStart[s] += stripStart[s - 1];
+        }
+        stripStart[strips.length] = count;
+        for (int i = count - 1; i >= 0; i--) {
+            order[--stripStart[strip(ys[i])]] = i;
+        }
+
+        this.enemies = enemies;
+        this.bullets = grid;
+        for (Strip strip : strips) {
+            strip.reinitialize();
+        }
+        all.reinitialize();
+        pool.invoke(all);
+    }
+
+    // 적 i 와 이번 틱에 겹친 총알 중 가장 작은 인덱스, 없으면 -1
+    public int firstHit(int i) {
+        return firstHit[i];
+    }
+
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    private int strip(int y) {
+        return y < 0 ? 0 : Math.min(y / stripHeight, strips.length - 1);
+    }
+
+    private final class Strip extends RecursiveAction {
+        private final int index;
+
+        Strip(int index) {
+            this.index = index;
+        }
+
+        @Override
+        protected void compute() {
+            GalaxyEntities enemies = GalaxyStripCollisions.this.enemies;
+            GalaxyGrid bullets = GalaxyStripCollisions.this.bullets;
+            int[] xs = enemies.x;
+            int[] ys = enemies.y;
+            int[] vxs = enemies.vx;
+            int[] vys = enemies.vy;
+            for (int k = stripStart[index], end = stripStart[index + 1]; k < end; k++) {
+                int i = order[k];
+                firstHit[i] = bullets.firstSweptHit(xs[i], ys[i], enemies.width, enemies.height, vxs[i], vys[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package game;
+
+import java.util.Random;
+
+// 화면 없이 돌아가는 Galaxy 게임 상태와 규칙. GalaxyGame (Swing) 과 GalaxyStress (헤드리스) 가 같이 쓴다.
+// 한 번의 tick() 은 적 생성, 플레이어/적/총알 이동, 충돌 검사 순서로 게임 한 틱을 진행한다.
+// 적 생성 위치는 seed 로 만든 Random 에서만 나오므로 같은 seed, 같은 입력이면 같은 게임이 된다.
+// 한 스레드에서만 호출한다 (GalaxyGame 에서는 GameLoop 시뮬레이션 스레드). setCollisionThreads() 로
+// 충돌 검사 안쪽만 여러 스레드로 나눌 수 있다. 충돌은 틱 끝 위치만 보지 않고 틱 동안의 이동 경로로 검사하므로
+// (SweptCollision) 속도를 올리거나 틱을 줄여도 총알이 적을 뚫고 지나가지 않는다.
+public class GalaxyWorld {
+    public static final int WIDTH = 800;
+    public static final int HEIGHT = 600;
+    public static final int SPAWN_INTERVAL = 50; // 1초 (50틱) 마다 적 하나
+
+    private final SpaceShip player = new SpaceShip(400, 500);
+    private final GalaxyEntities enemies; // 40x40, 아래로 2
+    private final GalaxyEntities bullets; // 5x10, 위로 5
+    // 충돌 검사용 총알 격자
+    private final GalaxyGrid bulletGrid = new GalaxyGrid(WIDTH, HEIGHT, 64);
+    // 2 스레드 이상일 때만: 충돌 검사의 병렬 단계
+    private GalaxyStripCollisions strips;
+    private final Random random;
+
+    private boolean gameOver;
+    private boolean invincible; // 스트레스 테스트용: 적과 부딪혀도 끝나지 않음
+    private int score;
+    private long tick;
+    private long kills;
+
+    // 게임 기본값: 적은 1초에 하나씩 약 6초 살고, 총알은 100틱 동안 화면에 남는다
+    public GalaxyWorld(long seed) {
+        this(seed, 64, 1024);
+    }
+
+    public GalaxyWorld(long seed, int enemyCapacity, int bulletCapacity) {
+        random = new Random(seed);
+        enemies = new GalaxyEntities(40, 40, enemyCapacity);
+        bullets = new GalaxyEntities(5, 10, bulletCapacity);
+    }
+
+    // 게임 한 틱
+    public void tick() {
+        if (!gameOver) {
+            advance();
+            checkCollisions();
+        }
+    }
+
+    // 충돌 검사 전까지: 적 생성과 이동
+    public void advance() {
+        if (++tick % SPAWN_INTERVAL == 0) {
+            spawnEnemy();
+        }
+        player.move();
+        moveEnemies();
+        moveBullets();
+    }
+
+    // 적 생성, 풀이 꽉 찼으면 생기지 않는다
+    public void spawnEnemy() {
+        if (!gameOver) {
+            int x = random.nextInt(750); // 랜덤 x 위치
+            enemies.acquire(x, 0, 0, 2); // 적의 이동 속도
+        }
+    }
+
+    // 스트레스 웨이브: 화면 아래쪽 임의의 x 에서 총알 하나
+    public void spawnBullet() {
+        bullets.acquire(random.nextInt(WIDTH - bullets.width), HEIGHT - bullets.height, 0, -5);
+    }
+
+    // 플레이어 위치에서 발사, 풀이 꽉 차면 발사되지 않음
+    public boolean fire() {
+        return !gameOver && bullets.acquire(player.x + 20, player.y, 0, -5) >= 0; // 총알의 속도
+    }
+
+    public void setPlayerDx(int dx) {
+        player.setDx(dx);
+    }
+
+    // 충돌 검사 스레드 수. 1 이면 단일 스레드, 그 이상이면 띠 단위 병렬 (결과는 같다)
+    public void setCollisionThreads(int threads) {
+        if (strips != null) {
+            strips.shutdown();
+            strips = null;
+        }
+        if (threads > 1) {
+            strips = new GalaxyStripCollisions(threads, HEIGHT);
+        }
+    }
+
+    public int getCollisionThreads() {
+        return strips != null ? strips.getThreads() : 1;
+    }
+
+    public void setInvincible(boolean invincible) {
+        this.invincible = invincible;
+    }
+
+    // 적 이동: 화면 아래로 사라지면 제거
+    public void moveEnemies() {
+        enemies.move(Integer.MIN_VALUE, HEIGHT);
+        enemies.compact();
+    }
+
+    // 총알 이동: 화면 위로 사라지면 제거
+    public void moveBullets() {
+        bullets.move(0, Integer.MAX_VALUE);
+        bullets.compact();
+    }
+
+    // 충돌 체크: 총알을 격자에 넣고 각 적은 지나온 범위 주변 셀의 총알만 검사한다.
+    // 적마다 겹치는 총알 중 인덱스가 가장 작은 것 하나와 함께 제거된다.
+    // 병렬 모드에서는 격자 검색을 GalaxyStripCollisions 가 먼저 해 두고, 여기서는 적 순서대로 합치기만 한다.
+    public void checkCollisions() {
+        bulletGrid.build(bullets);
+        if (strips != null) {
+            strips.findHits(enemies, bulletGrid);
+        }
+        int[] enemyX = enemies.x;
+        int[] enemyY = enemies.y;
+        int[] enemyVx = enemies.vx;
+        int[] enemyVy = enemies.vy;
+        for (int i = 0; i < enemies.count; i++) {
+            // 적과 플레이어 충돌 확인
+            if (!invincible && SweptCollision.hits(player.x, player.y, SpaceShip.WIDTH, SpaceShip.HEIGHT,
+                    player.x - player.previousX, 0, enemyX[i], enemyY[i], enemies.width, enemies.height,
+                    enemyVx[i], enemyVy[i])) {
+                gameOver = true;
+                return;
+            }
+
+            // 적과 총알 충돌 확인
+            int hit;
+            if (strips == null) {
+                hit = bulletGrid.firstSweptHit(enemyX[i], enemyY[i], enemies.width, enemies.height,
+                        enemyVx[i], enemyVy[i]);
+            } else {
+                hit = strips.firstHit(i);
+                if (hit >= 0 && !bullets.isAlive(hit)) {
+                    // 앞의 적이 먼저 가져간 총알: 지금 살아 있는 것 중에서 다시 찾는다
+                    hit = bulletGrid.firstSweptHit(enemyX[i], enemyY[i], enemies.width, enemies.height,
+                            enemyVx[i], enemyVy[i]);
+                }
+            }
+            if (hit >= 0) {
+                bullets.release(hit);
+                enemies.release(i);
+                score += 10;
+                kills++;
+            }
+        }
+        enemies.compact();
+        bullets.compact();
+    }
+
+    GalaxyEntities enemies() {
+        return enemies;
+    }
+
+    GalaxyEntities bullets() {
+        return bullets;
+    }
+
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    // 지금까지 총알에 맞아 제거된 적 수
+    public long getKills() {
+        return kills;
+    }
+
+    public Snapshot snapshot() {
+        return new Snapshot(this);
+    }
+
+    // 한 틱이 끝난 상태의 불변 복사본
+    static final class Snapshot {
+        final int playerX;
+        final int previousPlayerX;
+        final int playerY;
+        final boolean gameOver;
+        final int score;
+        final GalaxyEntities.Snapshot enemies;
+        final GalaxyEntities.Snapshot bullets;
+
+        Snapshot(GalaxyWorld world) {
+            playerX = world.player.x;
+            previousPlayerX = world.player.previousX;
+            playerY = world.player.y;
+            gameOver = world.gameOver;
+            score = world.score;
+            enemies = world.enemies.snapshot();
+            bullets = world.bullets.snapshot();
+        }
+    }
+
+    static final class SpaceShip {
+        static final int WIDTH = 50, HEIGHT = 50;
+        private int x, y, dx;
+        private int previousX; // 보간용
+
+        SpaceShip(int x, int y) {
+            this.x = x;
+            this.y = y;
+            this.dx = 0;
+        }
+
+        void move() {
+            previousX = x;
+            x += dx;
+            if (x < 0) x = 0;
+            if (x > 750) x = 750;
+        }
+
+        void setDx(int dx) {
+            this.dx = dx;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package game;
+
+import java.awt.Component;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+// Fixed-timestep loop shared by the Swing games, replacing a javax.swing.Timer on the EDT.
+// A dedicated simulation thread advances the game in fixed ticks from an accumulator, so game speed
+// no longer depends on EDT load or timer jitter. After each batch of ticks the game publishes an
+// immutable snapshot; paintComponent reads the latest Frame (previous and current snapshot) and
+// interpolates between them with alpha(), rendering one tick behind. A slow paint only delays
+// frames, never ticks: repaint() requests coalesce on the EDT (or wake an ActiveRenderer thread).
+// Input handlers must not touch game state directly; they post() it to run before the next tick.
+public final class GameLoop<S> {
+    // Implemented by each game; both methods run on the simulation thread
+    public interface Game<S> {
+        void update();
+
+        // An immutable copy of the state after the last update()
+        S snapshot();
+    }
+
+    public static final class Frame<S> {
+        public final S previous;
+        public final S current;
+        private final long currentNanos;
+        private final long tickNanos;
+
+        Frame(S previous, S current, long currentNanos, long tickNanos) {
+            this.previous = previous;
+            this.current = current;
+            this.currentNanos = currentNanos;
+            this.tickNanos = tickNanos;
+        }
+
+        // Progress from previous (0) to current (1) for a frame drawn now
+        public double alpha() {
+            double alpha = (double) (System.nanoTime() - currentNanos) / tickNanos;
+            return alpha < 0 ? 0 : alpha > 1 ? 1 : alpha;
+        }
+
+        public static int lerp(int from, int to, double alpha) {
+            return (int) Math.round(from + (to - from) * alpha);
+        }
+    }
+
+    private static final int MAX_TICKS_PER_FRAME = 5; // beyond this the game slows down instead of spiralling
+
+    private final Game<S> game;
+    private final Component view;
+    private final long tickNanos;
+    private final long frameNanos;
+    private final ConcurrentLinkedQueue<Runnable> inputs = new ConcurrentLinkedQueue<>();
+    private final Thread thread;
+
+    private volatile Frame<S> frame;
+    private volatile boolean running;
+    private volatile long ticks;
+
+    public GameLoop(String name, Game<S> game, Component view, int ticksPerSecond, int framesPerSecond) {
+        this.game = game;
+        this.view = view;
+        this.tickNanos = 1_000_000_000L / ticksPerSecond;
+        this.frameNanos = 1_000_000_000L / framesPerSecond;
+        S initial = game.snapshot();
+        this.frame = new Frame<>(initial, initial, System.nanoTime(), tickNanos);
+        this.thread = new Thread(this::run, name + " simulation");
+        this.thread.setDaemon(true);
+    }
+
+    public void start() {
+        running = true;
+        thread.start();
+    }
+
+    public void stop() {
+        running = false;
+        LockSupport.unpark(thread);
+    }
+
+    // Runs `input` on the simulation thread before the next tick
+    public void post(Runnable input) {
+        inputs.add(input);
+    }
+
+    // Latest previous/current pair; read it once per paint
+    public Frame<S> getFrame() {
+        return frame;
+    }
+
+    public long getTicks() {
+        return ticks;
+    }
+
+    private void run() {
+        long last = System.nanoTime();
+        long accumulator = 0;
+        long nextFrame = last;
+        S previous = frame.current;
+        while (running) {
+            long now = System.nanoTime();
+            accumulator += now - last;
+            last = now;
+            if (accumulator > MAX_TICKS_PER_FRAME * tickNanos) {
+                accumulator = MAX_TICKS_PER_FRAME * tickNanos;
+            }
+
+            if (accumulator >= tickNanos) {
+                Runnable input;
+                while ((input = inputs.poll()) != null) {
+                    input.run();
+                }
+                do {
+                    game.update();
+                    ticks++;
+                    accumulator -= tickNanos;
+                } while (accumulator >= tickNanos);
+                S current = game.snapshot();
+                // The new snapshot became current `accumulator` ns ago
+                frame = new Frame<>(previous, current, now - accumulator, tickNanos);
+                previous = current;
+            }
+
+            if (now - nextFrame >= 0) {
+                view.repaint();
+                nextFrame += frameNanos;
+                if (now - nextFrame > frameNanos) {
+                    nextFrame = now + frameNanos; // fell behind, don't burst
+                }
+            }
+
+            long nextTick = now + tickNanos - accumulator;
+            LockSupport.parkNanos(Math.max(0, Math.min(nextTick, nextFrame) - System.nanoTime()));
+        }
+    }
+}
@@ -0,0 +1,348 @@
+package game;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+// 골프 코스 (옆에서 본 지형). 좌표는 GolfPhysics 와 같다: x 는 공의 위치 (px, 0 ~ width-1), 높이 z 는 위로 +
+// 이고 기본 땅이 0 이다. 코스 파일은 한 줄에 하나씩 (# 뒤는 주석, 뒤에 나온 줄이 앞의 것을 덮는다):
+//   width 781                     공이 있을 수 있는 x 의 수 (기본 781 = 800px 화면, 공 지름 20)
+//   height 320 / depth 60         땅 위로, 아래로 field 에 담는 높이 (기본값)
+//   start 50 / hole 750           출발 위치와 홀
+//   ground x1 x2 h1 h2 material   x1..x2 의 땅 높이를 h1 에서 h2 까지 직선으로 (경사), 재질은 grass, sand, water, wall
+// 불러올 때 한 번 굽는다: 칸마다 (1px) 재질과, 땅 표면 칸에는 경사까지 한 바이트에 담은 field 와 열마다의 표면 높이.
+// 그래서 물리가 틱마다 하는 조회 (표면 높이, 재질, 경사) 는 배열 한 번 읽기다. 구운 결과는 헤더 | 표면 높이 (short) |
+// field (byte) 로 ByteBuffer 하나에 있고, write() 로 파일에 쓴 것을 map() 으로 메모리 매핑해서 (큰 코스도 읽지 않고)
+// 그대로 쓸 수 있다. render() 는 그리기용 배경 이미지를 한 번 굽는다. 만든 뒤로는 바뀌지 않아 여러 스레드에서 읽어도 된다.
+//
+// usage: GolfCourse <course file> [field file]   (굽고, 조회 속도를 재고, field 파일을 쓰고 다시 매핑해서 비교)
+public final class GolfCourse {
+    public static final int AIR = 0, GRASS = 1, SAND = 2, WATER = 3, WALL = 4, DIRT = 5;
+    static final int HOLE_RADIUS = 10; // 게임의 홀 판정 (|x - 홀| < 10, |z - 홀 높이| < 10)
+    static final double MAX_SLOPE = 2; // 이보다 가파른 높이 차이는 경사가 아니라 벽/낭떠러지
+
+    private static final String[] MATERIAL_NAMES = {"air", "grass", "sand", "water", "wall", "dirt"};
+    private static final int MAGIC = 0x474F4C46; // "GOLF"
+    private static final short VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    private static final int SLOPE_SCALE = 8; // 경사 = code / 8, code 는 5비트 (-16 ~ 15)
+    private static final int GRASS_SKIN = 4, SAND_SKIN = 12, WATER_DEPTH = 16;
+
+    // byte 하나: 아래 3비트 재질, 위 5비트 경사 code (부호 있음, 땅 표면 칸에만)
+    private final ByteBuffer data;
+    private final int width, height, depth, startX, holeX;
+    private final boolean flat;
+    private final int fieldOffset;
+
+    private GolfCourse(ByteBuffer data) {
+        this.data = data;
+        width = data.getShort(6);
+        height = data.getShort(8);
+        depth = data.getShort(10);
+        startX = data.getShort(12);
+        holeX = data.getShort(14);
+        flat = data.getShort(16) != 0;
+        fieldOffset = HEADER_SIZE + 2 * width;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("usage: GolfCourse <course file> [field file]");
+            System.exit(2);
+        }
+        long start = System.nanoTime();
+        GolfCourse course = load(Paths.get(args[0]));
+        System.out.printf(Locale.ROOT, "%s: %d x %d px field (%d KB), start %d, hole %d%s, baked in %.1f ms%n",
+                args[0], course.width, course.height + course.depth, course.data.capacity() / 1024,
+                course.startX, course.holeX, course.flat ? ", flat" : "", (System.nanoTime() - start) / 1e6);
+
+        // 물리가 틱마다 하는 조회를 무작위 위치에서
+        Random random = new Random(1);
+        int[] xs = new int[1 << 16];
+        int[] zs = new int[xs.length];
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = random.nextInt(course.width);
+            zs[i] = random.nextInt(course.height + course.depth) - course.depth;
+        }
+        long sum = 0, lookups = 0, nanos = Long.MAX_VALUE;
+        for (int round = 0; round < 20; round++) {
+            long t = System.nanoTime();
+            for (int i = 0; i < xs.length; i++) {
+                sum += course.surface(xs[i]) + course.material(xs[i], zs[i]) + course.surfaceMaterial(xs[i]);
+            }
+            nanos = Math.min(nanos, System.nanoTime() - t);
+            lookups = 3L * xs.length;
+        }
+        System.out.printf(Locale.ROOT, "%.1f ns per lookup (surface, material, surface material; checksum %d)%n",
+                (double) nanos / lookups, sum % 1000);
+
+        if (args.length > 1) {
+            Path file = Paths.get(args[1]);
+            course.write(file);
+            GolfCourse mapped = map(file);
+            boolean same = mapped.data.equals(course.data);
+            System.out.println("wrote " + file + " (" + Files.size(file) + " bytes), mapped back: " + (same ? "identical" : "DIFFERENT"));
+            if (!same) {
+                System.exit(1);
+            }
+        }
+    }
+
+    // 예전 게임과 같은 평평한 코스 (800px 화면, 출발 50, 홀 750)
+    public static GolfCourse classic() {
+        return parse(List.of("width 781", "start 50", "hole 750"), "classic");
+    }
+
+    // 코스 파일 (.course) 을 읽어 굽거나, write() 로 쓴 field 파일이면 매핑한다
+    public static GolfCourse open(Path file) throws IOException {
+        return file.toString().endsWith(".course") ? load(file) : map(file);
+    }
+
+    public static GolfCourse load(Path file) throws IOException {
+        return parse(Files.readAllLines(file), file.toString());
+    }
+
+    public static GolfCourse map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+                throw new IOException("Not a course field file: " + file);
+            }
+            ByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (data.getInt(0) != MAGIC) {
+                throw new IOException("Not a course field file: " + file);
+            }
+            if (data.getShort(4) != VERSION) {
+                throw new IOException("Unsupported course field version " + data.getShort(4) + ": " + file);
+            }
+            GolfCourse course = new GolfCourse(data);
+            if (size != course.fieldOffset + (long) course.width * (course.height + course.depth)) {
+                throw new IOException("Truncated course field file: " + file);
+            }
+            return course;
+        }
+    }
+
+    public void write(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer all = data.duplicate().clear();
+            while (all.hasRemaining()) {
+                channel.write(all);
+            }
+        }
+    }
+
+    static GolfCourse parse(List<String> lines, String name) {
+        int width = 781, height = 320, depth = 60, start = 50, hole = 750;
+        // 열마다 표면 높이와 재질. width 가 바뀔 수 있으니 ground 줄은 모아 뒀다가 마지막에 적용한다.
+        int[][] grounds = new int[lines.size()][];
+        int count = 0;
+        for (int n = 0; n < lines.size(); n++) {
+            String line = lines.get(n);
+            int comment = line.indexOf('#');
+            String[] words = (comment < 0 ? line : line.substring(0, comment)).trim().split("\\s+");
+            if (words[0].isEmpty()) {
+                continue;
+            }
+            String where = name + ":" + (n + 1) + ": ";
+            try {
+                switch (words[0]) {
+                    case "width" -> width = number(words, 1, where);
+                    case "height" -> height = number(words, 1, where);
+                    case "depth" -> depth = number(words, 1, where);
+                    case "start" -> start = number(words, 1, where);
+                    case "hole" -> hole = number(words, 1, where);
+                    case "ground" -> {
+                        int material = Arrays.asList(MATERIAL_NAMES).indexOf(words.length > 5 ? words[5] : "");
+                        if (material != GRASS && material != SAND && material != WATER && material != WALL) {
+                            throw new IllegalArgumentException(where + "expected ground x1 x2 h1 h2 grass|sand|water|wall");
+                        }
+                        grounds[count++] = new int[]{number(words, 1, where), number(words, 2, where),
+                                number(words, 3, where), number(words, 4, where), material, n + 1};
+                    }
+                    default -> throw new IllegalArgumentException(where + "unknown command " + words[0]);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(where + "not a number: " + e.getMessage());
+            }
+        }
+        if (width < 2 || width > Short.MAX_VALUE || height < 1 || depth < 1 || height + depth > Short.MAX_VALUE) {
+            throw new IllegalArgumentException(name + ": bad size " + width + " x " + height + " (depth " + depth + ")");
+        }
+        if (start < 0 || start >= width || hole < 0 || hole >= width) {
+            throw new IllegalArgumentException(name + ": start " + start + " and hole " + hole + " must be in 0.." + (width - 1));
+        }
+
+        int[] surface = new int[width];
+        byte[] material = new byte[width];
+        Arrays.fill(material, (byte) GRASS);
+        for (int g = 0; g < count; g++) {
+            int[] ground = grounds[g];
+            int x1 = ground[0], x2 = ground[1];
+            if (x1 < 0 || x2 >= width || x1 > x2) {
+                throw new IllegalArgumentException(name + ":" + ground[5] + ": x range " + x1 + ".." + x2 + " outside 0.." + (width - 1));
+            }
+            for (int x = x1; x <= x2; x++) {
+                int h = x1 == x2 ? ground[2] : (int) Math.round(ground[2] + (ground[3] - ground[2]) * (double) (x - x1) / (x2 - x1));
+                if (h <= -depth + WATER_DEPTH || h >= height) {
+                    throw new IllegalArgumentException(name + ":" + ground[5] + ": height " + h + " outside "
+                            + (-depth + WATER_DEPTH + 1) + ".." + (height - 1));
+                }
+                surface[x] = h;
+                material[x] = (byte) ground[4];
+            }
+        }
+        return new GolfCourse(bake(width, height, depth, start, hole, surface, material));
+    }
+
+    private static int number(String[] words, int index, String where) {
+        if (index >= words.length) {
+            throw new IllegalArgumentException(where + "missing value for " + words[0]);
+        }
+        return Integer.parseInt(words[index]);
+    }
+
+    private static ByteBuffer bake(int width, int height, int depth, int start, int hole, int[] surface, byte[] material) {
+        boolean flat = true;
+        for (int x = 0; x < width; x++) {
+            flat &= surface[x] == 0 && material[x] == GRASS;
+        }
+        int rows = height + depth;
+        ByteBuffer data = ByteBuffer.allocate(HEADER_SIZE + 2 * width + width * rows);
+        data.putInt(0, MAGIC).putShort(4, VERSION).putShort(6, (short) width).putShort(8, (short) height)
+                .putShort(10, (short) depth).putShort(12, (short) start).putShort(14, (short) hole)
+                .putShort(16, (short) (flat ? 1 : 0));
+        int field = HEADER_SIZE + 2 * width;
+        for (int x = 0; x < width; x++) {
+            int h = surface[x];
+            data.putShort(HEADER_SIZE + 2 * x, (short) h);
+            int m = material[x];
+            for (int z = -depth; z < h; z++) {
+                int below = h - 1 - z; // 표면에서 몇 칸 아래인지
+                int cell = switch (m) {
+                    case GRASS -> below < GRASS_SKIN ? GRASS : DIRT;
+                    case SAND -> below < SAND_SKIN ? SAND : DIRT;
+                    case WATER -> below < WATER_DEPTH ? WATER : DIRT;
+                    default -> m;
+                };
+                data.put(field + (z + depth) * width + x, (byte) cell);
+            }
+            int top = field + (h - 1 + depth) * width + x;
+            data.put(top, (byte) (data.get(top) | slopeCode(surface, material, x) << 3));
+        }
+        return data;
+    }
+
+    // 양옆 중 경사로 이어진 (같은 종류의 땅이고 MAX_SLOPE 이하) 쪽의 높이 차 평균
+    private static int slopeCode(int[] surface, byte[] material, int x) {
+        if (material[x] == WATER || material[x] == WALL) {
+            return 0;
+        }
+        double sum = 0;
+        int sides = 0;
+        for (int side = -1; side <= 1; side += 2) {
+            int n = x + side;
+            if (n < 0 || n >= surface.length || material[n] == WATER || material[n] == WALL) {
+                continue;
+            }
+            int d = surface[Math.max(n, x)] - surface[Math.min(n, x)];
+            if (Math.abs(d) <= MAX_SLOPE) {
+                sum += d;
+                sides++;
+            }
+        }
+        int code = sides == 0 ? 0 : (int) Math.round(sum / sides * SLOPE_SCALE);
+        return Math.max(-16, Math.min(15, code));
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getStartX() {
+        return startX;
+    }
+
+    public int getHoleX() {
+        return holeX;
+    }
+
+    // 땅 높이가 모두 0 이고 잔디뿐이면 GolfPhysics 는 닫힌 식 경로를 쓴다
+    public boolean isFlat() {
+        return flat;
+    }
+
+    // 열 x 에서 공이 멈춰 있는 높이 (그 아래 칸이 땅). x 는 코스 안으로 자른다.
+    public int surface(int x) {
+        return data.getShort(HEADER_SIZE + 2 * clamp(x));
+    }
+
+    public int material(int x, int z) {
+        if (z >= height) {
+            return AIR;
+        }
+        if (z < -depth) {
+            return DIRT;
+        }
+        return data.get(fieldOffset + (z + depth) * width + clamp(x)) & 7;
+    }
+
+    // 열 x 의 땅 표면 칸: 재질과 경사 (높이 / px, 오른쪽이 높으면 +)
+    public int surfaceMaterial(int x) {
+        return surfaceCell(x) & 7;
+    }
+
+    public double slope(int x) {
+        return (surfaceCell(x) >> 3) / (double) SLOPE_SCALE;
+    }
+
+    private byte surfaceCell(int x) {
+        x = clamp(x);
+        return data.get(fieldOffset + (data.getShort(HEADER_SIZE + 2 * x) - 1 + depth) * width + x);
+    }
+
+    public boolean isInHole(double x, double z) {
+        return Math.abs(Math.round(x) - holeX) < HOLE_RADIUS && Math.abs(Math.round(z) - surface(holeX)) < HOLE_RADIUS;
+    }
+
+    private int clamp(int x) {
+        return x < 0 ? 0 : x >= width ? width - 1 : x;
+    }
+
+    // 배경 이미지를 한 번 굽는다. 열 x 는 화면 x + offsetX, 높이 z 칸은 화면 baseY - 1 - z 줄에 그린다.
+    public BufferedImage render(int imageWidth, int imageHeight, int offsetX, int baseY) {
+        int[] colors = {0x78B4E6, 0x3CB43C, 0xE6D28C, 0x3C78DC, 0x8C8C8C, 0x8C643C};
+        int[] pixels = new int[imageWidth * imageHeight];
+        for (int sy = 0; sy < imageHeight; sy++) {
+            int z = baseY - 1 - sy;
+            for (int sx = 0; sx < imageWidth; sx++) {
+                int x = sx - offsetX;
+                int m = material(x, z);
+                int color = colors[m];
+                if (m != AIR && m != WALL && z == surface(x) - 1) {
+                    color = darker(color); // 표면 선
+                } else if (m == WALL && (z % 10 == 0 || Math.floorMod(x + z / 10 % 2 * 10, 20) == 0)) {
+                    color = darker(color); // 벽돌 줄눈
+                }
+                pixels[sy * imageWidth + sx] = color;
+            }
+        }
+        BufferedImage image = new BufferedImage(imageWidth, imageHeight, BufferedImage.TYPE_INT_RGB);
+        image.setRGB(0, 0, imageWidth, imageHeight, pixels, 0, imageWidth);
+        return image;
+    }
+
+    private static int darker(int rgb) {
+        return (rgb >> 1) & 0x7F7F7F;
+    }
+}
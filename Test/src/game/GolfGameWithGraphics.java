@@ -2,35 +2,94 @@ package game;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Paths;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 
-public class GolfGameWithGraphics extends JPanel implements ActionListener {
+// 공 이동은 GameLoop 시뮬레이션 스레드에서 100틱/초로 계산하고, 화면은 틱마다 만든 Snapshot 을 보간해서 그린다.
+// 옆에서 본 화면: 땅 높이 0 이 y = GROUND_Y 이고, 각도는 발사 각도다. 코스 (GolfCourse, 없으면 예전과 같은
+// 평평한 코스) 의 언덕, 모래, 물, 벽은 시작할 때 한 번 구운 배경 이미지로 그린다. 공은 GolfPhysics 로 날아가서
+// 구르다가 멈추고, 물에 빠지면 벌타 1 과 함께 친 자리로 돌아온다. 입력창에 각도와 힘을 쓰면 GolfPhysics.predict() 로
+// 궤적과 착지/정지 위치 (물에 빠지는 샷은 빠지는 자리) 를 미리 보여 준다. 평평한 코스는 닫힌 식으로 바로 구하고,
+// 코스가 있으면 예측용 공으로 같은 step 을 끝까지 돌린다. 힌트 버튼은 GolfShotOptimizer 로 지금 위치에서 가장 적은
+// 타수로 넣는 첫 샷을 찾아 입력창에 채운다 (소수 각도/힘도 받는다).
+public class GolfGameWithGraphics extends JPanel implements GameLoop.Game<GolfGameWithGraphics.Snapshot> {
 
-    private static final int PANEL_WIDTH = 800;
     private static final int PANEL_HEIGHT = 400;
-    private static final int GOAL_X = 750;  // 목표 홀의 X 좌표
-    private static final int GOAL_Y = 300;  // 목표 홀의 Y 좌표
+    private static final int GROUND_Y = 300; // 높이 0 에 있는 공의 Y 좌표
+    private static final int BALL_SIZE = 20;
 
-    private int ballX = 50;  // 공의 현재 X 좌표
-    private int ballY = 300; // 공의 현재 Y 좌표
+    private final GolfCourse course;
+    private final int panelWidth;
+    private final int goalX;  // 목표 홀의 X 좌표 (공과 같은 기준)
+    private final int goalY;  // 목표 홀의 Y 좌표
+    private final BufferedImage background; // 코스를 한 번 구운 이미지
+    private final GolfPhysics ball;
+    private int ballX;  // 공의 현재 X 좌표 (그리기용 반올림)
+    private int ballY;  // 공의 현재 Y 좌표
     private int strokeCount = 0;  // 타수
 
-    private Timer timer;
-    private boolean isMoving = false;
-    private int targetX;
-    private int targetY;
-    private int dx;
-    private int dy;
+    private final GameLoop<Snapshot> loop;
+
+    // F3: 프로파일러 HUD (JMX 로도 볼 수 있음). 입력창에 포커스가 있어도 동작하도록 키 바인딩으로 건다.
+    private static final int PROFILE_UPDATE = 0, PROFILE_PAINT = 1;
+    private final FrameProfiler profiler = new FrameProfiler("update", "paint").register("Golf");
+    private int previousX; // 보간용: 직전 틱의 공 위치
+    private int previousY;
+
+    // 궤적 미리보기 (EDT 전용): 비행 중 PREVIEW_STEP 틱마다의 위치, 착지와 정지 위치.
+    // 공이 멈춰 있을 때만 보이고, 공이 다른 곳에 멈추면 그 위치에서 다시 계산한다.
+    private static final int PREVIEW_STEP = 4;
+    private double previewAngle = -1;
+    private double previewPower = -1;
+    private int previewFromX = -1;
+    private final GolfPhysics previewPhysics;
+    private final GolfPhysics.Prediction prediction = new GolfPhysics.Prediction();
+    private final int[] previewX = new int[256];
+    private final int[] previewY = new int[256];
+    private int previewPoints;
+    private int previewLandingX = -1;
+    private int previewLandingY;
+    private int previewRestX = -1;
+    private int previewRestY;
+    private boolean previewWater;
 
     public GolfGameWithGraphics() {
-        this.setPreferredSize(new Dimension(PANEL_WIDTH, PANEL_HEIGHT));
-        this.setBackground(Color.GREEN);
-        timer = new Timer(10, this);
+        this(GolfCourse.classic());
+    }
+
+    public GolfGameWithGraphics(GolfCourse course) {
+        this.course = course;
+        panelWidth = course.getWidth() + BALL_SIZE - 1;
+        goalX = course.getHoleX();
+        goalY = GROUND_Y - course.surface(goalX);
+        // 열 x 의 땅은 공 가운데 (x + BALL_SIZE / 2) 아래, 높이 0 의 땅 표면은 공 아래쪽 (GROUND_Y + BALL_SIZE)
+        background = course.render(panelWidth, PANEL_HEIGHT, BALL_SIZE / 2, GROUND_Y + BALL_SIZE);
+        ball = new GolfPhysics(course);
+        previewPhysics = new GolfPhysics(course);
+        ballX = course.getStartX();
+        ballY = GROUND_Y - course.surface(ballX);
+        previousX = ballX;
+        previousY = ballY;
+        this.setPreferredSize(new Dimension(panelWidth, PANEL_HEIGHT));
+        getInputMap(WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke("F3"), "toggleProfiler");
+        getActionMap().put("toggleProfiler", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                profiler.toggleHud();
+            }
+        });
+        loop = new GameLoop<>("Golf", this, this, 100, 60);
+        loop.start();
     }
 //
-    public static void main(String[] args) {
+    // usage: GolfGameWithGraphics [course file]   (.course 파일이나 GolfCourse 가 쓴 field 파일)
+    public static void main(String[] args) throws IOException {
+        GolfCourse course = args.length > 0 ? GolfCourse.open(Paths.get(args[0])) : GolfCourse.classic();
         JFrame frame = new JFrame("그래픽 골프 게임");
-        GolfGameWithGraphics gamePanel = new GolfGameWithGraphics();
+        GolfGameWithGraphics gamePanel = new GolfGameWithGraphics(course);
 
         // 사용자 입력을 위한 패널
         JPanel inputPanel = new JPanel();
@@ -39,19 +98,42 @@ public class GolfGameWithGraphics extends JPanel implements ActionListener {
         JLabel powerLabel = new JLabel("힘 (1-100): ");
         JTextField powerInput = new JTextField(5);
         JButton hitButton = new JButton("공 치기");
+        JButton hintButton = new JButton("힌트");
+        JLabel hintLabel = new JLabel(" ");
+        GolfShotOptimizer optimizer = new GolfShotOptimizer(course, 0.5, 0.5, 3, Runtime.getRuntime().availableProcessors());
 
         inputPanel.add(angleLabel);
         inputPanel.add(angleInput);
         inputPanel.add(powerLabel);
         inputPanel.add(powerInput);
         inputPanel.add(hitButton);
+        inputPanel.add(hintButton);
+        inputPanel.add(hintLabel);
+
+        DocumentListener preview = new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                gamePanel.preview(angleInput.getText(), powerInput.getText());
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                gamePanel.preview(angleInput.getText(), powerInput.getText());
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+            }
+        };
+        angleInput.getDocument().addDocumentListener(preview);
+        powerInput.getDocument().addDocumentListener(preview);
 
         hitButton.addActionListener(e -> {
             try {
-                int angle = Integer.parseInt(angleInput.getText());
-                int power = Integer.parseInt(powerInput.getText());
+                double angle = Double.parseDouble(angleInput.getText());
+                double power = Double.parseDouble(powerInput.getText());
 
-                if (angle < 1 || angle > 90 || power < 1 || power > 100) {
+                if (!(angle >= 1 && angle <= 90 && power >= 1 && power <= 100)) { // NaN 도 걸러진다
                     JOptionPane.showMessageDialog(frame, "각도와 힘을 올바르게 입력하세요!");
                 } else {
                     gamePanel.hitBall(angle, power);
@@ -61,6 +143,34 @@ public class GolfGameWithGraphics extends JPanel implements ActionListener {
             }
         });
 
+        // 탐색은 EDT 밖에서 (첫 탐색은 수십 ms, 지형이 있으면 더 걸린다. 같은 위치는 memo 라 바로 나온다)
+        hintButton.addActionListener(e -> {
+            Snapshot state = gamePanel.loop.getFrame().current;
+            if (state.moving) {
+                return;
+            }
+            hintButton.setEnabled(false);
+            hintLabel.setText("계산 중...");
+            Thread.ofPlatform().daemon().name("golf-hint").start(() -> {
+                long shots = optimizer.getEvaluated();
+                long start = System.nanoTime();
+                GolfShotOptimizer.Result hint = optimizer.solve(state.ballX);
+                long nanos = System.nanoTime() - start;
+                shots = optimizer.getEvaluated() - shots;
+                String stats = String.format(" (%,d샷 평가, %.1f ms)", shots, nanos / 1e6);
+                SwingUtilities.invokeLater(() -> {
+                    hintButton.setEnabled(true);
+                    if (hint.strokes == GolfShotOptimizer.NONE) {
+                        hintLabel.setText("넣을 수 없는 위치입니다" + stats);
+                        return;
+                    }
+                    angleInput.setText(format(hint.angle));
+                    powerInput.setText(format(hint.power));
+                    hintLabel.setText(hint.strokes + "타 남음" + stats);
+                });
+            });
+        });
+
         frame.setLayout(new BorderLayout());
         frame.add(gamePanel, BorderLayout.CENTER);
         frame.add(inputPanel, BorderLayout.SOUTH);
@@ -69,73 +179,167 @@ public class GolfGameWithGraphics extends JPanel implements ActionListener {
         frame.setVisible(true);
     }
 
-    // 공을 치는 동작 구현
-    public void hitBall(int angle, int power) {
-        if (isMoving) return;  // 공이 이미 이동 중이면 무시
+    private static String format(double value) {
+        return value == Math.rint(value) ? Integer.toString((int) value) : Double.toString(value);
+    }
+
+    // 공을 치는 동작 구현 (아무 스레드에서나 호출 가능, 다음 틱 전에 시뮬레이션 스레드에서 실행됨)
+    public void hitBall(double angle, double power) {
+        loop.post(() -> startShot(angle, power));
+    }
+
+    private void startShot(double angle, double power) {
+        if (ball.isMoving()) return;  // 공이 이미 이동 중이면 무시
 
         strokeCount++;
         System.out.println("타수: " + strokeCount);
+        ball.launch(angle, power);
+    }
 
-        // 목표 좌표 계산
-        double radians = Math.toRadians(angle);
-        targetX = ballX + (int) (power * Math.cos(radians) * 5);
-        targetY = ballY - (int) (power * Math.sin(radians) * 5);
-
-        // 속도 계산 (단순한 이동량)
-        dx = (targetX - ballX) / 50;
-        dy = (targetY - ballY) / 50;
+    // EDT: 입력창이 바뀔 때마다. 올바른 각도와 힘이면 다음 paint 에서 궤적을 계산한다.
+    void preview(String angleText, String powerText) {
+        previewAngle = -1;
+        previewPower = -1;
+        try {
+            double angle = Double.parseDouble(angleText.trim());
+            double power = Double.parseDouble(powerText.trim());
+            if (angle >= 1 && angle <= 90 && power >= 1 && power <= 100) {
+                previewAngle = angle;
+                previewPower = power;
+            }
+        } catch (NumberFormatException e) {
+            // 아직 숫자가 아님: 미리보기 없음
+        }
+        previewFromX = -1;
+        repaint();
+    }
 
-        isMoving = true;
-        timer.start();
+    // EDT: fromX 에서 친 궤적을 predict() 로 계산해 둔다 (평평하면 닫힌 식, 코스가 있으면 예측용 공으로 step 을 돌린다)
+    private void computePreview(int fromX) {
+        previewFromX = fromX;
+        previewPoints = 0;
+        if (previewAngle < 0) {
+            return;
+        }
+        previewPhysics.predict(fromX, previewAngle, previewPower, prediction);
+        for (int n = 0; n < prediction.getLandingTick() && previewPoints < previewX.length; n += PREVIEW_STEP) {
+            previewX[previewPoints] = (int) Math.round(prediction.xAt(n));
+            previewY[previewPoints++] = GROUND_Y - (int) Math.round(prediction.zAt(n));
+        }
+        previewLandingX = (int) Math.round(prediction.getLandingX());
+        previewLandingY = GROUND_Y - course.surface(previewLandingX);
+        // 물에 빠지면 정지 위치는 친 자리라서 대신 빠지는 자리를 표시한다
+        previewWater = prediction.isWater();
+        previewRestX = (int) Math.round(previewWater ? prediction.getWaterX() : prediction.getRestX());
+        previewRestY = GROUND_Y - course.surface(previewRestX);
     }
 
     @Override
-    public void actionPerformed(ActionEvent e) {
-        if (isMoving) {
-            ballX += dx;
-            ballY += dy;
-
-            // 목표 지점에 도달했을 때
-            if (Math.abs(ballX - targetX) < 2 && Math.abs(ballY - targetY) < 2) {
-                isMoving = false;
-                timer.stop();
+    public void update() {
+        long start = profiler.start();
+        previousX = ballX;
+        previousY = ballY;
+        if (ball.isMoving()) {
+            boolean moving = ball.step();
+            ballX = (int) Math.round(ball.getX());
+            ballY = GROUND_Y - (int) Math.round(ball.getZ());
+
+            // 멈췄을 때 (구름 마찰 때문에 항상 정해진 틱 안에 멈춘다)
+            if (!moving && ball.isInWater()) {
+                strokeCount++;
+                System.out.println("물에 빠졌습니다 (벌타 1). 타수: " + strokeCount);
+                previousX = ballX; // 친 자리로 돌아온 것은 보간하지 않는다
+                previousY = ballY;
+            } else if (!moving) {
                 checkIfGoal();
             }
-            repaint();
+        }
+        profiler.end(PROFILE_UPDATE, start);
+    }
+
+    @Override
+    public Snapshot snapshot() {
+        return new Snapshot(previousX, previousY, ballX, ballY, strokeCount, ball.isMoving());
+    }
+
+    static final class Snapshot {
+        final int fromX, fromY, ballX, ballY;
+        final int strokeCount;
+        final boolean moving;
+
+        Snapshot(int fromX, int fromY, int ballX, int ballY, int strokeCount, boolean moving) {
+            this.fromX = fromX;
+            this.fromY = fromY;
+            this.ballX = ballX;
+            this.ballY = ballY;
+            this.strokeCount = strokeCount;
+            this.moving = moving;
         }
     }
 
-    // 목표 도달 여부 체크
+    // 목표 도달 여부 체크. 메시지는 EDT 에서 띄우고, 창을 닫으면 시뮬레이션 스레드에서 재시작한다.
     private void checkIfGoal() {
-        if (Math.abs(ballX - GOAL_X) < 10 && Math.abs(ballY - GOAL_Y) < 10) {
-            JOptionPane.showMessageDialog(this, "축하합니다! " + strokeCount + "번의 타수로 골에 도달했습니다.");
-            resetGame();
+        if (course.isInHole(ball.getX(), ball.getZ())) {
+            int strokes = strokeCount;
+            SwingUtilities.invokeLater(() -> {
+                JOptionPane.showMessageDialog(this, "축하합니다! " + strokes + "번의 타수로 골에 도달했습니다.");
+                loop.post(this::resetGame);
+            });
         }
     }
 
     // 게임 재시작
     private void resetGame() {
-        ballX = 50;
-        ballY = 300;
+        ball.place(course.getStartX());
+        ballX = course.getStartX();
+        ballY = GROUND_Y - course.surface(ballX);
         strokeCount = 0;
-        repaint();
     }
 
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
+        profiler.frame();
+        long start = profiler.start();
+        GameLoop.Frame<Snapshot> frame = loop.getFrame();
+        Snapshot state = frame.current;
+        double alpha = frame.alpha();
+        g.drawImage(background, 0, 0, null);
+
+        // 궤적 미리보기: 비행 점선, 착지 (흰색) 와 정지 (노란색) 표시. 물에 빠지면 빠지는 자리에 파란 X
+        if (!state.moving && state.ballX != previewFromX) {
+            computePreview(state.ballX);
+        }
+        if (!state.moving && previewPoints > 0) {
+            g.setColor(Color.WHITE);
+            for (int i = 0; i < previewPoints; i++) {
+                g.fillRect(previewX[i] + BALL_SIZE / 2 - 1, previewY[i] + BALL_SIZE / 2 - 1, 3, 3);
+            }
+            g.drawLine(previewLandingX + BALL_SIZE / 2, previewLandingY + BALL_SIZE + 2, previewLandingX + BALL_SIZE / 2, previewLandingY + BALL_SIZE + 10);
+            int restCenterX = previewRestX + BALL_SIZE / 2;
+            if (previewWater) {
+                g.setColor(Color.BLUE);
+                g.drawLine(restCenterX - 4, previewRestY + BALL_SIZE + 2, restCenterX + 4, previewRestY + BALL_SIZE + 10);
+                g.drawLine(restCenterX - 4, previewRestY + BALL_SIZE + 10, restCenterX + 4, previewRestY + BALL_SIZE + 2);
+            } else {
+                g.setColor(Color.YELLOW);
+                g.drawLine(restCenterX, previewRestY + BALL_SIZE + 2, restCenterX, previewRestY + BALL_SIZE + 10);
+            }
+        }
 
         // 공 그리기
         g.setColor(Color.RED);
-        g.fillOval(ballX, ballY, 20, 20);
+        g.fillOval(GameLoop.Frame.lerp(state.fromX, state.ballX, alpha), GameLoop.Frame.lerp(state.fromY, state.ballY, alpha), BALL_SIZE, BALL_SIZE);
 
         // 목표 홀 그리기
         g.setColor(Color.BLACK);
-        g.fillOval(GOAL_X, GOAL_Y, 20, 20);
+        g.fillOval(goalX, goalY, 20, 20);
 
         // 안내 메시지
         g.setColor(Color.WHITE);
-        g.drawString("타수: " + strokeCount, 10, 20);
-        g.drawString("목표 홀", GOAL_X - 20, GOAL_Y - 10);
+        g.drawString("타수: " + state.strokeCount, 10, 20);
+        g.drawString("목표 홀", goalX - 20, goalY - 10);
+        profiler.end(PROFILE_PAINT, start);
+        profiler.drawHud(g, 500, 20);
     }
 }
@@ -0,0 +1,433 @@
+package game;
+
+// 골프공 물리 (옆에서 본 2D). x 는 화면과 같은 px, z 는 땅에서의 높이 (위로 +).
+//  - 비행: 중력 GRAVITY 와 선형 공기 저항 DRAG (가속도 = -DRAG * v). 고정 DT 의 semi-implicit Euler 로
+//    속도를 먼저 바꾸고 새 속도로 위치를 옮긴다.
+//  - 착지: 수직 속도는 잔디가 흡수하고 수평 속도는 LANDING_KEEP 만큼만 남는다 (튀지 않음).
+//  - 굴러가기: 구름 마찰로 틱마다 같은 만큼 느려지고, 한 틱 감속보다 느려지면 그 틱에 멈춘다.
+//    그래서 공은 항상 정해진 틱 수 안에 멈춘다. 벽 (minX, maxX) 에 닿으면 수평 속도가 0 이 된다.
+// 저항이 선형이면 틱마다 속도가 등비수열이라 n 틱 뒤의 위치가 닫힌 식으로 나온다. predict() 는
+// 시뮬레이션을 돌리지 않고 그 식으로 착지 틱 (Lambert W), 착지 위치, 멈추는 틱과 위치를 구하고,
+// step() 을 반복한 결과와 틱 단위까지 같다 (GolfPhysicsBenchmark 가 확인).
+// 코스 (GolfCourse) 위에서는 땅 높이, 재질, 경사를 틱마다 field 에서 읽는다: 날다가 땅에 닿으면 그 재질만큼
+// 속도가 남고 (모래는 적게), 옆에서 땅이나 벽에 부딪히면 수평 속도가 0 이 된다. 구를 때는 경사를 따라 중력이
+// 당기고 재질마다 마찰이 다르며, 너무 가파른 오르막 (벽) 은 막히고 낭떠러지에서는 다시 날아간다. 물에 빠지면
+// 친 자리로 돌아와 멈춘다 (isInWater). 이때 predict() 는 닫힌 식 대신 같은 step 을 끝까지 돌린다.
+// 평평한 코스 (isFlat) 는 예전처럼 닫힌 식을 쓴다.
+// 한 스레드에서만 쓴다. predict() 는 공 상태를 바꾸지 않고, 결과 객체가 다르면 여러 스레드에서 불러도 된다.
+public final class GolfPhysics {
+    public static final int TICKS_PER_SECOND = 100;
+    public static final double DT = 1.0 / TICKS_PER_SECOND;
+    static final double GRAVITY = 600;        // px/s²
+    static final double DRAG = 0.25;          // 1/s
+    static final double ROLLING = 250;        // px/s², 구름 마찰 감속
+    static final double LANDING_KEEP = 0.5;   // 착지 후 남는 수평 속도 비율
+    static final double SPEED_PER_POWER = 8;  // 힘 1 당 발사 속도 px/s
+
+    public static final int RESTING = 0, FLYING = 1, ROLLING_PHASE = 2;
+
+    // 틱마다 속도에 곱해지는 값과 종단 속도
+    private static final double R = 1 - DRAG * DT;
+    private static final double TERMINAL = GRAVITY / DRAG;
+    private static final double ROLL_STEP = ROLLING * DT;
+
+    // 재질 (GolfCourse.AIR, GRASS, SAND, WATER, WALL, DIRT) 마다 착지 후 남는 수평 속도와 구름 마찰 배수
+    private static final double[] KEEP = {0, LANDING_KEEP, 0.15, 0, 0.7, LANDING_KEEP};
+    private static final double[] FRICTION = {1, 1, 4, 1, 0.6, 1};
+    private static final int MAX_ROLL_TICKS = 3000; // 골짜기에서 오래 흔들려도 이 안에 멈춘다
+
+    private final double minX;
+    private final double maxX;
+    private final GolfCourse course; // 평평하면 null (닫힌 식)
+    private final Motion ball = new Motion();
+
+    public GolfPhysics(double minX, double maxX, double x) {
+        this.minX = minX;
+        this.maxX = maxX;
+        this.course = null;
+        ball.x = x;
+    }
+
+    // 코스 전체 폭을 움직이고 출발 위치에 놓인다
+    public GolfPhysics(GolfCourse course) {
+        this.minX = 0;
+        this.maxX = course.getWidth() - 1;
+        this.course = course.isFlat() ? null : course;
+        place(course.getStartX());
+    }
+
+    // 공 하나의 움직임 상태. GolfPhysics 의 공과 예측용 (Prediction) 이 하나씩 가진다.
+    static final class Motion {
+        double x, z, vx, vz;
+        int phase = RESTING;
+        int ticks;       // 이번 샷에서 지난 틱
+        double shotX;    // 친 자리 (물에 빠지면 돌아온다)
+        boolean water;
+        double splashX;  // 물에 빠진 자리
+        int contactTick; // 처음 땅이나 벽에 닿은 틱과 위치 (그때까지는 비행 닫힌 식이 맞다)
+        double contactX, contactZ;
+    }
+
+    // 멈춰 있는 공을 각도 (도, 수평 0 ~ 수직 90) 와 힘으로 친다
+    public void launch(double angle, double power) {
+        launch(ball, angle, power);
+    }
+
+    private static void launch(Motion m, double angle, double power) {
+        double radians = Math.toRadians(angle);
+        double speed = power * SPEED_PER_POWER;
+        m.vx = speed * Math.cos(radians);
+        m.vz = speed * Math.sin(radians);
+        m.ticks = 0;
+        m.phase = FLYING;
+        m.shotX = m.x;
+        m.water = false;
+        m.contactTick = -1;
+    }
+
+    // 한 틱. 아직 움직이고 있으면 true
+    public boolean step() {
+        return course == null ? stepFlat(ball) : stepCourse(ball);
+    }
+
+    private boolean stepFlat(Motion m) {
+        if (m.phase == FLYING) {
+            m.ticks++;
+            m.vx *= R;
+            m.vz = m.vz * R - GRAVITY * DT;
+            m.x += m.vx * DT;
+            m.z += m.vz * DT;
+            if (m.x < minX || m.x > maxX) {
+                m.x = m.x < minX ? minX : maxX;
+                m.vx = 0;
+            }
+            if (m.z <= 0) {
+                m.z = 0;
+                m.vz = 0;
+                m.vx *= LANDING_KEEP;
+                m.phase = ROLLING_PHASE;
+            }
+        } else if (m.phase == ROLLING_PHASE) {
+            m.ticks++;
+            double speed = Math.abs(m.vx);
+            if (speed <= ROLL_STEP) {
+                m.vx = 0;
+                m.phase = RESTING;
+            } else {
+                m.vx -= Math.copySign(ROLL_STEP, m.vx);
+                m.x += m.vx * DT;
+                if (m.x < minX || m.x > maxX) {
+                    m.x = m.x < minX ? minX : maxX;
+                    m.vx = 0;
+                    m.phase = RESTING;
+                }
+            }
+        }
+        return m.phase != RESTING;
+    }
+
+    private boolean stepCourse(Motion m) {
+        if (m.phase == FLYING) {
+            m.ticks++;
+            m.vx *= R;
+            m.vz = m.vz * R - GRAVITY * DT;
+            double x = m.x + m.vx * DT;
+            double z = m.z + m.vz * DT;
+            if (x < minX || x > maxX) {
+                x = x < minX ? minX : maxX;
+                m.vx = 0;
+                contact(m, x, z);
+            }
+            int ground = course.surface((int) Math.round(x));
+            if (z <= ground && m.z < ground) {
+                // 옆에서 부딪힘 (벽, 가파른 언덕): 제자리에서 수직으로 떨어진다
+                x = m.x;
+                m.vx = 0;
+                contact(m, x, z);
+                ground = course.surface((int) Math.round(x));
+            }
+            m.x = x;
+            m.z = z;
+            if (z <= ground) {
+                contact(m, x, ground);
+                m.z = ground;
+                m.vz = 0;
+                int material = course.surfaceMaterial((int) Math.round(x));
+                if (material == GolfCourse.WATER) {
+                    splash(m);
+                } else {
+                    m.vx *= KEEP[material];
+                    m.phase = ROLLING_PHASE;
+                }
+            }
+        } else if (m.phase == ROLLING_PHASE) {
+            m.ticks++;
+            int column = (int) Math.round(m.x);
+            double friction = ROLL_STEP * FRICTION[course.surfaceMaterial(column)];
+            double slope = course.slope(column);
+            double pull = -GRAVITY * slope / (1 + slope * slope) * DT; // 경사를 따라 당기는 중력의 수평 성분
+            if (Math.abs(m.vx) <= friction && Math.abs(pull) <= friction || m.ticks > MAX_ROLL_TICKS) {
+                m.vx = 0;
+                m.phase = RESTING;
+                return false;
+            }
+            m.vx += pull;
+            m.vx -= Math.copySign(Math.min(friction, Math.abs(m.vx)), m.vx);
+            double x = m.x + m.vx * DT;
+            if (x < minX || x > maxX) {
+                m.x = x < minX ? minX : maxX;
+                m.vx = 0;
+                m.phase = RESTING;
+                return false;
+            }
+            int ground = course.surface((int) Math.round(x));
+            double climb = GolfCourse.MAX_SLOPE * Math.abs(x - m.x) + 1;
+            if (ground - m.z > climb) {
+                m.vx = 0; // 벽이나 너무 가파른 오르막에 막힘
+            } else if (m.z - ground > climb) {
+                m.x = x; // 낭떠러지: 다시 날아간다
+                m.vz = 0;
+                m.phase = FLYING;
+            } else {
+                m.x = x;
+                m.z = ground;
+                if (course.surfaceMaterial((int) Math.round(x)) == GolfCourse.WATER) {
+                    splash(m);
+                }
+            }
+        }
+        return m.phase != RESTING;
+    }
+
+    private static void contact(Motion m, double x, double z) {
+        if (m.contactTick < 0) {
+            m.contactTick = m.ticks;
+            m.contactX = x;
+            m.contactZ = z;
+        }
+    }
+
+    // 물에 빠짐: 친 자리로 돌아와 멈춘다
+    private void splash(Motion m) {
+        m.splashX = m.x;
+        m.x = m.shotX;
+        m.z = course.surface((int) Math.round(m.shotX));
+        m.vx = 0;
+        m.vz = 0;
+        m.phase = RESTING;
+        m.water = true;
+    }
+
+    // 공을 x 에 멈춰 놓는다 (새 게임)
+    public void place(double x) {
+        ball.x = x;
+        ball.z = course == null ? 0 : course.surface((int) Math.round(x));
+        ball.vx = 0;
+        ball.vz = 0;
+        ball.phase = RESTING;
+    }
+
+    public double getX() {
+        return ball.x;
+    }
+
+    public double getZ() {
+        return ball.z;
+    }
+
+    public int getPhase() {
+        return ball.phase;
+    }
+
+    public boolean isMoving() {
+        return ball.phase != RESTING;
+    }
+
+    public int getTicks() {
+        return ball.ticks;
+    }
+
+    // 마지막 샷이 물에 빠져 친 자리로 돌아왔는지
+    public boolean isInWater() {
+        return ball.water;
+    }
+
+    // 지금 공 위치에서 (angle, power) 로 쳤을 때의 결과를 out 에 채운다 (할당 없음)
+    public void predict(double angle, double power, Prediction out) {
+        predict(ball.x, angle, power, out);
+    }
+
+    public void predict(double fromX, double angle, double power, Prediction out) {
+        if (course != null) {
+            simulate(fromX, angle, power, out);
+            return;
+        }
+        double radians = Math.toRadians(angle);
+        double speed = power * SPEED_PER_POWER;
+        double vx0 = speed * Math.cos(radians);
+        double vz0 = speed * Math.sin(radians);
+        out.fromX = fromX;
+        out.fromZ = 0;
+        out.vx0 = vx0;
+        out.vz0 = vz0;
+        out.minX = minX;
+        out.maxX = maxX;
+        out.landingZ = 0;
+        out.restZ = 0;
+        out.water = false;
+
+        int landing = landingTick(vz0);
+        out.landingTick = landing;
+        double landingX = Prediction.flightX(fromX, vx0, landing);
+        double rollSpeed = Math.abs(vx0 * Math.pow(R, landing)) * LANDING_KEEP;
+        if (landingX < minX || landingX > maxX) {
+            landingX = landingX < minX ? minX : maxX; // 날아가다 벽에 맞고 떨어짐
+            rollSpeed = 0;
+        }
+        out.landingX = landingX;
+
+        // 구름: 속도가 ROLL_STEP 보다 큰 동안 한 틱씩 줄어들며 움직이고, 그 다음 틱에 멈춘다
+        int moves = rollSpeed <= ROLL_STEP ? 0 : (int) Math.ceil(rollSpeed / ROLL_STEP) - 1;
+        double distance = DT * (moves * rollSpeed - ROLL_STEP * moves * (moves + 1) / 2.0);
+        double restX = landingX + Math.copySign(distance, vx0);
+        int restTick = landing + moves + 1;
+        if (restX < minX || restX > maxX) {
+            // 벽에 닿은 틱에 멈춘다: 그 틱까지 움직인 횟수를 구한다
+            double limit = Math.abs((restX < minX ? minX : maxX) - landingX) / DT;
+            int k = 1;
+            while (k * rollSpeed - ROLL_STEP * k * (k + 1) / 2.0 <= limit) {
+                k++;
+            }
+            restX = restX < minX ? minX : maxX;
+            restTick = landing + k;
+        }
+        out.restX = restX;
+        out.restTick = restTick;
+    }
+
+    // 코스 위: 결과 객체의 Motion 으로 step 을 끝까지 돌린다. 착지는 처음 땅이나 벽에 닿은 때.
+    private void simulate(double fromX, double angle, double power, Prediction out) {
+        Motion m = out.motion;
+        m.x = fromX;
+        m.z = course.surface((int) Math.round(fromX));
+        launch(m, angle, power);
+        out.fromX = fromX;
+        out.fromZ = m.z;
+        out.vx0 = m.vx;
+        out.vz0 = m.vz;
+        out.minX = minX;
+        out.maxX = maxX;
+        while (stepCourse(m)) {
+            // 구름은 MAX_ROLL_TICKS 안에 끝난다
+        }
+        out.landingTick = m.contactTick;
+        out.landingX = m.contactX;
+        out.landingZ = m.contactZ;
+        out.restTick = m.ticks;
+        out.restX = m.x;
+        out.restZ = m.z;
+        out.water = m.water;
+        out.waterX = m.splashX;
+    }
+
+    // 처음으로 z <= 0 이 되는 틱 (1 이상).
+    // z(n) = D (1 - R^n) - E n,  D = DT (vz0 + TERMINAL) R / (1 - R),  E = DT TERMINAL.
+    // u = λn (λ = -ln R) 로 두면 D e^-u = D - (E/λ) u 이고, 0 이 아닌 해는 u = D/b + W0(-(D/b) e^(-D/b)), b = E/λ.
+    // 반올림으로 한 틱 어긋날 수 있으므로 식의 답 주변을 step() 과 같은 방식으로 확인한다.
+    static int landingTick(double vz0) {
+        double lambda = -Math.log(R);
+        double d = DT * (vz0 + TERMINAL) * R / (1 - R);
+        double b = DT * TERMINAL / lambda;
+        double c = d / b;
+        double u = c + lambertW0(-c * Math.exp(-c));
+        int n = Math.max(1, (int) Math.ceil(u / lambda));
+        while (n > 1 && flightZ(vz0, n - 1) <= 0) {
+            n--;
+        }
+        while (flightZ(vz0, n) > 0) {
+            n++;
+        }
+        return n;
+    }
+
+    // n 틱 뒤의 높이 (땅에서 출발, 착지 전까지 유효)
+    static double flightZ(double vz0, int n) {
+        double rn = Math.pow(R, n);
+        return DT * ((vz0 + TERMINAL) * R * (1 - rn) / (1 - R) - n * TERMINAL);
+    }
+
+    // Lambert W 의 주 가지 (x >= -1/e). 초깃값 다음 Halley 반복.
+    static double lambertW0(double x) {
+        if (x <= -1 / Math.E) {
+            return -1;
+        }
+        double w = x < 1 ? (x < -0.25 ? -1 + Math.sqrt(2 * (1 + Math.E * x)) : x) : Math.log(1 + x);
+        for (int i = 0; i < 20; i++) {
+            double e = Math.exp(w);
+            double f = w * e - x;
+            double next = w - f / (e * (w + 1) - (w + 2) * f / (2 * w + 2));
+            if (Math.abs(next - w) <= 1e-15 * (1 + Math.abs(next))) {
+                return next;
+            }
+            w = next;
+        }
+        return w;
+    }
+
+    // 샷 하나의 예측 결과. 재사용할 수 있고, 궤적 그리기용 위치도 닫힌 식으로 준다.
+    public static final class Prediction {
+        double fromX, fromZ, vx0, vz0, minX, maxX;
+        int landingTick;
+        double landingX, landingZ;
+        int restTick;
+        double restX, restZ;
+        boolean water;
+        double waterX;
+        private final Motion motion = new Motion(); // 코스 위 예측용
+
+        public int getLandingTick() {
+            return landingTick;
+        }
+
+        public double getLandingX() {
+            return landingX;
+        }
+
+        // 공이 멈추는 틱 (launch 다음 step() 부터 셈)
+        public int getRestTick() {
+            return restTick;
+        }
+
+        public double getRestX() {
+            return restX;
+        }
+
+        public double getRestZ() {
+            return restZ;
+        }
+
+        // 물에 빠져 친 자리로 돌아옴 (rest 는 친 자리)
+        public boolean isWater() {
+            return water;
+        }
+
+        // 물에 빠진 자리 (isWater() 일 때만)
+        public double getWaterX() {
+            return waterX;
+        }
+
+        // 비행 중 n 틱 뒤의 위치 (0 <= n <= landingTick)
+        public double xAt(int n) {
+            double x = flightX(fromX, vx0, n);
+            return x < minX ? minX : x > maxX ? maxX : x;
+        }
+
+        public double zAt(int n) {
+            return n >= landingTick ? landingZ : fromZ + flightZ(vz0, n);
+        }
+
+        static double flightX(double fromX, double vx0, int n) {
+            return fromX + DT * vx0 * R * (1 - Math.pow(R, n)) / (1 - R);
+        }
+    }
+}
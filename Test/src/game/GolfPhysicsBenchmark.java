@@ -0,0 +1,90 @@
+package game;
+
+import java.util.Locale;
+
+// GolfPhysics 확인과 측정: 모든 샷 (각도 1-90, 힘 1-100, 기본 0.5 간격) 을 step() 으로 끝까지 돌린 결과와
+// predict() 의 닫힌 식 결과 (착지 틱/위치, 멈춘 틱/위치) 가 같은지, 모든 샷이 예측한 틱에 멈추는지 본다.
+// 그 다음 샷 하나당 시뮬레이션과 예측 시간을 잰다. 다르면 종료 코드 1.
+//
+// usage: GolfPhysicsBenchmark [startX] [step]
+public class GolfPhysicsBenchmark {
+    private static final double MIN_X = 0, MAX_X = 780; // 800px 화면, 공 지름 20
+
+    public static void main(String[] args) {
+        double startX = args.length > 0 ? Double.parseDouble(args[0]) : 50;
+        double step = args.length > 1 ? Double.parseDouble(args[1]) : 0.5;
+
+        GolfPhysics ball = new GolfPhysics(MIN_X, MAX_X, startX);
+        GolfPhysics.Prediction prediction = new GolfPhysics.Prediction();
+        int shots = 0, mismatches = 0, maxTicks = 0;
+        double maxError = 0;
+        for (double angle = 1; angle <= 90; angle += step) {
+            for (double power = 1; power <= 100; power += step) {
+                shots++;
+                ball.place(startX);
+                ball.predict(angle, power, prediction);
+                ball.launch(angle, power);
+                int landingTick = -1;
+                double landingX = 0;
+                while (ball.step()) {
+                    if (landingTick < 0 && ball.getPhase() != GolfPhysics.FLYING) {
+                        landingTick = ball.getTicks();
+                        landingX = ball.getX();
+                    }
+                }
+                if (landingTick < 0) { // 착지한 틱에 바로 멈춤
+                    landingTick = ball.getTicks();
+                    landingX = ball.getX();
+                }
+                maxTicks = Math.max(maxTicks, ball.getTicks());
+                double error = Math.max(Math.abs(landingX - prediction.getLandingX()), Math.abs(ball.getX() - prediction.getRestX()));
+                maxError = Math.max(maxError, error);
+                if (landingTick != prediction.getLandingTick() || ball.getTicks() != prediction.getRestTick() || error > 1e-6) {
+                    if (mismatches++ < 5) {
+                        System.out.printf(Locale.ROOT, "MISMATCH angle %.2f power %.2f: landing %d/%.4f vs %d/%.4f, rest %d/%.4f vs %d/%.4f%n",
+                                angle, power, landingTick, landingX, prediction.getLandingTick(), prediction.getLandingX(),
+                                ball.getTicks(), ball.getX(), prediction.getRestTick(), prediction.getRestX());
+                    }
+                }
+            }
+        }
+        System.out.printf(Locale.ROOT, "%d shots from x=%.0f: %d mismatches, max position error %.2e px, longest shot %d ticks (%.2f s)%n",
+                shots, startX, mismatches, maxError, maxTicks, maxTicks * GolfPhysics.DT);
+
+        // 시간: 같은 샷들을 시뮬레이션 / 예측
+        long simulatedTicks = 0;
+        double sink = 0;
+        long start = System.nanoTime();
+        int rounds = 3;
+        for (int round = 0; round < rounds; round++) {
+            for (int angle = 1; angle <= 90; angle++) {
+                for (int power = 1; power <= 100; power++) {
+                    ball.place(startX);
+                    ball.launch(angle, power);
+                    while (ball.step()) {
+                        simulatedTicks++;
+                    }
+                    sink += ball.getX();
+                }
+            }
+        }
+        long simulateNanos = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int round = 0; round < rounds; round++) {
+            for (int angle = 1; angle <= 90; angle++) {
+                for (int power = 1; power <= 100; power++) {
+                    ball.predict(startX, angle, power, prediction);
+                    sink += prediction.getRestX();
+                }
+            }
+        }
+        long predictNanos = System.nanoTime() - start;
+        int timed = rounds * 9000;
+        System.out.printf(Locale.ROOT, "simulate %.2f us/shot (%d ticks avg), predict %.3f us/shot (%.0fx) [%.0f]%n",
+                simulateNanos / 1e3 / timed, simulatedTicks / timed, predictNanos / 1e3 / timed,
+                (double) simulateNanos / predictNanos, sink % 10);
+        if (mismatches > 0) {
+            System.exit(1);
+        }
+    }
+}
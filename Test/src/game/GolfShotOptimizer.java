@@ -0,0 +1,356 @@
+package game;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntConsumer;
+
+// 골프 샷 도우미: 공 위치에서 홀까지 가장 적은 타수로 가는 첫 샷 (각도, 힘) 을 찾는다.
+// 후보는 각도 1-90, 힘 1-100 을 angleStep / powerStep 간격으로 나눈 격자 (0.5 간격이면 35,621 개) 이고,
+// 샷 하나는 GolfPhysics.predict() 의 닫힌 식으로 평가한다 (시뮬레이션 없음).
+// 지형이 있는 코스에서는 predict() 가 시뮬레이션이라 샷 하나가 더 비싸다.
+// 공 위치는 1px 버킷으로 묶고 (버킷 x 에서 친다고 보고) 버킷마다 결과를 memo 에 남긴다:
+//  - holeInOne(버킷): 한 번에 넣는 샷 중 정지 위치가 홀 가운데에 가장 가까운 것. 평평한 코스에서는 각도가
+//    같으면 정지 위치가 힘에 따라 늘어나므로 홀 범위의 시작을 이진 탐색하고 범위를 벗어날 때까지만 본다
+//    (가지치기). 경사나 물이 있으면 그렇지 않으므로 모든 힘을 본다.
+//  - reach(버킷): 모든 후보를 쳐 보고 멈추는 버킷마다 처음 (후보 순서) 도착하는 샷. 평평한 코스에서는 홀을
+//    지나친 버킷을 버린다 (오른쪽으로만 칠 수 있어서 다시 돌아올 수 없다).
+// 찾기는 너비 우선이다: 1타에 안 되면 reach 로 닿는 버킷들에서 1타를 찾고 (= 2타), 그래도 안 되면 한 단계 더.
+// 한 단계 안에서는 홀에 가까운 버킷부터 보고, 더 앞 순서의 버킷에서 답이 나오면 뒤의 버킷은 건너뛴다.
+// 일은 ForkJoinPool 에서 각도 범위나 버킷 목록을 나눠서 한다. 결과는 스레드 수와 상관없이 같다.
+// 여러 스레드에서 불러도 된다 (memo 는 atomic 배열, 같은 버킷을 동시에 계산하면 한쪽 결과만 남는다).
+//
+// usage: GolfShotOptimizer [startX] [angleStep] [powerStep] [maxStrokes] [threads] [course file]
+public final class GolfShotOptimizer {
+    public static final int NONE = -1;
+    private static final int UNKNOWN = -2;
+    private static final double MIN_ANGLE = 1, MAX_ANGLE = 90, MIN_POWER = 1, MAX_POWER = 100;
+
+    private final GolfCourse course;
+    private final GolfPhysics physics; // predict(fromX, ...) 만 쓰므로 스레드끼리 같이 써도 된다
+    private final boolean flat;
+    private final int goalX;
+    private final int tolerance;
+    private final double angleStep;
+    private final double powerStep;
+    private final int angles;
+    private final int powers;
+    private final int maxStrokes;
+    private final ForkJoinPool pool;
+    private final int buckets;
+
+    private final AtomicIntegerArray holeInOne;            // 후보 번호, NONE, 또는 UNKNOWN
+    private final AtomicReferenceArray<int[]> reach;       // 버킷 -> (도착 버킷 -> 후보 번호 또는 NONE)
+    private final LongAdder evaluated = new LongAdder();
+
+    // 가장 적은 타수 (NONE 이면 maxStrokes 안에 못 넣음) 와 첫 샷
+    public static final class Result {
+        public final int strokes;
+        public final double angle;
+        public final double power;
+
+        Result(int strokes, double angle, double power) {
+            this.strokes = strokes;
+            this.angle = angle;
+            this.power = power;
+        }
+    }
+
+    // 홀 판정은 게임과 같다 (GolfCourse.isInHole, 물에 빠진 샷은 제외)
+    public GolfShotOptimizer(GolfCourse course, double angleStep, double powerStep, int maxStrokes, int threads) {
+        this.course = course;
+        this.physics = new GolfPhysics(course);
+        this.flat = course.isFlat();
+        this.goalX = course.getHoleX();
+        this.tolerance = GolfCourse.HOLE_RADIUS;
+        this.angleStep = angleStep;
+        this.powerStep = powerStep;
+        this.angles = (int) Math.floor((MAX_ANGLE - MIN_ANGLE) / angleStep + 1e-9) + 1;
+        this.powers = (int) Math.floor((MAX_POWER - MIN_POWER) / powerStep + 1e-9) + 1;
+        this.maxStrokes = maxStrokes;
+        this.pool = new ForkJoinPool(threads);
+        this.buckets = course.getWidth();
+        holeInOne = new AtomicIntegerArray(buckets);
+        for (int b = 0; b < buckets; b++) {
+            holeInOne.set(b, UNKNOWN);
+        }
+        reach = new AtomicReferenceArray<>(buckets);
+    }
+
+    public static void main(String[] args) throws IOException {
+        GolfCourse course = args.length > 5 ? GolfCourse.open(Paths.get(args[5])) : GolfCourse.classic();
+        double startX = args.length > 0 ? Double.parseDouble(args[0]) : course.getStartX();
+        double angleStep = args.length > 1 ? Double.parseDouble(args[1]) : 0.5;
+        double powerStep = args.length > 2 ? Double.parseDouble(args[2]) : 0.5;
+        int maxStrokes = args.length > 3 ? Integer.parseInt(args[3]) : 3;
+        int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+
+        GolfShotOptimizer optimizer = new GolfShotOptimizer(course, angleStep, powerStep, maxStrokes, threads);
+        System.out.printf(Locale.ROOT, "%d candidates per stroke (angle step %.2f, power step %.2f), %d threads%n",
+                optimizer.getCandidates(), angleStep, powerStep, threads);
+
+        // 처음 위치, 홀 바로 앞, 중간, 벽 가까이, 그리고 처음 위치를 한 번 더 (memo 에서 바로 나온다).
+        // 간격을 크게 주면 (예: 15 20) 한 번에 못 넣는 위치가 생겨 2타 이상을 찾는다.
+        double[] positions = {startX, 735, 300, 20, startX};
+        for (double x : positions) {
+            long evaluatedBefore = optimizer.getEvaluated();
+            long start = System.nanoTime();
+            Result result = optimizer.solve(x);
+            long nanos = System.nanoTime() - start;
+            long shots = optimizer.getEvaluated() - evaluatedBefore;
+            System.out.printf(Locale.ROOT, "x=%5.1f: %s  %,d shots in %.1f ms = %,.0f shots/s%n", x,
+                    result.strokes == NONE ? "no way in " + maxStrokes + " strokes"
+                            : String.format(Locale.ROOT, "%d stroke(s), first shot angle %.2f power %.2f", result.strokes, result.angle, result.power),
+                    shots, nanos / 1e6, shots == 0 ? 0 : shots * 1e9 / nanos);
+        }
+
+        // 가지치기 없이 한 위치의 모든 후보를 평가하는 속도 (병렬 처리량). JIT 가 데워지도록 여러 번 돌리고 가장 빠른 값.
+        long nanos = Long.MAX_VALUE;
+        int reached = 0;
+        for (int i = 0; i < 10; i++) {
+            long start = System.nanoTime();
+            reached = optimizer.countReached(startX);
+            nanos = Math.min(nanos, System.nanoTime() - start);
+        }
+        System.out.printf(Locale.ROOT, "exhaustive: %,d shots from x=%.0f (%d distinct rest buckets) in %.1f ms = %,.0f shots/s%n",
+                optimizer.getCandidates(), startX, reached, nanos / 1e6, optimizer.getCandidates() * 1e9 / nanos);
+        optimizer.shutdown();
+    }
+
+    public int getCandidates() {
+        return angles * powers;
+    }
+
+    // 지금까지 평가한 샷 수 (모든 스레드 합)
+    public long getEvaluated() {
+        return evaluated.sum();
+    }
+
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    public Result solve(double x) {
+        int root = bucket(x);
+        int shot = holeInOne(root, true);
+        if (shot >= 0) {
+            return result(1, shot);
+        }
+        // first[b]: 처음 위치에서 b 로 가는 경로의 첫 샷. frontier: 이번 타수에 출발할 버킷들 (홀에 가까운 순)
+        int[] first = new int[buckets];
+        Arrays.fill(first, NONE);
+        first[root] = Integer.MAX_VALUE;
+        int[] frontier = {root};
+        for (int strokes = 2; strokes <= maxStrokes; strokes++) {
+            int[] from = frontier;
+            if (from.length == 1) {
+                reach(from[0], true);
+            } else {
+                parallel(from.length, 1, i -> reach(from[i], false));
+            }
+            int[] next = new int[buckets];
+            int count = 0;
+            for (int b : from) {
+                int[] to = reach(b, false);
+                for (int c = buckets - 1; c >= 0; c--) {
+                    if (to[c] >= 0 && first[c] == NONE) {
+                        first[c] = b == root ? to[c] : first[b];
+                        next[count++] = c;
+                    }
+                }
+            }
+            frontier = Arrays.copyOf(next, count);
+            Arrays.sort(frontier);
+            reverse(frontier); // 홀에 가까운 (x 가 큰) 버킷부터
+
+            int[] candidates = frontier;
+            AtomicInteger best = new AtomicInteger(Integer.MAX_VALUE);
+            parallel(candidates.length, 1, i -> {
+                if (i < best.get() && holeInOne(candidates[i], false) >= 0) {
+                    best.accumulateAndGet(i, Math::min);
+                }
+            });
+            if (best.get() != Integer.MAX_VALUE) {
+                return result(strokes, first[candidates[best.get()]]);
+            }
+            if (count == 0) {
+                break;
+            }
+        }
+        return new Result(NONE, 0, 0);
+    }
+
+    // 버킷에서 한 번에 넣는 가장 좋은 샷 (memo). parallel 이면 각도로 나눠서.
+    int holeInOne(int bucket, boolean parallel) {
+        int memo = holeInOne.get(bucket);
+        if (memo != UNKNOWN) {
+            return memo;
+        }
+        int[] bestShot = new int[angles];
+        double[] bestError = new double[angles];
+        forAngles(parallel, a -> {
+            GolfPhysics.Prediction prediction = new GolfPhysics.Prediction();
+            int best = NONE;
+            double error = Double.MAX_VALUE;
+            long shots = 0;
+            int p = 0;
+            if (flat) {
+                // 정지 위치가 홀 범위 시작 (goalX - tolerance 초과) 에 닿는 가장 작은 힘을 이진 탐색
+                int hi = powers;
+                while (p < hi) {
+                    int mid = (p + hi) >>> 1;
+                    shots++;
+                    if (rest(bucket, a, mid, prediction) > goalX - tolerance) {
+                        hi = mid;
+                    } else {
+                        p = mid + 1;
+                    }
+                }
+            }
+            for (; p < powers; p++) {
+                shots++;
+                int rest = rest(bucket, a, p, prediction);
+                if (flat && rest >= goalX + tolerance) {
+                    break; // 여기부터는 더 멀리 간다
+                }
+                if (!prediction.isWater() && course.isInHole(prediction.getRestX(), prediction.getRestZ())
+                        && Math.abs(prediction.getRestX() - goalX) < error) {
+                    error = Math.abs(prediction.getRestX() - goalX);
+                    best = a * powers + p;
+                }
+            }
+            bestShot[a] = best;
+            bestError[a] = error;
+            evaluated.add(shots);
+        });
+        int best = NONE;
+        double error = Double.MAX_VALUE;
+        for (int a = 0; a < angles; a++) {
+            if (bestError[a] < error) {
+                error = bestError[a];
+                best = bestShot[a];
+            }
+        }
+        holeInOne.compareAndSet(bucket, UNKNOWN, best);
+        return holeInOne.get(bucket);
+    }
+
+    // 버킷에서 모든 후보를 쳐서 멈추는 버킷마다 처음 도착하는 후보 (memo). 평평하면 홀을 지나친 곳은 빼고.
+    // 한 버킷만 펼칠 때 (첫 타) 는 각도로 나눠 병렬, 여러 버킷을 펼칠 때는 이미 버킷 단위로 병렬이다.
+    int[] reach(int bucket, boolean parallel) {
+        int[] memo = reach.get(bucket);
+        if (memo != null) {
+            return memo;
+        }
+        AtomicIntegerArray to = new AtomicIntegerArray(buckets);
+        for (int b = 0; b < buckets; b++) {
+            to.set(b, Integer.MAX_VALUE);
+        }
+        IntConsumer angle = a -> {
+            GolfPhysics.Prediction prediction = new GolfPhysics.Prediction();
+            for (int p = 0; p < powers; p++) {
+                int rest = rest(bucket, a, p, prediction);
+                if ((!flat || rest < goalX + tolerance) && rest != bucket) {
+                    to.accumulateAndGet(rest, a * powers + p, Math::min);
+                }
+            }
+            evaluated.add(powers);
+        };
+        forAngles(parallel, angle);
+        int[] result = new int[buckets];
+        for (int b = 0; b < buckets; b++) {
+            int shot = to.get(b);
+            result[b] = shot == Integer.MAX_VALUE ? NONE : shot;
+        }
+        reach.compareAndSet(bucket, null, result);
+        return reach.get(bucket);
+    }
+
+    // 가지치기 없이 x 에서 모든 후보를 평가하고, 멈추는 버킷 수를 센다
+    int countReached(double x) {
+        int[] to = reach(bucket(x), true);
+        reach.set(bucket(x), null); // 다음 측정도 다시 계산하도록
+        int count = 0;
+        for (int shot : to) {
+            if (shot >= 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private int rest(int bucket, int angleIndex, int powerIndex, GolfPhysics.Prediction prediction) {
+        physics.predict(bucket, angle(angleIndex), power(powerIndex), prediction);
+        return (int) Math.round(prediction.getRestX());
+    }
+
+    private double angle(int index) {
+        return MIN_ANGLE + index * angleStep;
+    }
+
+    private double power(int index) {
+        return MIN_POWER + index * powerStep;
+    }
+
+    private Result result(int strokes, int shot) {
+        return new Result(strokes, angle(shot / powers), power(shot % powers));
+    }
+
+    private int bucket(double x) {
+        return Math.max(0, Math.min(buckets - 1, (int) Math.round(x)));
+    }
+
+    private static void reverse(int[] values) {
+        for (int i = 0, j = values.length - 1; i < j; i++, j--) {
+            int t = values[i];
+            values[i] = values[j];
+            values[j] = t;
+        }
+    }
+
+    private void forAngles(boolean parallel, IntConsumer body) {
+        if (parallel) {
+            parallel(angles, 4, body);
+        } else {
+            for (int a = 0; a < angles; a++) {
+                body.accept(a);
+            }
+        }
+    }
+
+    // body(0 .. n-1) 를 pool 에서 나눠 실행한다. grain 개 이하가 되면 나누지 않는다.
+    private void parallel(int n, int grain, IntConsumer body) {
+        pool.invoke(new Range(0, n, grain, body));
+    }
+
+    private static final class Range extends RecursiveAction {
+        private final int from, to, grain;
+        private final IntConsumer body;
+
+        Range(int from, int to, int grain, IntConsumer body) {
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+            this.body = body;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= grain) {
+                for (int i = from; i < to; i++) {
+                    body.accept(i);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Range(from, mid, grain, body), new Range(mid, to, grain, body));
+        }
+    }
+}
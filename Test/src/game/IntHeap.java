@@ -0,0 +1,76 @@
+package game;
+
+import java.util.Arrays;
+
+// Binary min-heap of int values ordered by int keys, in two parallel primitive arrays.
+// No boxing and no allocation once it has grown to its working size; clear() is O(1).
+// Duplicates are allowed (lazy decrease-key: push again with the better key, skip stale pops).
+public final class IntHeap {
+    private int[] keys;
+    private int[] values;
+    private int size;
+
+    public IntHeap(int capacity) {
+        keys = new int[Math.max(capacity, 16)];
+        values = new int[keys.length];
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public void push(int key, int value) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+        int i = size++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (keys[parent] <= key) {
+                break;
+            }
+            keys[i] = keys[parent];
+            values[i] = values[parent];
+            i = parent;
+        }
+        keys[i] = key;
+        values[i] = value;
+    }
+
+    public int peekKey() {
+        return keys[0];
+    }
+
+    // Removes the smallest entry and returns its value
+    public int pop() {
+        int result = values[0];
+        int key = keys[--size];
+        int value = values[size];
+        int i = 0;
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && keys[child + 1] < keys[child]) {
+                child++;
+            }
+            if (key <= keys[child]) {
+                break;
+            }
+            keys[i] = keys[child];
+            values[i] = values[child];
+            i = child;
+        }
+        keys[i] = key;
+        values[i] = value;
+        return result;
+    }
+}
@@ -0,0 +1,163 @@
+package game;
+
+import java.util.Arrays;
+
+// Flow field (Dijkstra map) over a PacmanMaze: a value per tile plus the precomputed direction of its
+// best neighbour, so any number of walkers each take an O(1) step per tile, however many share it.
+//  - computeDistances(source): BFS distance to one tile (chase a target, or scatter to a corner)
+//  - computeFlee(distances): the distances scaled by -FLEE_SCALE and relaxed again, so following it
+//    runs away along escape routes instead of into the nearest dead end
+// Values are scaled by STEP so the flee field stays in ints. Work buffers are allocated on the first
+// computation that needs them (a flee field never needs the BFS queue) and then reused, and both
+// computations are linear: the BFS records each tile's direction as it discovers it, and the flee
+// relaxation is a Dijkstra whose start values come pre-sorted from the BFS order, so merging that order
+// with a FIFO of relaxed tiles (whose values only grow) replaces the priority queue.
+public final class PacmanFlowField {
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+    private static final int STEP = 10;
+    private static final int FLEE_SCALE = 12; // -1.2 per step: slightly prefer far-away escapes
+
+    private final PacmanMaze maze;
+    private final int width;
+    private final int[] value;
+    private final byte[] direction; // 0..3 (PacmanMaze directions), -1 where no neighbour is better
+    private int[] queue;           // BFS order (distance fields only)
+    private int reached;           // tiles in queue
+    private int[] fifo, fifoValue; // flee fields only
+    private int[] done;            // == generation: value final (flee fields only)
+    private int generation;
+    private int source = -1;
+
+    public PacmanFlowField(PacmanMaze maze) {
+        this.maze = maze;
+        this.width = maze.getWidth();
+        value = new int[maze.size()];
+        direction = new byte[maze.size()];
+    }
+
+    public void computeDistances(int source) {
+        this.source = source;
+        if (queue == null) {
+            queue = new int[maze.size()];
+        }
+        int[] queue = this.queue;
+        Arrays.fill(value, UNREACHABLE);
+        Arrays.fill(direction, (byte) -1);
+        int head = 0, tail = 0;
+        if (!maze.isWall(source)) {
+            value[source] = 0;
+            queue[tail++] = source;
+        }
+        while (head < tail) {
+            int tile = queue[head++];
+            int tx = tile % width, ty = tile / width;
+            int next = value[tile] + STEP;
+            for (int d = 0; d < 4; d++) {
+                int nx = tx + PacmanMaze.dx(d), ny = ty + PacmanMaze.dy(d);
+                if (!maze.isWall(nx, ny)) {
+                    int neighbour = ny * width + nx;
+                    if (value[neighbour] == UNREACHABLE) {
+                        value[neighbour] = next;
+                        direction[neighbour] = (byte) ((d + 2) & 3); // back towards `tile`
+                        queue[tail++] = neighbour;
+                    }
+                }
+            }
+        }
+        reached = tail;
+    }
+
+    public void computeFlee(PacmanFlowField distances) {
+        this.source = distances.source;
+        if (fifo == null) {
+            fifo = new int[maze.size()];
+            fifoValue = new int[fifo.length];
+            done = new int[maze.size()];
+        }
+        if (++generation == 0) {
+            Arrays.fill(done, 0);
+            generation = 1;
+        }
+        Arrays.fill(value, UNREACHABLE);
+        int[] order = distances.queue;
+        for (int k = 0; k < distances.reached; k++) {
+            value[order[k]] = -distances.value[order[k]] * FLEE_SCALE / 10;
+        }
+        // Dijkstra from every tile at once (a tile is never worth more than a neighbour plus one step).
+        // Start values ascend along the BFS order read backwards, relaxed values ascend in the FIFO.
+        int next = distances.reached - 1;
+        int head = 0, tail = 0;
+        while (next >= 0 || head < tail) {
+            int tile, key;
+            int start = next >= 0 ? -distances.value[order[next]] * FLEE_SCALE / 10 : Integer.MAX_VALUE;
+            if (head < tail && fifoValue[head] < start) {
+                tile = fifo[head];
+                key = fifoValue[head++];
+            } else {
+                tile = order[next--];
+                key = start;
+            }
+            if (done[tile] == generation || key != value[tile]) {
+                continue; // already final, or superseded by a better value
+            }
+            done[tile] = generation;
+            int tx = tile % width, ty = tile / width;
+            int relaxed = key + STEP;
+            for (int d = 0; d < 4; d++) {
+                int nx = tx + PacmanMaze.dx(d), ny = ty + PacmanMaze.dy(d);
+                if (!maze.isWall(nx, ny)) {
+                    int neighbour = ny * width + nx;
+                    if (value[neighbour] > relaxed) {
+                        value[neighbour] = relaxed;
+                        if (tail == fifo.length) {
+                            // at most 4 pushes per finalized tile, so this grows a couple of times at most
+                            fifo = Arrays.copyOf(fifo, 2 * tail);
+                            fifoValue = Arrays.copyOf(fifoValue, fifo.length);
+                        }
+                        fifo[tail] = neighbour;
+                        fifoValue[tail++] = relaxed;
+                    }
+                }
+            }
+        }
+        computeDirections();
+    }
+
+    // Steepest descent per tile (flee fields)
+    private void computeDirections() {
+        for (int tile = 0; tile < value.length; tile++) {
+            int best = -1;
+            int bestValue = value[tile];
+            if (bestValue != UNREACHABLE) {
+                int tx = tile % width, ty = tile / width;
+                for (int d = 0; d < 4; d++) {
+                    int nx = tx + PacmanMaze.dx(d), ny = ty + PacmanMaze.dy(d);
+                    if (!maze.isWall(nx, ny) && value[ny * width + nx] < bestValue) {
+                        bestValue = value[ny * width + nx];
+                        best = d;
+                    }
+                }
+            }
+            direction[tile] = (byte) best;
+        }
+    }
+
+    // Direction to step from `tile`, -1 at the source, at a local minimum or where unreachable
+    public int direction(int tile) {
+        return direction[tile];
+    }
+
+    public int value(int tile) {
+        return value[tile];
+    }
+
+    // Distance in tiles for a distance field, UNREACHABLE as is
+    public int distance(int tile) {
+        return value[tile] == UNREACHABLE ? UNREACHABLE : value[tile] / STEP;
+    }
+
+    // Tile the field was computed from (-1 before the first computation)
+    public int getSource() {
+        return source;
+    }
+}
@@ -0,0 +1,156 @@
+package game;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+// The flow fields the ghosts of one game share: a chase and a flee field towards Pac-Man's tile, which
+// only change when that tile changes, and fixed scatter fields towards the maze corners. Scatter fields
+// are only read once computed, so games on mazes with the same walls can share them (scatterFields()).
+// update() runs on the tick thread whenever Pac-Man's tile is known. Without a background thread it
+// recomputes the chase/flee Layer right there when the tile changed. With one, it only records the
+// request and wakes the worker, and the tick thread keeps using the last finished Layer (at most a tile
+// or two behind) until the next one is published, so it never waits.
+// Layers are triple-buffered: the tick thread owns `front`, the worker owns `back`, and `ready` holds
+// the latest finished Layer. Both sides swap through the AtomicReference, so the worker never writes
+// into a Layer the tick thread is reading.
+public final class PacmanFlowFields {
+    // The flee field costs about twice the chase field and is only needed while ghosts are frightened,
+    // so without a worker it is computed (and even allocated) on the first flee() after a change.
+    public static final class Layer {
+        public final PacmanFlowField chase;
+        private final PacmanMaze maze;
+        private PacmanFlowField flee;
+        private boolean fleeCurrent;
+        private volatile boolean fresh;
+
+        Layer(PacmanMaze maze) {
+            this.maze = maze;
+            chase = new PacmanFlowField(maze);
+        }
+
+        void compute(int source, boolean withFlee) {
+            chase.computeDistances(source);
+            fleeCurrent = false;
+            if (withFlee) {
+                flee();
+            }
+        }
+
+        public PacmanFlowField flee() {
+            if (!fleeCurrent) {
+                if (flee == null) {
+                    flee = new PacmanFlowField(maze);
+                }
+                flee.computeFlee(chase);
+                fleeCurrent = true;
+            }
+            return flee;
+        }
+
+        public int getSource() {
+            return chase.getSource();
+        }
+    }
+
+    private final PacmanFlowField[] scatter;
+    private Layer front;
+    private final AtomicReference<Layer> ready;
+    private Layer back;
+    private final Thread worker;
+    private volatile int requested;
+    private volatile boolean running;
+    private volatile long computed;
+
+    // Scatter fields towards each of `corners` (tile indices); chase and flee start at `source`
+    public PacmanFlowFields(PacmanMaze maze, int[] corners, int source, boolean background) {
+        this(maze, scatterFields(maze, corners), source, background);
+    }
+
+    // With already computed scatter fields, which may be shared with other games
+    public PacmanFlowFields(PacmanMaze maze, PacmanFlowField[] scatter, int source, boolean background) {
+        this.scatter = scatter;
+        front = new Layer(maze);
+        front.compute(source, false);
+        computed++;
+        requested = source;
+        if (background) {
+            ready = new AtomicReference<>(new Layer(maze));
+            back = new Layer(maze);
+            running = true;
+            worker = new Thread(this::run, "Pac-Man flow fields");
+            worker.setDaemon(true);
+            worker.start();
+        } else {
+            ready = null;
+            worker = null;
+        }
+    }
+
+    public static PacmanFlowField[] scatterFields(PacmanMaze maze, int[] corners) {
+        PacmanFlowField[] scatter = new PacmanFlowField[corners.length];
+        for (int i = 0; i < corners.length; i++) {
+            scatter[i] = new PacmanFlowField(maze);
+            scatter[i].computeDistances(corners[i]);
+        }
+        return scatter;
+    }
+
+    // Tick thread: Pac-Man is on `source` now
+    public void update(int source) {
+        if (source == requested) {
+            return;
+        }
+        requested = source;
+        if (worker == null) {
+            front.compute(source, false);
+            computed++;
+        } else {
+            LockSupport.unpark(worker);
+        }
+    }
+
+    // Tick thread: the newest finished chase/flee Layer
+    public Layer current() {
+        if (ready != null && ready.get().fresh) {
+            front = ready.getAndSet(front);
+            front.fresh = false;
+        }
+        return front;
+    }
+
+    public PacmanFlowField scatter(int i) {
+        return scatter[i % scatter.length];
+    }
+
+    public boolean isBackground() {
+        return worker != null;
+    }
+
+    // Chase/flee recomputations so far (an estimate while the worker is running)
+    public long getComputed() {
+        return computed;
+    }
+
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            LockSupport.unpark(worker);
+        }
+    }
+
+    private void run() {
+        int done = front.getSource();
+        while (running) {
+            int source = requested;
+            if (source == done) {
+                LockSupport.park(this);
+                continue;
+            }
+            back.compute(source, true);
+            back.fresh = true;
+            back = ready.getAndSet(back);
+            done = source;
+            computed++;
+        }
+    }
+}
@@ -3,27 +3,48 @@ package game;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
+import java.awt.image.BufferedImage;
 import java.util.Random;
 
-public class PacmanGame extends JPanel implements ActionListener, KeyListener {
-
-    private Timer timer;
-    private Pacman pacman;
-    private Ghost ghost;
-    private boolean gameOver;
+// Game logic (PacmanWorld) runs on a GameLoop simulation thread at 50 ticks/s; paintComponent only
+// draws the immutable Snapshot the loop publishes, and key handlers post their changes to the loop.
+// Pac-Man and the ghosts move tile to tile through a PacmanMaze. Ghosts share flow fields
+// (PacmanFlowFields) instead of pathfinding one by one: they alternate between scattering to their
+// corner (7 s) and chasing Pac-Man (20 s), and flee for 6 s after Pac-Man eats an energizer.
+// -Dpacman.ghosts=N (default 4), -Dpacman.maze=WxH (odd, default 39x29), -Dpacman.seed=S,
+// -Dpacman.flowThread=true to compute the chase/flee fields on a background thread.
+public class PacmanGame extends JPanel implements GameLoop.Game<PacmanWorld.Snapshot>, KeyListener {
+
+    private final GameLoop<PacmanWorld.Snapshot> loop;
+    // Only with -Dgame.render=active; otherwise Swing paints through paintComponent
+    private final ActiveRenderer renderer;
+    private final RenderStats swingStats = new RenderStats("Pac-Man swing");
+
+    // F3 toggles the profiler HUD; the same numbers are exported over JMX
+    private static final int PROFILE_UPDATE = 0, PROFILE_PAINT = 1;
+    private final FrameProfiler profiler = new FrameProfiler("update", "paint").register("Pac-Man");
+    private static final Font GAME_OVER_FONT = new Font("Arial", Font.BOLD, 50);
+    private static final Font SCORE_FONT = new Font("Arial", Font.BOLD, 16);
+    private static final Color FRIGHTENED_COLOR = new Color(80, 80, 255);
+
+    private final PacmanWorld world;
+    private final Image wallImage; // walls never change, so they are drawn once
 
     public PacmanGame() {
-        setPreferredSize(new Dimension(800, 600));
+        Random random = new Random(Long.getLong("pacman.seed", System.nanoTime()));
+        String[] size = System.getProperty("pacman.maze", "39x29").split("x");
+        PacmanMaze maze = PacmanMaze.generate(Integer.parseInt(size[0]), Integer.parseInt(size[1]), 0.15, random.nextLong());
+        world = new PacmanWorld(maze, Integer.getInteger("pacman.ghosts", 4), random, Boolean.getBoolean("pacman.flowThread"));
+        wallImage = paintWalls(maze);
+
+        setPreferredSize(new Dimension(maze.getWidth() * PacmanMaze.TILE, maze.getHeight() * PacmanMaze.TILE));
         setBackground(Color.BLACK);
         setFocusable(true);
         addKeyListener(this);
 
-        pacman = new Pacman(100, 100);
-        ghost = new Ghost(300, 300);
-        gameOver = false;
-
-        timer = new Timer(20, this);
-        timer.start();
+        renderer = ActiveRenderer.install(this, "Pac-Man", this::render, true);
+        loop = new GameLoop<>("Pac-Man", this, renderer != null ? renderer : this, 50, 60);
+        loop.start();
     }
 
     public static void main(String[] args) {
@@ -36,136 +57,132 @@ public class PacmanGame extends JPanel implements ActionListener, KeyListener {
     }
 
     @Override
-    public void actionPerformed(ActionEvent e) {
-        if (!gameOver) {
-            pacman.move();
-            ghost.move();
-
-            // Check collision
-            if (pacman.getBounds().intersects(ghost.getBounds())) {
-                gameOver = true;
-            }
+    public void update() {
+        long start = profiler.start();
+        if (!world.isGameOver()) {
+            world.tick();
         }
-        repaint();
+        profiler.end(PROFILE_UPDATE, start);
     }
 
     @Override
-    protected void paintComponent(Graphics g) {
-        super.paintComponent(g);
-        if (gameOver) {
-            g.setColor(Color.RED);
-            g.setFont(new Font("Arial", Font.BOLD, 50));
-            g.drawString("Game Over", 250, 300);
-        } else {
-            pacman.draw(g);
-            ghost.draw(g);
-        }
+    public PacmanWorld.Snapshot snapshot() {
+        return world.snapshot();
     }
 
-    @Override
-    public void keyPressed(KeyEvent e) {
-        if (!gameOver) {
-            if (e.getKeyCode() == KeyEvent.VK_LEFT) {
-                pacman.setDx(-5);
-            } else if (e.getKeyCode() == KeyEvent.VK_RIGHT) {
-                pacman.setDx(5);
-            } else if (e.getKeyCode() == KeyEvent.VK_UP) {
-                pacman.setDy(-5);
-            } else if (e.getKeyCode() == KeyEvent.VK_DOWN) {
-                pacman.setDy(5);
+    private static Image paintWalls(PacmanMaze maze) {
+        BufferedImage image = new BufferedImage(maze.getWidth() * PacmanMaze.TILE, maze.getHeight() * PacmanMaze.TILE,
+                BufferedImage.TYPE_INT_ARGB);
+        Graphics g = image.createGraphics();
+        g.setColor(new Color(33, 33, 222));
+        for (int ty = 0; ty < maze.getHeight(); ty++) {
+            for (int tx = 0; tx < maze.getWidth(); tx++) {
+                if (maze.isWall(tx, ty)) {
+                    g.fillRect(tx * PacmanMaze.TILE + 1, ty * PacmanMaze.TILE + 1, PacmanMaze.TILE - 2, PacmanMaze.TILE - 2);
+                }
             }
         }
+        g.dispose();
+        return image;
     }
 
     @Override
-    public void keyReleased(KeyEvent e) {
-        if (e.getKeyCode() == KeyEvent.VK_LEFT || e.getKeyCode() == KeyEvent.VK_RIGHT) {
-            pacman.setDx(0);
-        }
-        if (e.getKeyCode() == KeyEvent.VK_UP || e.getKeyCode() == KeyEvent.VK_DOWN) {
-            pacman.setDy(0);
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        if (renderer == null) {
+            render(g);
+            swingStats.presented();
         }
     }
 
     @Override
-    public void keyTyped(KeyEvent e) {}
-
-    class Pacman {
-        private int x, y, dx, dy;
-        private final int SIZE = 30;
-
-        public Pacman(int x, int y) {
-            this.x = x;
-            this.y = y;
-            this.dx = 0;
-            this.dy = 0;
-        }
-
-        public void move() {
-            x += dx;
-            y += dy;
-
-            // Keep Pacman within the bounds
-            if (x < 0) x = 0;
-            if (x > getWidth() - SIZE) x = getWidth() - SIZE;
-            if (y < 0) y = 0;
-            if (y > getHeight() - SIZE) y = getHeight() - SIZE;
+    public void repaint() {
+        if (swingStats != null) { // also called from the JPanel constructor
+            swingStats.requested();
         }
+        super.repaint();
+    }
 
-        public void draw(Graphics g) {
+    private void render(Graphics g) {
+        profiler.frame();
+        long start = profiler.start();
+        GameLoop.Frame<PacmanWorld.Snapshot> frame = loop.getFrame();
+        PacmanWorld.Snapshot state = frame.current;
+        double alpha = frame.alpha();
+        if (state.gameOver) {
+            g.setColor(state.won ? Color.YELLOW : Color.RED);
+            g.setFont(GAME_OVER_FONT);
+            g.drawString(state.won ? "You Win" : "Game Over", getWidth() / 2 - 140, getHeight() / 2);
+        } else {
+            g.drawImage(wallImage, 0, 0, null);
+            // Draw pellets
+            g.setColor(Color.WHITE);
+            long[] pellets = state.pellets;
+            for (int word = 0; word < pellets.length; word++) {
+                for (long bits = pellets[word]; bits != 0; bits &= bits - 1) {
+                    int tile = word << 6 | Long.numberOfTrailingZeros(bits);
+                    g.fillRect(tile % state.mazeWidth * PacmanMaze.TILE + PacmanMaze.TILE / 2 - 2,
+                            tile / state.mazeWidth * PacmanMaze.TILE + PacmanMaze.TILE / 2 - 2, 4, 4);
+                }
+            }
+            long[] energizers = state.energizers;
+            for (int word = 0; word < energizers.length; word++) {
+                for (long bits = energizers[word]; bits != 0; bits &= bits - 1) {
+                    int tile = word << 6 | Long.numberOfTrailingZeros(bits);
+                    g.fillOval(tile % state.mazeWidth * PacmanMaze.TILE + 4, tile / state.mazeWidth * PacmanMaze.TILE + 4,
+                            PacmanMaze.TILE - 8, PacmanMaze.TILE - 8);
+                }
+            }
             g.setColor(Color.YELLOW);
-            g.fillArc(x, y, SIZE, SIZE, 45, 270); // Draw Pacman
-        }
-
-        public void setDx(int dx) {
-            this.dx = dx;
-        }
-
-        public void setDy(int dy) {
-            this.dy = dy;
-        }
-
-        public Rectangle getBounds() {
-            return new Rectangle(x, y, SIZE, SIZE);
+            g.fillArc(GameLoop.Frame.lerp(state.pacmanFromX, state.pacmanX, alpha),
+                    GameLoop.Frame.lerp(state.pacmanFromY, state.pacmanY, alpha),
+                    PacmanWorld.Pacman.SIZE, PacmanWorld.Pacman.SIZE, 45, 270); // Draw Pacman
+            for (int i = 0; i < state.ghostX.length; i++) {
+                g.setColor(state.ghostFrightened[i] ? FRIGHTENED_COLOR : Color.RED);
+                g.fillOval(GameLoop.Frame.lerp(state.ghostFromX[i], state.ghostX[i], alpha),
+                        GameLoop.Frame.lerp(state.ghostFromY[i], state.ghostY[i], alpha),
+                        PacmanWorld.Ghost.SIZE, PacmanWorld.Ghost.SIZE); // Draw Ghost
+            }
+            g.setColor(Color.WHITE);
+            g.setFont(SCORE_FONT);
+            g.drawString("Score: " + state.score, 8, getHeight() - 4);
         }
+        profiler.end(PROFILE_PAINT, start);
+        profiler.drawHud(g, getWidth() - 280, 20);
     }
 
-    class Ghost {
-        private int x, y;
-        private final int SIZE = 30;
-
-        public Ghost(int x, int y) {
-            this.x = x;
-            this.y = y;
+    @Override
+    public void keyPressed(KeyEvent e) {
+        int key = e.getKeyCode();
+        if (key == KeyEvent.VK_F3) {
+            profiler.toggleHud();
         }
-
-        public void move() {
-            // Random movement for the ghost
-            Random rand = new Random();
-            int direction = rand.nextInt(4);
-            switch (direction) {
-                case 0: // Up
-                    if (y > 0) y -= 5;
-                    break;
-                case 1: // Down
-                    if (y < 570) y += 5;
-                    break;
-                case 2: // Left
-                    if (x > 0) x -= 5;
-                    break;
-                case 3: // Right
-                    if (x < 770) x += 5;
-                    break;
-            }
+        int direction = direction(key);
+        if (direction >= 0) {
+            loop.post(() -> world.setDesired(direction));
         }
+    }
 
-        public void draw(Graphics g) {
-            g.setColor(Color.RED);
-            g.fillOval(x, y, SIZE, SIZE); // Draw Ghost
+    @Override
+    public void keyReleased(KeyEvent e) {
+        int key = e.getKeyCode();
+        int direction = direction(key);
+        if (direction >= 0) {
+            loop.post(() -> world.release(direction));
         }
+    }
 
-        public Rectangle getBounds() {
-            return new Rectangle(x, y, SIZE, SIZE);
+    // PacmanMaze direction for an arrow key, -1 for other keys
+    private static int direction(int key) {
+        switch (key) {
+            case KeyEvent.VK_UP: return 0;
+            case KeyEvent.VK_LEFT: return 1;
+            case KeyEvent.VK_DOWN: return 2;
+            case KeyEvent.VK_RIGHT: return 3;
+            default: return -1;
         }
     }
+
+    @Override
+    public void keyTyped(KeyEvent e) {}
 }
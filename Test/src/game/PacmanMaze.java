@@ -0,0 +1,251 @@
+package game;
+
+import java.util.Arrays;
+import java.util.Random;
+
+// Tile maze for Pac-Man. Walls, pellets and energizers are bitsets (one bit per tile, row-major in long
+// words), so a 201x201 maze costs about 15 KB and a pellet snapshot is a short long[] copy.
+// Tiles are addressed by (tx, ty) or by index ty * width + tx; everything outside the maze is wall.
+public final class PacmanMaze {
+    public static final int TILE = 20; // pixels
+
+    private final int width;
+    private final int height;
+    private final long[] walls;
+    private final long[] pellets;
+    private final long[] energizers;
+    private int pelletCount;
+
+    public PacmanMaze(int width, int height) {
+        this.width = width;
+        this.height = height;
+        walls = new long[(width * height + 63) >>> 6];
+        pellets = new long[walls.length];
+        energizers = new long[walls.length];
+    }
+
+    // '#' wall, '.' pellet, 'o' energizer, anything else open floor
+    public static PacmanMaze parse(String... rows) {
+        PacmanMaze maze = new PacmanMaze(rows[0].length(), rows.length);
+        for (int ty = 0; ty < rows.length; ty++) {
+            for (int tx = 0; tx < maze.width; tx++) {
+                char c = rows[ty].charAt(tx);
+                if (c == '#') {
+                    maze.setWall(tx, ty, true);
+                } else if (c == '.') {
+                    maze.setPellet(tx, ty, true);
+                } else if (c == 'o') {
+                    maze.setEnergizer(maze.index(tx, ty), true);
+                }
+            }
+        }
+        return maze;
+    }
+
+    // Random maze with loops: a depth-first carve on the odd tiles, then `loops` (0..1) of the remaining
+    // inner walls between two corridors knocked out. Width and height should be odd. Every floor tile
+    // gets a pellet, except four energizers near the corners.
+    public static PacmanMaze generate(int width, int height, double loops, long seed) {
+        Random random = new Random(seed);
+        PacmanMaze maze = new PacmanMaze(width, height);
+        Arrays.fill(maze.walls, -1L);
+        int[] stack = new int[width * height];
+        int top = 0;
+        maze.setWall(1, 1, false);
+        stack[top++] = maze.index(1, 1);
+        int[] order = {0, 1, 2, 3};
+        while (top > 0) {
+            int cell = stack[top - 1];
+            int cx = cell % width, cy = cell / width;
+            shuffle(order, random);
+            boolean carved = false;
+            for (int d : order) {
+                int nx = cx + 2 * dx(d), ny = cy + 2 * dy(d);
+                if (nx > 0 && ny > 0 && nx < width - 1 && ny < height - 1 && maze.isWall(nx, ny)) {
+                    maze.setWall(cx + dx(d), cy + dy(d), false);
+                    maze.setWall(nx, ny, false);
+                    stack[top++] = maze.index(nx, ny);
+                    carved = true;
+                    break;
+                }
+            }
+            if (!carved) {
+                top--;
+            }
+        }
+        for (int ty = 1; ty < height - 1; ty++) {
+            for (int tx = 1; tx < width - 1; tx++) {
+                boolean between = (tx % 2 == 0) != (ty % 2 == 0);
+                if (between && maze.isWall(tx, ty) && random.nextDouble() < loops) {
+                    maze.setWall(tx, ty, false);
+                }
+            }
+        }
+        for (int ty = 0; ty < height; ty++) {
+            for (int tx = 0; tx < width; tx++) {
+                if (!maze.isWall(tx, ty)) {
+                    maze.setPellet(tx, ty, true);
+                }
+            }
+        }
+        int[] corners = maze.corners();
+        for (int tile : corners) {
+            maze.setPellet(tile % width, tile / width, false);
+            maze.setEnergizer(tile, true);
+        }
+        return maze;
+    }
+
+    // Independent copy (walls, pellets and energizers), e.g. a fresh game on the same layout
+    public PacmanMaze copy() {
+        PacmanMaze copy = new PacmanMaze(width, height);
+        System.arraycopy(walls, 0, copy.walls, 0, walls.length);
+        System.arraycopy(pellets, 0, copy.pellets, 0, pellets.length);
+        System.arraycopy(energizers, 0, copy.energizers, 0, energizers.length);
+        copy.pelletCount = pelletCount;
+        return copy;
+    }
+
+    private static void shuffle(int[] values, Random random) {
+        for (int i = values.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int t = values[i];
+            values[i] = values[j];
+            values[j] = t;
+        }
+    }
+
+    // Directions 0..3: up, left, down, right
+    public static int dx(int direction) {
+        return direction == 1 ? -1 : direction == 3 ? 1 : 0;
+    }
+
+    public static int dy(int direction) {
+        return direction == 0 ? -1 : direction == 2 ? 1 : 0;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int size() {
+        return width * height;
+    }
+
+    public int index(int tx, int ty) {
+        return ty * width + tx;
+    }
+
+    public boolean isWall(int tx, int ty) {
+        if (tx < 0 || ty < 0 || tx >= width || ty >= height) {
+            return true;
+        }
+        int i = ty * width + tx;
+        return (walls[i >>> 6] & 1L << i) != 0;
+    }
+
+    public boolean isWall(int index) {
+        return (walls[index >>> 6] & 1L << index) != 0;
+    }
+
+    public void setWall(int tx, int ty, boolean wall) {
+        int i = ty * width + tx;
+        if (wall) {
+            walls[i >>> 6] |= 1L << i;
+        } else {
+            walls[i >>> 6] &= ~(1L << i);
+        }
+    }
+
+    public boolean hasPellet(int tx, int ty) {
+        int i = ty * width + tx;
+        return (pellets[i >>> 6] & 1L << i) != 0;
+    }
+
+    public void setPellet(int tx, int ty, boolean pellet) {
+        if (hasPellet(tx, ty) != pellet) {
+            int i = ty * width + tx;
+            pellets[i >>> 6] ^= 1L << i;
+            pelletCount += pellet ? 1 : -1;
+        }
+    }
+
+    // Removes the pellet at (tx, ty); true if there was one
+    public boolean eatPellet(int tx, int ty) {
+        if (tx < 0 || ty < 0 || tx >= width || ty >= height || !hasPellet(tx, ty)) {
+            return false;
+        }
+        setPellet(tx, ty, false);
+        return true;
+    }
+
+    public int getPelletCount() {
+        return pelletCount;
+    }
+
+    // Copy of the pellet bits for a snapshot
+    public long[] copyPellets() {
+        return pellets.clone();
+    }
+
+    public boolean hasEnergizer(int index) {
+        return (energizers[index >>> 6] & 1L << index) != 0;
+    }
+
+    public void setEnergizer(int index, boolean energizer) {
+        if (energizer) {
+            energizers[index >>> 6] |= 1L << index;
+        } else {
+            energizers[index >>> 6] &= ~(1L << index);
+        }
+    }
+
+    // Removes the energizer at tile `index`; true if there was one
+    public boolean eatEnergizer(int index) {
+        if (!hasEnergizer(index)) {
+            return false;
+        }
+        setEnergizer(index, false);
+        return true;
+    }
+
+    public long[] copyEnergizers() {
+        return energizers.clone();
+    }
+
+    // The open tiles nearest the four corners (top-left, top-right, bottom-left, bottom-right)
+    public int[] corners() {
+        return new int[] {
+                nearestOpen(1, 1), nearestOpen(width - 2, 1), nearestOpen(1, height - 2), nearestOpen(width - 2, height - 2)
+        };
+    }
+
+    private int nearestOpen(int tx, int ty) {
+        for (int r = 0; r < Math.max(width, height); r++) {
+            for (int y = ty - r; y <= ty + r; y++) {
+                for (int x = tx - r; x <= tx + r; x++) {
+                    if (!isWall(x, y)) {
+                        return index(x, y);
+                    }
+                }
+            }
+        }
+        throw new IllegalStateException("Maze has no open tile");
+    }
+
+    // First open tile scanning row-major from (tx, ty), wrapping around; for spawn points
+    public int firstOpen(int tx, int ty) {
+        int start = index(tx, ty);
+        for (int k = 0; k < size(); k++) {
+            int i = (start + k) % size();
+            if (!isWall(i)) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("Maze has no open tile");
+    }
+}
@@ -0,0 +1,89 @@
+package game;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.Random;
+
+// Ghost pathfinding load test: a generated maze, Pac-Man wandering (random held direction, changed
+// every 20 ticks) and N ghosts chasing him, stepped as fast as possible without a window. Three ways:
+//  - astar: every ghost keeps its own A* path (PacmanPathfinder), searching again when Pac-Man's tile changes
+//  - flow: one shared chase/flee flow field, recomputed on the tick thread when Pac-Man's tile changes
+//  - flow-bg: the same fields computed on the PacmanFlowFields background thread
+// Prints the tick-thread cost per tick against the 20 ms budget of the 50 Hz loop, searches or field
+// recomputations per tick, and bytes allocated per tick on the tick thread.
+//
+// usage: PacmanPathBenchmark [mazeSize] [ghostCounts...]
+public class PacmanPathBenchmark {
+    private static final int TICKS = 5_000;
+    private static final String[] MODES = {"astar", "flow", "flow-bg"};
+    private static final int ASTAR = 0, FLOW = 1, FLOW_BACKGROUND = 2;
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) | 1 : 201;
+        int[] ghostCounts = {4, 16, 48, 96};
+        if (args.length > 1) {
+            ghostCounts = new int[args.length - 1];
+            for (int i = 1; i < args.length; i++) {
+                ghostCounts[i - 1] = Integer.parseInt(args[i]);
+            }
+        }
+        for (int mode = ASTAR; mode <= FLOW_BACKGROUND; mode++) {
+            run(size, 48, mode, false); // JIT warmup
+        }
+        System.out.printf(Locale.ROOT, "maze %dx%d, %d ticks%n", size, size, TICKS);
+        System.out.println("ghosts  mode     update ms/tick  searches/tick  B/tick");
+        for (int ghosts : ghostCounts) {
+            for (int mode = ASTAR; mode <= FLOW_BACKGROUND; mode++) {
+                run(size, ghosts, mode, true);
+            }
+        }
+    }
+
+    private static void run(int size, int ghostCount, int mode, boolean print) {
+        Random random = new Random(ghostCount);
+        PacmanMaze maze = PacmanMaze.generate(size, size, 0.15, 1);
+        PacmanPathfinder pathfinder = new PacmanPathfinder(maze);
+        int start = maze.firstOpen(size / 2, size * 3 / 4);
+        PacmanWorld.Pacman pacman = new PacmanWorld.Pacman(start % size * PacmanMaze.TILE, start / size * PacmanMaze.TILE);
+        PacmanWorld.Ghost[] ghosts = new PacmanWorld.Ghost[ghostCount];
+        for (int i = 0; i < ghostCount; i++) {
+            int tile = maze.firstOpen(random.nextInt(size), random.nextInt(size - 1));
+            ghosts[i] = new PacmanWorld.Ghost(tile % size * PacmanMaze.TILE, tile / size * PacmanMaze.TILE, random);
+        }
+        PacmanFlowFields fields = mode == ASTAR ? null
+                : new PacmanFlowFields(maze, maze.corners(), pacman.tile(maze), mode == FLOW_BACKGROUND);
+        long computedBefore = fields != null ? fields.getComputed() : 0;
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long bytes = threads.getCurrentThreadAllocatedBytes();
+        long begin = System.nanoTime();
+        for (int tick = 0; tick < TICKS; tick++) {
+            if (tick % 20 == 0) {
+                pacman.setDesired(random.nextInt(4));
+            }
+            pacman.move(maze);
+            int target = pacman.tile(maze);
+            if (fields == null) {
+                for (PacmanWorld.Ghost ghost : ghosts) {
+                    ghost.move(maze, pathfinder, target);
+                }
+            } else {
+                fields.update(target);
+                PacmanFlowField chase = fields.current().chase;
+                for (PacmanWorld.Ghost ghost : ghosts) {
+                    ghost.move(maze, chase);
+                }
+            }
+        }
+        long nanos = System.nanoTime() - begin;
+        bytes = threads.getCurrentThreadAllocatedBytes() - bytes;
+        long searches = fields == null ? pathfinder.getSearches() : fields.getComputed() - computedBefore;
+        if (fields != null) {
+            fields.stop();
+        }
+        if (print) {
+            System.out.printf(Locale.ROOT, "%6d  %-7s  %14.3f  %13.2f  %6d%n", ghostCount, MODES[mode],
+                    nanos / 1e6 / TICKS, (double) searches / TICKS, bytes / TICKS);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package game;
+
+import java.util.Arrays;
+
+// A* shortest paths on a PacmanMaze (4-neighbour, unit cost, Manhattan heuristic).
+// All search state is preallocated per maze and reused: g costs and parents are plain int arrays
+// validated by a generation stamp instead of being cleared, and the open set is an IntHeap keyed by
+// f = g + h. A search therefore allocates nothing and only touches the tiles it expands.
+// One pathfinder per simulation thread; ghosts keep their own Path and only search again when their
+// target tile changes or they leave the cached path.
+public final class PacmanPathfinder {
+    private final PacmanMaze maze;
+    private final int width;
+    private final int[] cost;
+    private final int[] parent;
+    private final int[] seen;    // == generation: cost/parent valid
+    private final int[] closed;  // == generation: expanded
+    private final IntHeap open;
+    private int generation;
+
+    private long searches;
+    private long expanded;
+
+    public PacmanPathfinder(PacmanMaze maze) {
+        this.maze = maze;
+        this.width = maze.getWidth();
+        int size = maze.size();
+        cost = new int[size];
+        parent = new int[size];
+        seen = new int[size];
+        closed = new int[size];
+        open = new IntHeap(size);
+    }
+
+    // Shortest path from tile `from` to tile `to` (indices). Writes the tiles after `from` up to and
+    // including `to` into path.tiles and returns the length, 0 if from == to, -1 if unreachable.
+    public int find(int from, int to, Path path) {
+        searches++;
+        path.length = 0;
+        path.cursor = 0;
+        path.from = from;
+        path.target = to;
+        if (from == to) {
+            return 0;
+        }
+        if (maze.isWall(from) || maze.isWall(to)) {
+            path.length = -1;
+            return -1;
+        }
+        if (++generation == 0) { // wrapped: stale stamps could look current
+            Arrays.fill(seen, 0);
+            Arrays.fill(closed, 0);
+            generation = 1;
+        }
+        int toX = to % width, toY = to / width;
+        open.clear();
+        seen[from] = generation;
+        cost[from] = 0;
+        parent[from] = -1;
+        open.push(heuristic(from, toX, toY), from);
+        while (!open.isEmpty()) {
+            int current = open.pop();
+            if (closed[current] == generation) {
+                continue; // stale duplicate
+            }
+            closed[current] = generation;
+            expanded++;
+            if (current == to) {
+                return reconstruct(from, to, path);
+            }
+            int cx = current % width, cy = current / width;
+            int next = cost[current] + 1;
+            for (int d = 0; d < 4; d++) {
+                int nx = cx + PacmanMaze.dx(d), ny = cy + PacmanMaze.dy(d);
+                if (maze.isWall(nx, ny)) {
+                    continue;
+                }
+                int neighbour = ny * width + nx;
+                if (closed[neighbour] == generation || seen[neighbour] == generation && cost[neighbour] <= next) {
+                    continue;
+                }
+                seen[neighbour] = generation;
+                cost[neighbour] = next;
+                parent[neighbour] = current;
+                open.push(next + heuristic(neighbour, toX, toY), neighbour);
+            }
+        }
+        path.length = -1;
+        return -1;
+    }
+
+    private int heuristic(int tile, int toX, int toY) {
+        return Math.abs(tile % width - toX) + Math.abs(tile / width - toY);
+    }
+
+    private int reconstruct(int from, int to, Path path) {
+        int length = cost[to];
+        if (path.tiles.length < length) {
+            path.tiles = new int[Math.max(length, path.tiles.length * 2)];
+        }
+        for (int tile = to, i = length - 1; tile != from; tile = parent[tile], i--) {
+            path.tiles[i] = tile;
+        }
+        path.length = length;
+        return length;
+    }
+
+    public long getSearches() {
+        return searches;
+    }
+
+    public long getExpanded() {
+        return expanded;
+    }
+
+    // A cached path for one walker. next() reuses it while the target tile stays the same and the
+    // walker is where the path expects it; anything else triggers one new search.
+    public static final class Path {
+        int[] tiles = new int[32];
+        int length = -1;
+        int cursor;      // tiles[cursor] is the next tile to enter
+        int from = -1;
+        int target = -1;
+
+        // Next tile to enter from `tile` towards `target`, `tile` itself when already there, -1 if unreachable
+        public int next(PacmanPathfinder pathfinder, int tile, int target) {
+            boolean onPath = target == this.target && length >= 0
+                    && (cursor == 0 ? tile == from : cursor <= length && tile == tiles[cursor - 1]);
+            if (!onPath) {
+                pathfinder.find(tile, target, this);
+            }
+            if (length < 0) {
+                return -1;
+            }
+            if (cursor >= length) {
+                return tile;
+            }
+            return tiles[cursor++];
+        }
+
+        public int getLength() {
+            return length;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package game;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+// Line-based text protocol over loopback TCP for the sessions of a PacmanSessionManager. Each
+// connection gets its own virtual thread with plain blocking I/O. One reply line per request:
+//   NEW                  -> SESSION <id>          creates an idle session
+//   JOIN <id>            -> OK                    attaches this connection; the game runs while anyone is joined
+//   KEY <dir> DOWN|UP    -> OK                    arrow key for the joined game, dir 0..3 = up, left, down, right
+//   STATE                -> STATE <tick> <score> <over> <won> <pacmanX> <pacmanY> <ghosts> (<x> <y> <frightened>)...
+//   LEAVE                -> OK                    detaches
+//   CLOSE                -> OK                    ends the joined session
+//   QUIT                 -> BYE
+// Flags are 0 or 1 and positions are in pixels. Errors reply "ERR <reason>" and keep the connection.
+// STATE reads the last published snapshot, so it never waits for the game thread.
+//
+// usage: PacmanServer [port] [mazeWidth] [mazeHeight] [ghosts]   (port 0 picks a free one)
+public final class PacmanServer implements AutoCloseable {
+    private final PacmanSessionManager manager;
+    private final ServerSocket serverSocket;
+    private final Thread acceptor;
+
+    public PacmanServer(PacmanSessionManager manager, int port) throws IOException {
+        this.manager = manager;
+        serverSocket = new ServerSocket(port, 1024, InetAddress.getLoopbackAddress());
+        acceptor = Thread.ofVirtual().name("pacman-server-accept").unstarted(this::accept);
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 7070;
+        int width = args.length > 1 ? Integer.parseInt(args[1]) : 39;
+        int height = args.length > 2 ? Integer.parseInt(args[2]) : 29;
+        int ghosts = args.length > 3 ? Integer.parseInt(args[3]) : 4;
+        PacmanServer server = new PacmanServer(new PacmanSessionManager(width, height, ghosts, System.nanoTime()), port);
+        server.start();
+        System.out.println("Pac-Man server on " + InetAddress.getLoopbackAddress().getHostAddress() + ":" + server.getPort());
+        server.acceptor.join(); // virtual threads do not keep the JVM alive
+    }
+
+    public void start() {
+        acceptor.start();
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                Thread.ofVirtual().name("pacman-client").start(() -> serve(socket));
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    System.err.println("accept failed: " + e);
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        PacmanSession joined = null;
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+             Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII)) {
+            socket.setTcpNoDelay(true);
+            StringBuilder reply = new StringBuilder(256);
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] words = line.trim().split(" +");
+                reply.setLength(0);
+                boolean quit = false;
+                switch (words[0].toUpperCase(Locale.ROOT)) {
+                    case "NEW":
+                        reply.append("SESSION ").append(manager.create().getId());
+                        break;
+                    case "JOIN": {
+                        PacmanSession session = words.length > 1 ? manager.get(parse(words[1])) : null;
+                        if (session == null) {
+                            reply.append("ERR no such session");
+                        } else {
+                            if (joined != null) {
+                                joined.detach();
+                            }
+                            joined = session;
+                            joined.attach();
+                            reply.append("OK");
+                        }
+                        break;
+                    }
+                    case "KEY": {
+                        int direction = words.length > 2 ? parse(words[1]) : -1;
+                        if (joined == null) {
+                            reply.append("ERR not joined");
+                        } else if (direction < 0 || direction > 3) {
+                            reply.append("ERR usage: KEY <0..3> DOWN|UP");
+                        } else if (words[2].equalsIgnoreCase("DOWN")) {
+                            joined.press(direction);
+                            reply.append("OK");
+                        } else {
+                            joined.release(direction);
+                            reply.append("OK");
+                        }
+                        break;
+                    }
+                    case "STATE":
+                        if (joined == null) {
+                            reply.append("ERR not joined");
+                        } else {
+                            appendState(reply, joined.state());
+                        }
+                        break;
+                    case "LEAVE":
+                        if (joined != null) {
+                            joined.detach();
+                            joined = null;
+                        }
+                        reply.append("OK");
+                        break;
+                    case "CLOSE":
+                        if (joined == null) {
+                            reply.append("ERR not joined");
+                        } else {
+                            manager.close(joined.getId());
+                            joined = null;
+                            reply.append("OK");
+                        }
+                        break;
+                    case "QUIT":
+                        reply.append("BYE");
+                        quit = true;
+                        break;
+                    default:
+                        reply.append("ERR unknown command");
+                }
+                reply.append('\n');
+                out.append(reply);
+                out.flush();
+                if (quit) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            // client went away
+        } finally {
+            if (joined != null) {
+                joined.detach();
+            }
+        }
+    }
+
+    private static int parse(String word) {
+        try {
+            return Integer.parseInt(word);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    static void appendState(StringBuilder reply, PacmanWorld.Snapshot state) {
+        reply.append("STATE ").append(state.tick).append(' ').append(state.score)
+                .append(' ').append(state.gameOver ? 1 : 0).append(' ').append(state.won ? 1 : 0)
+                .append(' ').append(state.pacmanX).append(' ').append(state.pacmanY)
+                .append(' ').append(state.ghostX.length);
+        for (int i = 0; i < state.ghostX.length; i++) {
+            reply.append(' ').append(state.ghostX[i]).append(' ').append(state.ghostY[i])
+                    .append(' ').append(state.ghostFrightened[i] ? 1 : 0);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package game;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+// One Pac-Man game hosted by a PacmanSessionManager and stepped by its own virtual thread.
+// That thread is the only writer: it applies queued inputs, ticks the PacmanWorld at TICKS_PER_SECOND
+// and publishes world.snapshot() through an AtomicReference. Readers (socket clients, the benchmark)
+// just get() the latest immutable Snapshot, so they never lock or wait for the game, and the game
+// never waits for them.
+// A session without attached clients is idle: its thread parks with no timeout and costs memory but no
+// CPU. attach() wakes it, and it parks again after the last detach().
+public final class PacmanSession {
+    public static final int TICKS_PER_SECOND = 50;
+    private static final long TICK_NANOS = 1_000_000_000L / TICKS_PER_SECOND;
+    private static final int MAX_TICKS_PER_WAKE = 5; // beyond this the game slows down instead of spiralling
+
+    private final int id;
+    private final PacmanWorld world;
+    private final AtomicReference<PacmanWorld.Snapshot> state;
+    private final ConcurrentLinkedQueue<Runnable> inputs = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger clients = new AtomicInteger();
+    private final Thread thread;
+    private volatile boolean running = true;
+    // Written by the session thread only
+    private volatile long ticks; // tick() calls, including those after the game ended
+    private volatile long maxLagNanos;
+
+    PacmanSession(int id, PacmanWorld world) {
+        this.id = id;
+        this.world = world;
+        state = new AtomicReference<>(world.snapshot());
+        thread = Thread.ofVirtual().name("pacman-session-" + id).unstarted(this::run);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    // Latest published state, safe from any thread
+    public PacmanWorld.Snapshot state() {
+        return state.get();
+    }
+
+    // Arrow key held down / let go (PacmanMaze directions); applied before the next tick
+    public void press(int direction) {
+        inputs.add(() -> world.setDesired(direction));
+    }
+
+    public void release(int direction) {
+        inputs.add(() -> world.release(direction));
+    }
+
+    public void attach() {
+        if (clients.getAndIncrement() == 0) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    public void detach() {
+        clients.decrementAndGet();
+    }
+
+    public boolean isActive() {
+        return clients.get() > 0;
+    }
+
+    public long getTicks() {
+        return ticks;
+    }
+
+    // Longest a tick started after its due time, since the last reset
+    public long getMaxLagNanos() {
+        return maxLagNanos;
+    }
+
+    public void resetMaxLag() {
+        maxLagNanos = 0;
+    }
+
+    void close() {
+        running = false;
+        LockSupport.unpark(thread);
+    }
+
+    private void run() {
+        long next = System.nanoTime();
+        long stepped = 0;
+        while (running) {
+            if (clients.get() == 0) {
+                LockSupport.park(this);
+                next = System.nanoTime(); // idle time is not caught up
+                continue;
+            }
+            long now = System.nanoTime();
+            if (now - next < 0) {
+                LockSupport.parkNanos(this, next - now);
+                continue;
+            }
+            if (now - next > maxLagNanos) {
+                maxLagNanos = now - next;
+            }
+
+            Runnable input;
+            while ((input = inputs.poll()) != null) {
+                input.run();
+            }
+            int steps = 0;
+            do {
+                world.tick();
+                stepped++;
+                next += TICK_NANOS;
+            } while (now - next >= 0 && ++steps < MAX_TICKS_PER_WAKE);
+            if (now - next >= 0) {
+                next = now + TICK_NANOS; // fell behind, don't burst
+            }
+            ticks = stepped;
+            state.set(world.snapshot());
+        }
+        world.stop();
+    }
+}
@@ -0,0 +1,193 @@
+package game;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.atomic.LongAdder;
+
+// Session density: how many PacmanSessions one JVM holds and keeps on time.
+//  1. creates `idle` + `active` sessions and reports heap and time per session
+//  2. attaches the active ones, so each ticks at 50/s on its virtual thread; a driver changes every
+//     active game's direction once a second and a reader thread keeps reading all their snapshots
+//  3. meanwhile `clients` loopback connections to a PacmanServer each JOIN an active session and send
+//     STATE requests back to back
+// Once a second it prints ticks/s against the target (active x 50), the worst tick lag, snapshot reads/s
+// and socket round trips/s, then a summary at the end.
+//
+// usage: PacmanSessionBenchmark [idle] [active] [seconds] [clients] [ghosts]
+public class PacmanSessionBenchmark {
+    private static volatile boolean running = true;
+
+    public static void main(String[] args) throws Exception {
+        int idle = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int active = args.length > 1 ? Integer.parseInt(args[1]) : 1_000;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        int clients = args.length > 3 ? Integer.parseInt(args[3]) : 100;
+        int ghosts = args.length > 4 ? Integer.parseInt(args[4]) : 4;
+
+        long heapBefore = usedHeap();
+        long start = System.nanoTime();
+        PacmanSessionManager manager = new PacmanSessionManager(39, 29, ghosts, 1);
+        PacmanSession[] playing = new PacmanSession[active];
+        for (int i = 0; i < idle; i++) {
+            manager.create();
+        }
+        for (int i = 0; i < active; i++) {
+            playing[i] = manager.create();
+        }
+        long createNanos = System.nanoTime() - start;
+        long heapAfter = usedHeap();
+        int total = idle + active;
+        System.out.printf(Locale.ROOT, "%d sessions (%d idle, %d active, %d ghosts each) created in %d ms, %.1f KB heap per session%n",
+                total, idle, active, ghosts, createNanos / 1_000_000, (heapAfter - heapBefore) / 1024.0 / total);
+        System.out.println(Runtime.getRuntime().availableProcessors() + " cores, "
+                + ManagementFactory.getThreadMXBean().getThreadCount() + " platform threads");
+
+        for (PacmanSession session : playing) {
+            session.attach();
+        }
+        Thread driver = Thread.ofPlatform().daemon().name("driver").start(() -> drive(playing));
+        LongAdder reads = new LongAdder();
+        Thread reader = Thread.ofPlatform().daemon().name("reader").start(() -> read(playing, reads));
+
+        PacmanServer server = new PacmanServer(manager, 0);
+        server.start();
+        LongAdder roundTrips = new LongAdder();
+        LongAdder roundTripNanos = new LongAdder();
+        for (int c = 0; c < clients; c++) {
+            int id = playing[c % active].getId();
+            Thread.ofVirtual().name("client-" + c).start(() -> client(server.getPort(), id, roundTrips, roundTripNanos));
+        }
+
+        System.out.println("second   ticks/s   target  max lag ms   reads/s  round trips/s  rtt us");
+        long totalTicks = 0, totalTrips = 0, totalTripNanos = 0, worstLag = 0;
+        long lastTicks = ticks(playing);
+        Thread.sleep(1000); // warm-up
+        lastTicks = ticks(playing);
+        reads.reset();
+        roundTrips.reset();
+        roundTripNanos.reset();
+        for (PacmanSession session : playing) {
+            session.resetMaxLag();
+        }
+        for (int s = 1; s <= seconds; s++) {
+            Thread.sleep(1000);
+            long ticks = ticks(playing);
+            long lag = 0;
+            for (PacmanSession session : playing) {
+                lag = Math.max(lag, session.getMaxLagNanos());
+                session.resetMaxLag();
+            }
+            long trips = roundTrips.sumThenReset();
+            long tripNanos = roundTripNanos.sumThenReset();
+            System.out.printf(Locale.ROOT, "%6d %9d %8d %12.1f %9d %14d %7.0f%n", s, ticks - lastTicks,
+                    (long) active * PacmanSession.TICKS_PER_SECOND, lag / 1e6, reads.sumThenReset(), trips,
+                    trips == 0 ? 0 : tripNanos / 1e3 / trips);
+            totalTicks += ticks - lastTicks;
+            totalTrips += trips;
+            totalTripNanos += tripNanos;
+            worstLag = Math.max(worstLag, lag);
+            lastTicks = ticks;
+        }
+        running = false;
+        double rate = (double) totalTicks / seconds;
+        double target = (double) active * PacmanSession.TICKS_PER_SECOND;
+        System.out.printf(Locale.ROOT, "total: %.0f ticks/s = %.1f%% of target, worst lag %.1f ms, %.0f round trips/s (%.0f us)%n",
+                rate, 100 * rate / target, worstLag / 1e6, (double) totalTrips / seconds,
+                totalTrips == 0 ? 0 : totalTripNanos / 1e3 / totalTrips);
+        server.close();
+        manager.closeAll();
+        driver.join();
+        reader.join();
+    }
+
+    private static long ticks(PacmanSession[] sessions) {
+        long ticks = 0;
+        for (PacmanSession session : sessions) {
+            ticks += session.getTicks();
+        }
+        return ticks;
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    // A random arrow key per game, once a second
+    private static void drive(PacmanSession[] sessions) {
+        Random random = new Random(2);
+        int[] held = new int[sessions.length];
+        while (running) {
+            for (int i = 0; i < sessions.length; i++) {
+                sessions[i].release(held[i]);
+                held[i] = random.nextInt(4);
+                sessions[i].press(held[i]);
+            }
+            sleep(1000);
+        }
+    }
+
+    // Like a renderer or network fan-out: the latest state of every game, as fast as it comes
+    private static void read(PacmanSession[] sessions, LongAdder reads) {
+        long score = 0;
+        while (running) {
+            for (PacmanSession session : sessions) {
+                score += session.state().score;
+            }
+            reads.add(sessions.length);
+            sleep(20);
+        }
+        if (score == 42) {
+            System.out.println(); // keeps the reads from being optimised away
+        }
+    }
+
+    private static void client(int port, int id, LongAdder roundTrips, LongAdder roundTripNanos) {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+             Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII)) {
+            socket.setTcpNoDelay(true);
+            out.write("JOIN " + id + "\n");
+            out.flush();
+            if (!"OK".equals(in.readLine())) {
+                throw new IOException("JOIN " + id + " failed");
+            }
+            while (running) {
+                long start = System.nanoTime();
+                out.write("STATE\n");
+                out.flush();
+                String reply = in.readLine();
+                if (reply == null || !reply.startsWith("STATE ")) {
+                    throw new IOException("bad reply: " + reply);
+                }
+                roundTripNanos.add(System.nanoTime() - start);
+                roundTrips.increment();
+            }
+            out.write("QUIT\n");
+            out.flush();
+        } catch (IOException e) {
+            if (running) {
+                System.err.println("client " + id + ": " + e);
+            }
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
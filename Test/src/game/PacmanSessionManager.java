@@ -0,0 +1,64 @@
+package game;
+
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Hosts many PacmanSessions in one JVM, each on its own virtual thread, so thousands of mostly parked
+// sessions cost memory rather than platform threads. Every session plays the same layout: the manager
+// generates the maze once, each session gets its own copy of it (walls, pellets and energizers are a few
+// hundred bytes of bitsets) and they all share the read-only scatter flow fields. What remains per
+// session is the game state and its chase/flee fields. Safe to use from any thread.
+public final class PacmanSessionManager {
+    private final PacmanMaze layout;
+    private final PacmanFlowField[] scatter;
+    private final int ghosts;
+    private final long seed;
+    private final ConcurrentHashMap<Integer, PacmanSession> sessions = new ConcurrentHashMap<>();
+    private final AtomicInteger nextId = new AtomicInteger(1);
+
+    public PacmanSessionManager(int width, int height, int ghosts, long seed) {
+        layout = PacmanMaze.generate(width, height, 0.15, seed);
+        scatter = PacmanFlowFields.scatterFields(layout, layout.corners());
+        this.ghosts = ghosts;
+        this.seed = seed;
+    }
+
+    // A new idle session; it starts ticking once a client attaches
+    public PacmanSession create() {
+        int id = nextId.getAndIncrement();
+        PacmanWorld world = new PacmanWorld(layout.copy(), ghosts, new Random(seed + id), scatter, false);
+        PacmanSession session = new PacmanSession(id, world);
+        sessions.put(id, session);
+        session.start();
+        return session;
+    }
+
+    // null if there is no such session (or it was closed)
+    public PacmanSession get(int id) {
+        return sessions.get(id);
+    }
+
+    public boolean close(int id) {
+        PacmanSession session = sessions.remove(id);
+        if (session == null) {
+            return false;
+        }
+        session.close();
+        return true;
+    }
+
+    public void closeAll() {
+        for (Integer id : sessions.keySet()) {
+            close(id);
+        }
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    public Iterable<PacmanSession> sessions() {
+        return sessions.values();
+    }
+}
@@ -0,0 +1,307 @@
+package game;
+
+import java.util.Random;
+
+// Pac-Man game state and rules without any Swing, shared by PacmanGame (one window) and
+// PacmanSession (many games in one JVM). One tick() moves Pac-Man, eats what it lands on, updates the
+// scatter/chase/frightened modes and moves each ghost along its flow field, checking collisions on the
+// way. Call it from one thread at a time; snapshot() returns an immutable copy for other threads.
+public class PacmanWorld {
+    static final int SCATTER_TICKS = 350, CHASE_TICKS = 1000, FRIGHTENED_TICKS = 300; // at 50 ticks/s
+
+    private final PacmanMaze maze;
+    private final PacmanFlowFields fields;
+    private final Pacman pacman;
+    private final Ghost[] ghosts;
+    private boolean gameOver;
+    private boolean won;
+    private int score;
+    private long tick;
+    private int modeTicks;
+    private int frightenedTicks;
+
+    // A new game on `maze` (which it then owns), with its own scatter fields
+    public PacmanWorld(PacmanMaze maze, int ghostCount, Random random, boolean flowThread) {
+        this(maze, ghostCount, random, PacmanFlowFields.scatterFields(maze, maze.corners()), flowThread);
+    }
+
+    // `scatter` from PacmanFlowFields.scatterFields() on a maze with the same walls; it is only read
+    public PacmanWorld(PacmanMaze maze, int ghostCount, Random random, PacmanFlowField[] scatter, boolean flowThread) {
+        this.maze = maze;
+        int start = maze.firstOpen(maze.getWidth() / 2, maze.getHeight() * 3 / 4);
+        pacman = new Pacman(start % maze.getWidth() * PacmanMaze.TILE, start / maze.getWidth() * PacmanMaze.TILE);
+        // Ghosts start spread over the upper half of the maze
+        ghosts = new Ghost[ghostCount];
+        for (int i = 0; i < ghosts.length; i++) {
+            int tile = maze.firstOpen(random.nextInt(maze.getWidth()), random.nextInt(maze.getHeight() / 2));
+            ghosts[i] = new Ghost(tile % maze.getWidth() * PacmanMaze.TILE, tile / maze.getWidth() * PacmanMaze.TILE, random);
+        }
+        fields = new PacmanFlowFields(maze, scatter, pacman.tile(maze), flowThread);
+    }
+
+    public void tick() {
+        if (!gameOver) {
+            pacman.move(maze);
+            if (pacman.isAligned()) {
+                if (maze.eatPellet(pacman.x / PacmanMaze.TILE, pacman.y / PacmanMaze.TILE)) {
+                    score += 10;
+                    if (maze.getPelletCount() == 0) {
+                        gameOver = true;
+                        won = true;
+                    }
+                }
+                if (maze.eatEnergizer(pacman.tile(maze))) {
+                    score += 50;
+                    frightenedTicks = FRIGHTENED_TICKS;
+                    for (Ghost ghost : ghosts) {
+                        ghost.frightened = true;
+                    }
+                }
+            }
+            if (frightenedTicks > 0 && --frightenedTicks == 0) {
+                for (Ghost ghost : ghosts) {
+                    ghost.frightened = false;
+                }
+            }
+
+            // The chase/flee fields only change when Pac-Man's tile does
+            fields.update(pacman.tile(maze));
+            PacmanFlowFields.Layer layer = fields.current();
+            boolean scatter = modeTicks++ % (SCATTER_TICKS + CHASE_TICKS) < SCATTER_TICKS;
+            for (int i = 0; i < ghosts.length; i++) {
+                Ghost ghost = ghosts[i];
+                ghost.move(maze, ghost.frightened ? layer.flee() : scatter ? fields.scatter(i) : layer.chase);
+
+                // Check collision along both paths this tick, so a faster tick step cannot pass through
+                if (SweptCollision.hits(pacman.x, pacman.y, Pacman.SIZE, Pacman.SIZE,
+                        pacman.x - pacman.previousX, pacman.y - pacman.previousY,
+                        ghost.x, ghost.y, Ghost.SIZE, Ghost.SIZE, ghost.x - ghost.previousX, ghost.y - ghost.previousY)) {
+                    if (ghost.frightened) {
+                        score += 200;
+                        ghost.respawn();
+                    } else {
+                        gameOver = true;
+                    }
+                }
+            }
+            tick++;
+        }
+    }
+
+    // Arrow key held down / let go (PacmanMaze directions)
+    public void setDesired(int direction) {
+        pacman.setDesired(direction);
+    }
+
+    public void release(int direction) {
+        pacman.release(direction);
+    }
+
+    public PacmanMaze maze() {
+        return maze;
+    }
+
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    public boolean isWon() {
+        return won;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    public int getGhostCount() {
+        return ghosts.length;
+    }
+
+    // Stops the flow field thread, if there is one
+    public void stop() {
+        fields.stop();
+    }
+
+    public Snapshot snapshot() {
+        return new Snapshot(this);
+    }
+
+    // Positions before and after the last tick, for interpolation, and the remaining pellets
+    public static final class Snapshot {
+        final int pacmanFromX, pacmanFromY, pacmanX, pacmanY;
+        final int[] ghostFromX, ghostFromY, ghostX, ghostY;
+        final boolean[] ghostFrightened;
+        final long[] pellets;
+        final long[] energizers;
+        final int mazeWidth;
+        final int score;
+        final boolean gameOver;
+        final boolean won;
+        final long tick;
+
+        Snapshot(PacmanWorld world) {
+            Pacman pacman = world.pacman;
+            pacmanFromX = pacman.previousX;
+            pacmanFromY = pacman.previousY;
+            pacmanX = pacman.x;
+            pacmanY = pacman.y;
+            int n = world.ghosts.length;
+            ghostFromX = new int[n];
+            ghostFromY = new int[n];
+            ghostX = new int[n];
+            ghostY = new int[n];
+            ghostFrightened = new boolean[n];
+            for (int i = 0; i < n; i++) {
+                Ghost ghost = world.ghosts[i];
+                ghostFromX[i] = ghost.previousX;
+                ghostFromY[i] = ghost.previousY;
+                ghostX[i] = ghost.x;
+                ghostY[i] = ghost.y;
+                ghostFrightened[i] = ghost.frightened;
+            }
+            pellets = world.maze.copyPellets();
+            energizers = world.maze.copyEnergizers();
+            mazeWidth = world.maze.getWidth();
+            score = world.score;
+            gameOver = world.gameOver;
+            won = world.won;
+            tick = world.tick;
+        }
+    }
+
+    // Moves tile to tile: turns and stops are only decided on tile boundaries, where the wanted
+    // direction (held arrow key) is taken if open; releasing the key stops at the next tile.
+    static class Pacman {
+        private int x, y;
+        private int previousX, previousY;
+        private int direction = -1, desired = -1;
+        static final int SIZE = PacmanMaze.TILE;
+        private static final int SPEED = 5; // divides TILE
+
+        public Pacman(int x, int y) {
+            this.x = x;
+            this.y = y;
+        }
+
+        public void move(PacmanMaze maze) {
+            previousX = x;
+            previousY = y;
+            if (isAligned()) {
+                int tx = x / PacmanMaze.TILE, ty = y / PacmanMaze.TILE;
+                if (desired < 0) {
+                    direction = -1;
+                } else if (!maze.isWall(tx + PacmanMaze.dx(desired), ty + PacmanMaze.dy(desired))) {
+                    direction = desired;
+                } else if (direction >= 0 && maze.isWall(tx + PacmanMaze.dx(direction), ty + PacmanMaze.dy(direction))) {
+                    direction = -1;
+                }
+            }
+            if (direction >= 0) {
+                x += PacmanMaze.dx(direction) * SPEED;
+                y += PacmanMaze.dy(direction) * SPEED;
+            }
+        }
+
+        public boolean isAligned() {
+            return x % PacmanMaze.TILE == 0 && y % PacmanMaze.TILE == 0;
+        }
+
+        // Tile under Pac-Man's centre
+        public int tile(PacmanMaze maze) {
+            return maze.index((x + SIZE / 2) / PacmanMaze.TILE, (y + SIZE / 2) / PacmanMaze.TILE);
+        }
+
+        public void setDesired(int direction) {
+            desired = direction;
+        }
+
+        public void release(int direction) {
+            if (desired == direction) {
+                desired = -1;
+            }
+        }
+    }
+
+    // Follows a flow field one tile at a time (an O(1) lookup per tile), or chases a target tile along
+    // its own cached A* path. One turn in WANDER at a tile boundary is a random open direction instead,
+    // so a pack of ghosts does not collapse onto a single path. Frightened ghosts move at half speed.
+    static class Ghost {
+        private int x, y;
+        private int previousX, previousY;
+        private final int spawnX, spawnY;
+        private int dx, dy;
+        private int speed;
+        private boolean frightened;
+        static final int SIZE = PacmanMaze.TILE;
+        private static final int SPEED = 4; // divides TILE, a little slower than Pac-Man
+        private static final int FRIGHTENED_SPEED = 2;
+        private static final int WANDER = 8;
+        private final Random random;
+        private final PacmanPathfinder.Path path = new PacmanPathfinder.Path();
+
+        public Ghost(int x, int y, Random random) {
+            this.x = spawnX = x;
+            this.y = spawnY = y;
+            this.random = random;
+        }
+
+        public void move(PacmanMaze maze, PacmanFlowField field) {
+            previousX = x;
+            previousY = y;
+            if (isAligned()) {
+                int tx = x / PacmanMaze.TILE, ty = y / PacmanMaze.TILE;
+                int d = random.nextInt(WANDER) == 0 ? random.nextInt(4) : field.direction(maze.index(tx, ty));
+                turn(maze, tx, ty, d);
+            }
+            x += dx * speed;
+            y += dy * speed;
+        }
+
+        public void move(PacmanMaze maze, PacmanPathfinder pathfinder, int target) {
+            previousX = x;
+            previousY = y;
+            if (isAligned()) {
+                int tx = x / PacmanMaze.TILE, ty = y / PacmanMaze.TILE;
+                int d = random.nextInt(4);
+                if (random.nextInt(WANDER) != 0) {
+                    int next = path.next(pathfinder, maze.index(tx, ty), target);
+                    d = next < 0 || next == maze.index(tx, ty) ? -1
+                            : next == maze.index(tx, ty - 1) ? 0 : next == maze.index(tx - 1, ty) ? 1
+                            : next == maze.index(tx, ty + 1) ? 2 : 3;
+                }
+                turn(maze, tx, ty, d);
+            }
+            x += dx * speed;
+            y += dy * speed;
+        }
+
+        // Only on tile boundaries, so a speed change can never skip over the next boundary
+        private void turn(PacmanMaze maze, int tx, int ty, int direction) {
+            speed = frightened ? FRIGHTENED_SPEED : SPEED;
+            if (direction >= 0 && !maze.isWall(tx + PacmanMaze.dx(direction), ty + PacmanMaze.dy(direction))) {
+                dx = PacmanMaze.dx(direction);
+                dy = PacmanMaze.dy(direction);
+            } else {
+                dx = 0;
+                dy = 0;
+            }
+        }
+
+        private boolean isAligned() {
+            return x % PacmanMaze.TILE == 0 && y % PacmanMaze.TILE == 0;
+        }
+
+        // Eaten while frightened: back to the start, chasing again
+        public void respawn() {
+            x = previousX = spawnX;
+            y = previousY = spawnY;
+            dx = 0;
+            dy = 0;
+            frightened = false;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package game;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Achieved frame rate and present latency of one render path, so the Swing (repaint/paintComponent)
+// and active (BufferStrategy) backends can be compared on the same game.
+// Present latency is the time from the first frame request after the previous present to the end of
+// presenting the next frame; coalesced requests count from the earliest one. For the Swing path the
+// frame counts as presented when paintComponent returns, just before Swing copies its back buffer.
+// Figures are recomputed once a second and printed there when -Dgame.renderStats=true.
+public final class RenderStats {
+    private static final long WINDOW_NANOS = 1_000_000_000L;
+    private static final boolean LOG = Boolean.getBoolean("game.renderStats");
+
+    private final String name;
+    private final AtomicLong requestedAt = new AtomicLong();
+
+    // Touched only by the presenting thread
+    private long windowStart = System.nanoTime();
+    private int frames;
+    private int samples;
+    private long latencySum;
+    private long latencyMax;
+
+    private volatile double fps;
+    private volatile double averageLatencyMillis;
+    private volatile double maxLatencyMillis;
+
+    public RenderStats(String name) {
+        this.name = name;
+    }
+
+    // Any thread: a new frame is wanted
+    public void requested() {
+        requestedAt.compareAndSet(0, System.nanoTime());
+    }
+
+    // Presenting thread: a frame has been shown
+    public void presented() {
+        long now = System.nanoTime();
+        long requested = requestedAt.getAndSet(0);
+        frames++;
+        if (requested != 0) {
+            long latency = now - requested;
+            samples++;
+            latencySum += latency;
+            latencyMax = Math.max(latencyMax, latency);
+        }
+        long elapsed = now - windowStart;
+        if (elapsed >= WINDOW_NANOS) {
+            fps = frames * 1e9 / elapsed;
+            averageLatencyMillis = samples == 0 ? 0 : latencySum / 1e6 / samples;
+            maxLatencyMillis = latencyMax / 1e6;
+            windowStart = now;
+            frames = 0;
+            samples = 0;
+            latencySum = 0;
+            latencyMax = 0;
+            if (LOG) {
+                System.out.println(this);
+            }
+        }
+    }
+
+    public double getFps() {
+        return fps;
+    }
+
+    public double getAverageLatencyMillis() {
+        return averageLatencyMillis;
+    }
+
+    public double getMaxLatencyMillis() {
+        return maxLatencyMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%s: %.1f fps, present latency avg %.2f ms, max %.2f ms",
+                name, fps, averageLatencyMillis, maxLatencyMillis);
+    }
+}
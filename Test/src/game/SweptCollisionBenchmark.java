@@ -0,0 +1,51 @@
+package game;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.Random;
+
+// Times SweptCollision, the continuous collision test GalaxyWorld and PacmanWorld use: ns per test
+// and bytes allocated (should be 0) for boxes moving up to `maxSpeed` px per tick. The no-tunneling
+// and brute-force checks are in test/game/SweptCollisionTest and run with the Maven build.
+//
+// usage: SweptCollisionBenchmark [maxSpeed] [seed]
+public class SweptCollisionBenchmark {
+
+    public static void main(String[] args) {
+        int maxSpeed = args.length > 0 ? Integer.parseInt(args[0]) : 400;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 1;
+
+        Random random = new Random(seed);
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        int[] values = new int[1 << 16];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextInt(2 * maxSpeed + 1) - maxSpeed;
+        }
+        int hits = 0;
+        for (int warmup = 0; warmup < 3; warmup++) {
+            hits += run(values, 2_000_000);
+        }
+        long allocated = threadBean.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        int calls = 20_000_000;
+        hits += run(values, calls);
+        long nanos = System.nanoTime() - start;
+        allocated = threadBean.getCurrentThreadAllocatedBytes() - allocated;
+        System.out.printf(Locale.ROOT, "%.1f ns per swept test, %d bytes allocated over %d tests (%d hits)%n",
+                (double) nanos / calls, allocated, calls, hits);
+    }
+
+    private static int run(int[] values, int calls) {
+        int hits = 0;
+        int mask = values.length - 1;
+        for (int i = 0; i < calls; i++) {
+            int k = i * 7;
+            if (SweptCollision.hits(400, 300, 40, 40, values[k & mask], values[(k + 1) & mask],
+                    400 + values[(k + 2) & mask], 300 + values[(k + 3) & mask], 5, 10,
+                    values[(k + 4) & mask], values[(k + 5) & mask])) {
+                hits++;
+            }
+        }
+        return hits;
+    }
+}
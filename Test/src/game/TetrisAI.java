@@ -0,0 +1,156 @@
+package game;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+
+// Parallel autoplayer: the rotation x column candidates of the current piece (each scored with a
+// one-piece lookahead) are split across a ForkJoinPool. Workers read one immutable snapshot of the
+// board and write only to their own TetrisSearcher scratch boards. Ties resolve to the lowest
+// candidate index, so the chosen placement does not depend on the number of threads.
+public class TetrisAI {
+    private static final int SPLIT_THRESHOLD = 2;
+
+    private final ForkJoinPool pool;
+    private final int width;
+    private final boolean lookahead;
+    private final ThreadLocal<TetrisSearcher> searchers;
+    private final LongAdder evaluated = new LongAdder();
+    private volatile TetrisHeuristic heuristic;
+
+    public TetrisAI(ForkJoinPool pool, int width, int height, TetrisHeuristic heuristic, boolean lookahead) {
+        this.pool = pool;
+        this.width = width;
+        this.heuristic = heuristic;
+        this.lookahead = lookahead;
+        this.searchers = ThreadLocal.withInitial(() -> new TetrisSearcher(width, height, this.heuristic));
+    }
+
+    public void setHeuristic(TetrisHeuristic heuristic) {
+        this.heuristic = heuristic;
+    }
+
+    // Total boards scored by all workers
+    public long getEvaluated() {
+        return evaluated.sum();
+    }
+
+    // Snapshots the engine's board and current/next piece on the calling thread, then searches on the pool.
+    public CompletableFuture<Integer> searchAsync(TetrisEngine engine) {
+        TetrisBoard snapshot = engine.getBoard().copy();
+        int piece = engine.getPiece();
+        int next = engine.getNextPiece();
+        int y = engine.getPieceY();
+        return CompletableFuture.supplyAsync(() -> searchSnapshot(snapshot, piece, next, y), pool);
+    }
+
+    // Best placement (see TetrisSearcher.placement) or TetrisSearcher.NONE.
+    public int search(TetrisBoard board, int piece, int nextPiece, int y) {
+        return searchSnapshot(board.copy(), piece, nextPiece, y);
+    }
+
+    private int searchSnapshot(TetrisBoard snapshot, int piece, int nextPiece, int y) {
+        int[] candidates = new int[TetrominoTable.ROTATIONS * width];
+        int count = 0;
+        int rotations = piece == TetrominoTable.O ? 1 : TetrominoTable.ROTATIONS;
+        for (int rotation = 0; rotation < rotations; rotation++) {
+            int shape = TetrominoTable.shape(piece, rotation);
+            for (int x = -TetrominoTable.minCol(shape); x + TetrominoTable.maxCol(shape) < width; x++) {
+                if (TetrominoTable.fits(snapshot, shape, x, TetrominoTable.entryY(shape, y))) {
+                    candidates[count++] = TetrisSearcher.placement(rotation, x);
+                }
+            }
+        }
+        if (count == 0) {
+            return TetrisSearcher.NONE;
+        }
+        SearchTask task = new SearchTask(snapshot, piece, nextPiece, y, candidates, 0, count);
+        return pool.invoke(task).placement;
+    }
+
+    private static final class Best {
+        final int placement;
+        final double score;
+
+        Best(int placement, double score) {
+            this.placement = placement;
+            this.score = score;
+        }
+    }
+
+    private final class SearchTask extends RecursiveTask<Best> {
+        private final TetrisBoard board;
+        private final int piece;
+        private final int nextPiece;
+        private final int y;
+        private final int[] candidates;
+        private final int from;
+        private final int to;
+
+        SearchTask(TetrisBoard board, int piece, int nextPiece, int y, int[] candidates, int from, int to) {
+            this.board = board;
+            this.piece = piece;
+            this.nextPiece = nextPiece;
+            this.y = y;
+            this.candidates = candidates;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Best compute() {
+            if (to - from <= SPLIT_THRESHOLD) {
+                TetrisSearcher searcher = searchers.get();
+                searcher.setHeuristic(heuristic);
+                long before = searcher.getEvaluated();
+                int best = TetrisSearcher.NONE;
+                double bestScore = Double.NEGATIVE_INFINITY;
+                for (int i = from; i < to; i++) {
+                    int placement = candidates[i];
+                    double score = searcher.score(board, piece, TetrisSearcher.rotationOf(placement),
+                            TetrisSearcher.xOf(placement), y, nextPiece, lookahead);
+                    if (best == TetrisSearcher.NONE || score > bestScore) {
+                        best = placement;
+                        bestScore = score;
+                    }
+                }
+                evaluated.add(searcher.getEvaluated() - before);
+                return new Best(best, bestScore);
+            }
+            int mid = (from + to) >>> 1;
+            SearchTask left = new SearchTask(board, piece, nextPiece, y, candidates, from, mid);
+            SearchTask right = new SearchTask(board, piece, nextPiece, y, candidates, mid, to);
+            right.fork();
+            Best l = left.compute();
+            Best r = right.join();
+            return r.score > l.score ? r : l;
+        }
+    }
+
+    // Placements/second scaling report: plays AI games with 1..N worker threads.
+    public static void main(String[] args) {
+        int decisions = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        System.out.println("threads  placements/s  decisions/s");
+        for (int threads = 1; threads <= maxThreads; threads++) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            TetrisAI ai = new TetrisAI(pool, 10, 20, TetrisHeuristic.DEFAULT, true);
+            TetrisEngine engine = new TetrisEngine(10, 20, 42);
+            long start = System.nanoTime();
+            for (int i = 0; i < decisions; i++) {
+                if (engine.isGameOver()) {
+                    engine.reset(i);
+                }
+                int placement = ai.search(engine.getBoard(), engine.getPiece(), engine.getNextPiece(), engine.getPieceY());
+                if (placement == TetrisSearcher.NONE
+                        || !engine.drop(TetrisSearcher.rotationOf(placement), TetrisSearcher.xOf(placement))) {
+                    engine.apply(TetrisEngine.Input.HARD_DROP);
+                }
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%7d  %12.0f  %11.0f%n", threads, ai.getEvaluated() / seconds, decisions / seconds);
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,341 @@
+package game;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// Bitboard for the Tetris well.
+// Every row is packed into 64-bit words (one bit per cell, bit i = column i) and the
+// color index of a locked cell is kept in separate bit-planes, so collision tests,
+// placement and line clears are word-wide AND/OR operations instead of per-cell lookups.
+// A per-row fill counter makes the full-row test O(1), and clearLines() only looks at the
+// rows touched since the last clear and only moves the rows between the stack top and the
+// lowest cleared row.
+public class TetrisBoard {
+    static final int COLOR_PLANES = 3; // 3 planes -> color index 0..7
+
+    private final int width;
+    private final int height;
+    private final int words;           // longs per row
+    private final long[] cells;        // occupancy, row-major, `words` longs per row
+    private final long[][] planes;     // color bit-planes, same layout as `cells`
+    private final int[] fill;          // occupied cells per row
+    private int top;                   // highest non-empty row, `height` when the board is empty
+    private int touchedMin;            // rows written by place() since the last clearLines()
+    private int touchedMax;
+    private int dirtyMin;              // rows changed since the last markClean(), for views
+    private int dirtyMax;
+
+    public TetrisBoard(int width, int height) {
+        if (width < 1 || height < 1) {
+            throw new IllegalArgumentException("Board must be at least 1x1: " + width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+        this.words = (width + 63) >>> 6;
+        this.cells = new long[height * words];
+        this.planes = new long[COLOR_PLANES][height * words];
+        this.fill = new int[height];
+        this.top = height;
+        this.touchedMin = height;
+        this.touchedMax = -1;
+        this.dirtyMin = height;
+        this.dirtyMax = -1;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    // Number of 64-bit words per row
+    public int getWords() {
+        return words;
+    }
+
+    // Highest non-empty row; getHeight() when the board is empty
+    public int getTop() {
+        return top;
+    }
+
+    // First and last row whose cells changed since the last markClean(); min > max when nothing changed
+    public int getDirtyMin() {
+        return dirtyMin;
+    }
+
+    public int getDirtyMax() {
+        return dirtyMax;
+    }
+
+    public void markClean() {
+        dirtyMin = height;
+        dirtyMax = -1;
+    }
+
+    // Raw occupancy word `index` of a row; bit i = column index * 64 + i
+    public long word(int row, int index) {
+        return cells[row * words + index];
+    }
+
+    public TetrisBoard copy() {
+        TetrisBoard copy = new TetrisBoard(width, height);
+        copy.copyFrom(this);
+        return copy;
+    }
+
+    // Rows above both stacks are empty on both sides, so only the rows from there down are copied
+    public void copyFrom(TetrisBoard other) {
+        if (other.width != width || other.height != height) {
+            throw new IllegalArgumentException("Board size mismatch: " + other.width + "x" + other.height
+                    + " into " + width + "x" + height);
+        }
+        int from = Math.min(top, other.top);
+        int offset = from * words;
+        int length = cells.length - offset;
+        System.arraycopy(other.cells, offset, cells, offset, length);
+        for (int p = 0; p < COLOR_PLANES; p++) {
+            System.arraycopy(other.planes[p], offset, planes[p], offset, length);
+        }
+        System.arraycopy(other.fill, from, fill, from, height - from);
+        top = other.top;
+        touchedMin = other.touchedMin;
+        touchedMax = other.touchedMax;
+        markDirty(from, height - 1);
+    }
+
+    // Serializes the non-empty rows (occupancy and color planes) for replay snapshots.
+    // Must be called between placements, i.e. with no line clear pending.
+    public void write(ByteBuffer out) {
+        out.putInt(top);
+        int from = top * words;
+        for (int i = from; i < cells.length; i++) {
+            out.putLong(cells[i]);
+        }
+        for (long[] plane : planes) {
+            for (int i = from; i < plane.length; i++) {
+                out.putLong(plane[i]);
+            }
+        }
+    }
+
+    public void read(ByteBuffer in) {
+        int newTop = in.getInt();
+        if (newTop < 0 || newTop > height) {
+            throw new IllegalArgumentException("Corrupt board snapshot, top row " + newTop);
+        }
+        clear();
+        int from = newTop * words;
+        for (int i = from; i < cells.length; i++) {
+            cells[i] = in.getLong();
+        }
+        for (long[] plane : planes) {
+            for (int i = from; i < plane.length; i++) {
+                plane[i] = in.getLong();
+            }
+        }
+        for (int row = newTop; row < height; row++) {
+            int count = 0;
+            for (int w = 0; w < words; w++) {
+                count += Long.bitCount(cells[row * words + w]);
+            }
+            fill[row] = count;
+        }
+        top = newTop;
+        markDirty(0, height - 1);
+    }
+
+    // Upper bound of write() output for this board size
+    public int maxSerializedSize() {
+        return serializedSize(0);
+    }
+
+    // Exact write() output size when the top occupied row is `top`
+    public int serializedSize(int top) {
+        return 4 + (cells.length - top * words) * 8 * (1 + COLOR_PLANES);
+    }
+
+    // rowMasks[i] holds the piece cells of row y + i, bit j = column x + j
+    public boolean fits(int[] rowMasks, int x, int y) {
+        return fits(rowMasks, 0, rowMasks.length, x, y);
+    }
+
+    public boolean fits(int[] rowMasks, int from, int rows, int x, int y) {
+        for (int i = 0; i < rows; i++) {
+            int mask = rowMasks[from + i];
+            if (mask == 0) {
+                continue;
+            }
+            int row = y + i;
+            if (row < 0 || row >= height) {
+                return false;
+            }
+            int first = x + Integer.numberOfTrailingZeros(mask);
+            int last = x + 31 - Integer.numberOfLeadingZeros(mask);
+            if (first < 0 || last >= width) {
+                return false;
+            }
+            if (row >= top && overlaps(cells, row, mask, x)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Locks the piece cells into the board; rows above the top edge are dropped.
+    public void place(int[] rowMasks, int x, int y, int color) {
+        place(rowMasks, 0, rowMasks.length, x, y, color);
+    }
+
+    public void place(int[] rowMasks, int from, int rows, int x, int y, int color) {
+        for (int i = 0; i < rows; i++) {
+            int mask = rowMasks[from + i];
+            int row = y + i;
+            if (mask == 0 || row < 0 || row >= height) {
+                continue;
+            }
+            fill[row] += or(cells, row, mask, x);
+            for (int p = 0; p < COLOR_PLANES; p++) {
+                if ((color >>> p & 1) != 0) {
+                    or(planes[p], row, mask, x);
+                }
+            }
+            top = Math.min(top, row);
+            touchedMin = Math.min(touchedMin, row);
+            touchedMax = Math.max(touchedMax, row);
+            markDirty(row, row);
+        }
+    }
+
+    // Removes the full rows among those touched since the last call and returns how many were cleared.
+    // A single bottom-up pass shifts each run of surviving rows down with one arraycopy; rows below
+    // the lowest cleared row and above the stack top are never touched.
+    public int clearLines() {
+        int lowest = -1;
+        for (int row = touchedMax; row >= touchedMin; row--) {
+            if (fill[row] == width) {
+                lowest = row;
+                break;
+            }
+        }
+        int min = touchedMin;
+        touchedMin = height;
+        touchedMax = -1;
+        if (lowest < 0) {
+            return 0;
+        }
+
+        int shift = 0;
+        int row = lowest;
+        while (row >= top) {
+            if (row >= min && fill[row] == width) {
+                shift++;
+                row--;
+                continue;
+            }
+            int bottom = row;
+            while (row >= top && !(row >= min && fill[row] == width)) {
+                row--;
+            }
+            moveRows(row + 1, row + 1 + shift, bottom - row);
+        }
+        clearRows(top, shift);
+        markDirty(top, lowest);
+        top += shift;
+        return shift;
+    }
+
+    public boolean isFull(int row) {
+        return fill[row] == width;
+    }
+
+    public boolean isOccupied(int row, int col) {
+        return (cells[row * words + (col >>> 6)] >>> col & 1L) != 0;
+    }
+
+    // Color index of a locked cell, or -1 if the cell is empty.
+    public int colorAt(int row, int col) {
+        int index = row * words + (col >>> 6);
+        if ((cells[index] >>> col & 1L) == 0) {
+            return -1;
+        }
+        int color = 0;
+        for (int p = 0; p < COLOR_PLANES; p++) {
+            color |= (int) (planes[p][index] >>> col & 1L) << p;
+        }
+        return color;
+    }
+
+    public int rowCount(int row) {
+        return fill[row];
+    }
+
+    public void clear() {
+        clearRows(top, height - top);
+        markDirty(top, height - 1);
+        top = height;
+        touchedMin = height;
+        touchedMax = -1;
+    }
+
+    private void markDirty(int from, int to) {
+        dirtyMin = Math.min(dirtyMin, from);
+        dirtyMax = Math.max(dirtyMax, to);
+    }
+
+    private boolean overlaps(long[] layer, int row, int mask, int x) {
+        long bits = mask & 0xFFFFFFFFL;
+        int start = x;
+        if (start < 0) {
+            bits >>>= -start;
+            start = 0;
+        }
+        int index = row * words + (start >>> 6);
+        int shift = start & 63;
+        if ((layer[index] & bits << shift) != 0) {
+            return true;
+        }
+        return shift != 0 && (start >>> 6) + 1 < words && (layer[index + 1] & bits >>> (64 - shift)) != 0;
+    }
+
+    // ORs the mask into a row and returns how many cells were newly set
+    private int or(long[] layer, int row, int mask, int x) {
+        long bits = mask & 0xFFFFFFFFL;
+        int start = x;
+        if (start < 0) {
+            bits >>>= -start;
+            start = 0;
+        }
+        int index = row * words + (start >>> 6);
+        int shift = start & 63;
+        long lo = bits << shift;
+        int added = Long.bitCount(lo & ~layer[index]);
+        layer[index] |= lo;
+        if (shift != 0 && (start >>> 6) + 1 < words) {
+            long hi = bits >>> (64 - shift);
+            added += Long.bitCount(hi & ~layer[index + 1]);
+            layer[index + 1] |= hi;
+        }
+        return added;
+    }
+
+    private void moveRows(int from, int to, int count) {
+        if (from == to || count <= 0) {
+            return;
+        }
+        System.arraycopy(cells, from * words, cells, to * words, count * words);
+        for (long[] plane : planes) {
+            System.arraycopy(plane, from * words, plane, to * words, count * words);
+        }
+        System.arraycopy(fill, from, fill, to, count);
+    }
+
+    private void clearRows(int from, int count) {
+        Arrays.fill(cells, from * words, (from + count) * words, 0L);
+        for (long[] plane : planes) {
+            Arrays.fill(plane, from * words, (from + count) * words, 0L);
+        }
+        Arrays.fill(fill, from, from + count, 0);
+    }
+}
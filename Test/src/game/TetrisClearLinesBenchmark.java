@@ -0,0 +1,147 @@
+package game;
+
+import java.util.Locale;
+
+// Microbenchmark: line clear on tall boards, the original int[][] scan-and-arraycopy clearLines()
+// against TetrisBoard's fill counters and touched-row compaction.
+// Each operation drops a vertical I into the gap of a half-height stack (clearing 4 rows) and then
+// rebuilds 4 gapped rows on top of the stack, so both boards stay in the same steady state.
+//
+// usage: TetrisClearLinesBenchmark [width] [heights...]
+public class TetrisClearLinesBenchmark {
+    private static final int WARMUP = 20_000;
+    private static final int MEASURE = 100_000;
+
+    public static void main(String[] args) {
+        int width = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        int[] heights = {20, 200, 1000};
+        if (args.length > 1) {
+            heights = new int[args.length - 1];
+            for (int i = 1; i < args.length; i++) {
+                heights[i - 1] = Integer.parseInt(args[i]);
+            }
+        }
+        // Let the JIT settle on both implementations before the first timed row
+        measure(new LegacyBoard(width, 20));
+        measure(new BitBoard(width, 20));
+        System.out.println("board        legacy ns/op  bitboard ns/op  speedup");
+        for (int height : heights) {
+            double legacy = measure(new LegacyBoard(width, height));
+            double bitboard = measure(new BitBoard(width, height));
+            System.out.printf(Locale.ROOT, "%4dx%-6d  %12.1f  %14.1f  %6.1fx%n",
+                    width, height, legacy, bitboard, legacy / bitboard);
+        }
+    }
+
+    private static double measure(Scenario scenario) {
+        long check = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            check += scenario.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURE; i++) {
+            check += scenario.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        if (check != 4L * (WARMUP + MEASURE)) {
+            throw new IllegalStateException("Unexpected number of cleared lines: " + check);
+        }
+        return (double) elapsed / MEASURE;
+    }
+
+    interface Scenario {
+        // Drops the I, clears lines, refills the stack; returns the lines cleared
+        int run();
+    }
+
+    // The pre-bitboard TetrisGame storage and clearLines(), verbatim apart from 0 meaning empty
+    static final class LegacyBoard implements Scenario {
+        private final int width;
+        private final int height;
+        private final int[][] board;
+        private final int gap;
+
+        LegacyBoard(int width, int height) {
+            this.width = width;
+            this.height = height;
+            this.board = new int[height][width];
+            this.gap = width - 1;
+            for (int row = height / 2; row < height; row++) {
+                fillGapped(row);
+            }
+        }
+
+        private void fillGapped(int row) {
+            for (int col = 0; col < width; col++) {
+                board[row][col] = col == gap ? 0 : 1;
+            }
+        }
+
+        @Override
+        public int run() {
+            for (int i = 0; i < 4; i++) {
+                board[height - 1 - i][gap] = 1;
+            }
+            int cleared = clearLines();
+            for (int row = height / 2; row < height / 2 + 4; row++) {
+                fillGapped(row);
+            }
+            return cleared;
+        }
+
+        private int clearLines() {
+            int cleared = 0;
+            for (int row = height - 1; row >= 0; row--) {
+                boolean fullLine = true;
+                for (int col : board[row]) {
+                    if (col == 0) {
+                        fullLine = false;
+                        break;
+                    }
+                }
+                if (fullLine) {
+                    for (int r = row; r > 0; r--) {
+                        System.arraycopy(board[r - 1], 0, board[r], 0, width);
+                    }
+                    cleared++;
+                    row++; // Check the same line again
+                }
+            }
+            return cleared;
+        }
+    }
+
+    static final class BitBoard implements Scenario {
+        private final int height;
+        private final TetrisBoard board;
+        private final int[] gapped;
+        private final int gap;
+        private final int shape = TetrominoTable.shape(TetrominoTable.I, 1);
+
+        BitBoard(int width, int height) {
+            if (width > 31) {
+                throw new IllegalArgumentException("Benchmark row masks support widths up to 31");
+            }
+            this.height = height;
+            this.board = new TetrisBoard(width, height);
+            this.gap = width - 1;
+            this.gapped = new int[] {(1 << gap) - 1};
+            for (int row = height / 2; row < height; row++) {
+                board.place(gapped, 0, row, 1);
+            }
+            board.clearLines();
+        }
+
+        @Override
+        public int run() {
+            // Vertical I occupies box column 2, rows 0..3
+            TetrominoTable.place(board, shape, gap - 2, height - 4, TetrominoTable.I);
+            int cleared = board.clearLines();
+            for (int row = height / 2; row < height / 2 + 4; row++) {
+                board.place(gapped, 0, row, 1);
+            }
+            board.clearLines(); // nothing is full, this only resets the touched range
+            return cleared;
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package game;
+
+import java.nio.ByteBuffer;
+
+// Headless, deterministic Tetris rules.
+// No AWT/Swing dependency: the Swing panels are thin views that forward key presses to
+// apply() and timer ticks to step(). Pieces come from a seeded SplitMix64 generator held in a
+// single long, so the same seed and input sequence always produce the same game.
+public class TetrisEngine {
+
+    public enum Input {
+        NONE, LEFT, RIGHT, SOFT_DROP, ROTATE_CW, ROTATE_CCW, HARD_DROP;
+
+        private static final Input[] VALUES = values();
+
+        public static Input of(int ordinal) {
+            return VALUES[ordinal];
+        }
+    }
+
+    private final TetrisBoard board;
+    private long seed;
+    private long rngState;
+    private int piece;
+    private int rotation;
+    private int pieceX;
+    private int pieceY;
+    private int nextPiece;
+    private boolean gameOver;
+    private long tick;
+    private int lines;
+    private int pieces;
+
+    public TetrisEngine(int width, int height, long seed) {
+        board = new TetrisBoard(width, height);
+        reset(seed);
+    }
+
+    public void reset(long seed) {
+        board.clear();
+        this.seed = seed;
+        rngState = seed;
+        gameOver = false;
+        tick = 0;
+        lines = 0;
+        pieces = 0;
+        nextPiece = nextRandomPiece();
+        spawn();
+    }
+
+    // One gravity tick: the input is applied first, then the piece falls one row or locks.
+    public void step(Input input) {
+        if (gameOver) {
+            return;
+        }
+        apply(input);
+        if (!gameOver && !move(0, 1)) {
+            lock();
+        }
+        tick++;
+    }
+
+    // Applies a player input immediately, without advancing the tick. Returns false if it had no effect.
+    public boolean apply(Input input) {
+        if (gameOver) {
+            return false;
+        }
+        switch (input) {
+            case LEFT:
+                return move(-1, 0);
+            case RIGHT:
+                return move(1, 0);
+            case SOFT_DROP:
+                return move(0, 1);
+            case ROTATE_CW:
+                return rotate(true);
+            case ROTATE_CCW:
+                return rotate(false);
+            case HARD_DROP:
+                while (move(0, 1)) {
+                    // fall until blocked
+                }
+                lock();
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    // Autoplayer shortcut: turns the piece to `rotation` at column `x` in its current row
+    // (moved down just enough to be on the board) and hard-drops it.
+    public boolean drop(int rotation, int x) {
+        int shape = TetrominoTable.shape(piece, rotation);
+        int y = TetrominoTable.entryY(shape, pieceY);
+        if (gameOver || !fits(shape, x, y)) {
+            return false;
+        }
+        this.rotation = rotation;
+        pieceX = x;
+        pieceY = y;
+        return apply(Input.HARD_DROP);
+    }
+
+    public boolean fits(int shape, int x, int y) {
+        return TetrominoTable.fits(board, shape, x, y);
+    }
+
+    private boolean move(int dx, int dy) {
+        if (fits(TetrominoTable.shape(piece, rotation), pieceX + dx, pieceY + dy)) {
+            pieceX += dx;
+            pieceY += dy;
+            return true;
+        }
+        return false;
+    }
+
+    private boolean rotate(boolean clockwise) {
+        int to = TetrominoTable.rotate(rotation, clockwise);
+        int shape = TetrominoTable.shape(piece, to);
+        for (int test = 0; test < TetrominoTable.KICKS; test++) {
+            int x = pieceX + TetrominoTable.kickX(piece, rotation, clockwise, test);
+            int y = pieceY + TetrominoTable.kickY(piece, rotation, clockwise, test);
+            if (fits(shape, x, y)) {
+                rotation = to;
+                pieceX = x;
+                pieceY = y;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void lock() {
+        TetrominoTable.place(board, TetrominoTable.shape(piece, rotation), pieceX, pieceY, piece);
+        lines += board.clearLines();
+        pieces++;
+        spawn();
+    }
+
+    private void spawn() {
+        piece = nextPiece;
+        nextPiece = nextRandomPiece();
+        rotation = 0;
+        pieceX = TetrominoTable.spawnX(piece, board.getWidth());
+        pieceY = TetrominoTable.spawnY(piece);
+        if (!fits(TetrominoTable.shape(piece, rotation), pieceX, pieceY)) {
+            gameOver = true;
+        }
+    }
+
+    private int nextRandomPiece() {
+        // SplitMix64
+        long z = (rngState += 0x9E3779B97F4A7C15L);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z = z ^ (z >>> 31);
+        return (int) (((z >>> 32) * TetrominoTable.PIECES) >>> 32);
+    }
+
+    static final int STATE_FIELDS_SIZE = 44; // everything writeState() puts before the board
+
+    // Full engine state for replay snapshots; readState() restores it exactly, RNG included
+    public void writeState(ByteBuffer out) {
+        out.putLong(seed);
+        out.putLong(rngState);
+        out.put((byte) piece);
+        out.put((byte) rotation);
+        out.putInt(pieceX);
+        out.putInt(pieceY);
+        out.put((byte) nextPiece);
+        out.put((byte) (gameOver ? 1 : 0));
+        out.putLong(tick);
+        out.putInt(lines);
+        out.putInt(pieces);
+        board.write(out);
+    }
+
+    public void readState(ByteBuffer in) {
+        seed = in.getLong();
+        rngState = in.getLong();
+        piece = in.get();
+        rotation = in.get();
+        pieceX = in.getInt();
+        pieceY = in.getInt();
+        nextPiece = in.get();
+        gameOver = in.get() != 0;
+        tick = in.getLong();
+        lines = in.getInt();
+        pieces = in.getInt();
+        board.read(in);
+    }
+
+    public int maxStateSize() {
+        return STATE_FIELDS_SIZE + board.maxSerializedSize();
+    }
+
+    // Exact writeState() output size when the board's top row is `boardTop`
+    public int stateSize(int boardTop) {
+        return STATE_FIELDS_SIZE + board.serializedSize(boardTop);
+    }
+
+    public TetrisBoard getBoard() {
+        return board;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getPiece() {
+        return piece;
+    }
+
+    public int getRotation() {
+        return rotation;
+    }
+
+    public int getShape() {
+        return TetrominoTable.shape(piece, rotation);
+    }
+
+    public int getPieceX() {
+        return pieceX;
+    }
+
+    public int getPieceY() {
+        return pieceY;
+    }
+
+    public int getNextPiece() {
+        return nextPiece;
+    }
+
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    public int getLines() {
+        return lines;
+    }
+
+    public int getPieces() {
+        return pieces;
+    }
+
+    // Headless throughput check: plays random games on one engine and reports games per second.
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        TetrisEngine engine = new TetrisEngine(10, 20, 0);
+        long inputs = 0x2545F4914F6CDD1DL;
+        long ticks = 0;
+        long start = System.nanoTime();
+        for (int game = 0; game < games; game++) {
+            engine.reset(game);
+            while (!engine.isGameOver()) {
+                inputs ^= inputs << 13;
+                inputs ^= inputs >>> 7;
+                inputs ^= inputs << 17;
+                engine.step(Input.of((int) ((inputs >>> 1) % 7)));
+            }
+            ticks += engine.getTick();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d games, %d ticks in %.2f s: %.0f games/s, %.0f ticks/s%n",
+                games, ticks, seconds, games / seconds, ticks / seconds);
+    }
+}
@@ -6,49 +6,108 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
-import java.util.Random;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
 
 public class TetrisGame extends JPanel implements ActionListener {
-    private final int BOARD_WIDTH = 10;
-    private final int BOARD_HEIGHT = 20;
-    private final int TILE_SIZE = 30;
+    private final int BOARD_WIDTH;
+    private final int BOARD_HEIGHT;
+    private final int TILE_SIZE;
     private final Color[] COLORS = {Color.cyan, Color.blue, Color.orange, Color.yellow, Color.green, Color.pink, Color.red};
 
     private Timer timer;
-    private Tetromino currentPiece;
-    private int[][] board;
-    private boolean gameOver;
+    private TetrisEngine engine;
+    private TetrisReplayRecorder recorder; // every engine input goes through the recorder
+
+    // Only with -Dgame.render=active; renders inline on the EDT, which owns the engine
+    private final ActiveRenderer renderer;
+    private final RenderStats swingStats = new RenderStats("Tetris swing");
+
+    // F3 toggles the profiler HUD; the same numbers are exported over JMX
+    private static final int PROFILE_UPDATE = 0, PROFILE_PAINT = 1;
+    private static final int HUD_X = 4;
+    private static final int HUD_Y = 12;
+    private final FrameProfiler profiler = new FrameProfiler("update", "paint").register("Tetris");
+    private final Rectangle hudBounds = new Rectangle(0, 0, 300, HUD_Y + profiler.hudHeight());
+
+    // Locked cells are drawn once into this image and redrawn only for the rows the board reports dirty
+    private BufferedImage lockedCells;
+
+    // Autoplayer ("A" key): searches run on the common pool, results are applied on timer ticks
+    private final TetrisAI ai;
+    private boolean aiMode;
+    private boolean aiReady;
+    private int aiPiece = -1; // engine piece count the last search was started for
+    private int aiPlacement;
 
     public TetrisGame() {
+        this(10, 20, 30);
+    }
+
+    public TetrisGame(int boardWidth, int boardHeight, int tileSize) {
+        BOARD_WIDTH = boardWidth;
+        BOARD_HEIGHT = boardHeight;
+        TILE_SIZE = tileSize;
         setPreferredSize(new Dimension(BOARD_WIDTH * TILE_SIZE, BOARD_HEIGHT * TILE_SIZE));
         setBackground(Color.BLACK);
         setFocusable(true);
         addKeyListener(new KeyAdapter() {
             @Override
             public void keyPressed(KeyEvent e) {
-                if (!gameOver) {
+                if (e.getKeyCode() == KeyEvent.VK_F3) {
+                    profiler.toggleHud();
+                    repaint();
+                } else if (e.getKeyCode() == KeyEvent.VK_A) {
+                    aiMode = !aiMode;
+                    timer.setDelay(aiMode ? 100 : 500);
+                } else if (e.getKeyCode() == KeyEvent.VK_R) {
+                    saveReplay(Paths.get("tetris-" + engine.getSeed() + ".trpl"));
+                } else if (!engine.isGameOver() && !aiMode) {
+                    long start = profiler.start();
+                    Rectangle before = pieceBounds();
                     if (e.getKeyCode() == KeyEvent.VK_LEFT) {
-                        moveCurrentPiece(-1, 0);
+                        recorder.apply(TetrisEngine.Input.LEFT);
                     } else if (e.getKeyCode() == KeyEvent.VK_RIGHT) {
-                        moveCurrentPiece(1, 0);
+                        recorder.apply(TetrisEngine.Input.RIGHT);
                     } else if (e.getKeyCode() == KeyEvent.VK_DOWN) {
-                        moveCurrentPiece(0, 1);
+                        recorder.apply(TetrisEngine.Input.SOFT_DROP);
                     } else if (e.getKeyCode() == KeyEvent.VK_UP) {
-                        rotateCurrentPiece();
+                        recorder.apply(TetrisEngine.Input.ROTATE_CW);
+                    } else if (e.getKeyCode() == KeyEvent.VK_SPACE) {
+                        recorder.apply(TetrisEngine.Input.HARD_DROP);
                     }
+                    profiler.end(PROFILE_UPDATE, start);
+                    repaintChanges(before);
                 }
             }
         });
 
-        board = new int[BOARD_HEIGHT][BOARD_WIDTH];
-        spawnNewPiece();
+        renderer = ActiveRenderer.install(this, "Tetris", this::render, false);
+        engine = new TetrisEngine(BOARD_WIDTH, BOARD_HEIGHT, System.nanoTime());
+        recorder = new TetrisReplayRecorder(engine);
+        ai = new TetrisAI(ForkJoinPool.commonPool(), BOARD_WIDTH, BOARD_HEIGHT, TetrisHeuristic.DEFAULT, true);
         timer = new Timer(500, this);
         timer.start();
     }
 
+    // usage: TetrisGame [width height [tileSize]], e.g. "100 200" for the spectator wall
     public static void main(String[] args) {
+        int width = args.length >= 2 ? Integer.parseInt(args[0]) : 10;
+        int height = args.length >= 2 ? Integer.parseInt(args[1]) : 20;
+        int tileSize;
+        if (args.length >= 3) {
+            tileSize = Integer.parseInt(args[2]);
+        } else {
+            // Largest tile (up to 30px) that fits the board on screen
+            Dimension screen = Toolkit.getDefaultToolkit().getScreenSize();
+            tileSize = Math.max(1, Math.min(30, Math.min(screen.width / width, (screen.height - 80) / height)));
+        }
+
         JFrame frame = new JFrame("Tetris Game");
-        TetrisGame gamePanel = new TetrisGame();
+        TetrisGame gamePanel = new TetrisGame(width, height, tileSize);
         frame.add(gamePanel);
         frame.pack();
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
@@ -58,152 +117,169 @@ public class TetrisGame extends JPanel implements ActionListener {
 
     @Override
     public void actionPerformed(ActionEvent e) {
-        if (!gameOver) {
-            if (!moveCurrentPiece(0, 1)) {
-                placePiece();
-                clearLines();
-                spawnNewPiece();
-                if (!canMove(currentPiece, 0, 0)) {
-                    gameOver = true;
-                }
+        if (!engine.isGameOver()) {
+            long start = profiler.start();
+            Rectangle before = pieceBounds();
+            if (aiMode) {
+                playAiMove();
             }
-            repaint();
-        }
-    }
-
-    private void spawnNewPiece() {
-        Random rand = new Random();
-        currentPiece = new Tetromino(rand.nextInt(COLORS.length), BOARD_WIDTH / 2 - 1, 0);
-    }
-
-    private void placePiece() {
-        for (int[] block : currentPiece.getShape()) {
-            int row = block[0] + currentPiece.y;
-            int col = block[1] + currentPiece.x;
-            if (row >= 0) {
-                board[row][col] = currentPiece.colorIndex;
+            recorder.step();
+            profiler.end(PROFILE_UPDATE, start);
+            repaintChanges(before);
+            if (engine.isGameOver() && System.getProperty("tetris.replayDir") != null) {
+                saveReplay(Paths.get(System.getProperty("tetris.replayDir"), "tetris-" + engine.getSeed() + ".trpl"));
             }
         }
     }
 
-    private boolean moveCurrentPiece(int dx, int dy) {
-        if (canMove(currentPiece, dx, dy)) {
-            currentPiece.x += dx;
-            currentPiece.y += dy;
-            return true;
+    // "R" key, or automatically at game over when -Dtetris.replayDir is set
+    private void saveReplay(Path file) {
+        try {
+            recorder.write(file);
+            System.out.println("Replay saved: " + file.toAbsolutePath());
+        } catch (IOException ex) {
+            System.err.println("Could not save replay " + file + ": " + ex);
         }
-        return false;
     }
 
-    private boolean canMove(Tetromino piece, int dx, int dy) {
-        for (int[] block : piece.getShape()) {
-            int row = block[0] + piece.y + dy;
-            int col = block[1] + piece.x + dx;
-
-            if (row < 0 || row >= BOARD_HEIGHT || col < 0 || col >= BOARD_WIDTH || board[row][col] != 0) {
-                return false;
+    private void playAiMove() {
+        if (aiReady && aiPiece == engine.getPieces()) {
+            aiReady = false;
+            if (aiPlacement == TetrisSearcher.NONE
+                    || !recorder.drop(TetrisSearcher.rotationOf(aiPlacement), TetrisSearcher.xOf(aiPlacement))) {
+                recorder.apply(TetrisEngine.Input.HARD_DROP);
             }
         }
-        return true;
+        if (aiPiece != engine.getPieces() && !engine.isGameOver()) {
+            int piece = engine.getPieces();
+            aiPiece = piece;
+            aiReady = false;
+            ai.searchAsync(engine).thenAccept(placement -> SwingUtilities.invokeLater(() -> {
+                if (aiPiece == piece) {
+                    aiPlacement = placement;
+                    aiReady = true;
+                }
+            }));
+        }
     }
 
-    private void rotateCurrentPiece() {
-        Tetromino rotatedPiece = currentPiece.rotate();
-        if (canMove(rotatedPiece, 0, 0)) {
-            currentPiece = rotatedPiece;
+    // Repaints the piece's old and new boxes and any board rows that changed, instead of the whole panel
+    private void repaintChanges(Rectangle before) {
+        if (renderer != null) {
+            renderer.repaint();
+            return;
+        }
+        swingStats.requested();
+        if (engine.isGameOver()) {
+            repaint();
+            return;
+        }
+        repaint(before);
+        repaint(pieceBounds());
+        if (profiler.isHudVisible()) {
+            repaint(hudBounds);
+        }
+        TetrisBoard board = engine.getBoard();
+        if (board.getDirtyMin() <= board.getDirtyMax()) {
+            repaint(0, board.getDirtyMin() * TILE_SIZE, BOARD_WIDTH * TILE_SIZE,
+                    (board.getDirtyMax() - board.getDirtyMin() + 1) * TILE_SIZE);
         }
     }
 
-    private void clearLines() {
-        for (int row = BOARD_HEIGHT - 1; row >= 0; row--) {
-            boolean fullLine = true;
-            for (int col : board[row]) {
-                if (col == 0) {
-                    fullLine = false;
-                    break;
-                }
-            }
-            if (fullLine) {
-                for (int r = row; r > 0; r--) {
-                    System.arraycopy(board[r - 1], 0, board[r], 0, BOARD_WIDTH);
-                }
-                row++; // Check the same line again
-            }
-        }
+    private Rectangle pieceBounds() {
+        int shape = engine.getShape();
+        int col = engine.getPieceX() + TetrominoTable.minCol(shape);
+        int row = engine.getPieceY() + TetrominoTable.minRow(shape);
+        int cols = TetrominoTable.maxCol(shape) - TetrominoTable.minCol(shape) + 1;
+        int rows = TetrominoTable.maxRow(shape) - TetrominoTable.minRow(shape) + 1;
+        // drawRect outlines reach one pixel past the tile
+        return new Rectangle(col * TILE_SIZE, row * TILE_SIZE, cols * TILE_SIZE + 1, rows * TILE_SIZE + 1);
     }
 
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
+        if (renderer == null) {
+            render(g);
+            swingStats.presented();
+        }
+    }
+
+    private void render(Graphics g) {
+        profiler.frame();
+        long start = profiler.start();
         drawBoard(g);
         drawCurrentPiece(g);
-        if (gameOver) {
+        if (engine.isGameOver()) {
             g.setColor(Color.RED);
             g.setFont(new Font("Arial", Font.BOLD, 50));
-            g.drawString("Game Over", 100, 250);
+            FontMetrics metrics = g.getFontMetrics();
+            g.drawString("Game Over", (getWidth() - metrics.stringWidth("Game Over")) / 2, getHeight() / 2);
         }
+        profiler.end(PROFILE_PAINT, start);
+        profiler.drawHud(g, HUD_X, HUD_Y);
     }
 
     private void drawBoard(Graphics g) {
-        for (int row = 0; row < BOARD_HEIGHT; row++) {
+        TetrisBoard board = engine.getBoard();
+        if (lockedCells == null) {
+            lockedCells = new BufferedImage(BOARD_WIDTH * TILE_SIZE + 1, BOARD_HEIGHT * TILE_SIZE + 1, BufferedImage.TYPE_INT_RGB);
+            updateLockedCells(board, 0, BOARD_HEIGHT - 1);
+        } else if (board.getDirtyMin() <= board.getDirtyMax()) {
+            updateLockedCells(board, board.getDirtyMin(), board.getDirtyMax());
+        }
+        board.markClean();
+
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(0, 0, lockedCells.getWidth(), lockedCells.getHeight());
+        }
+        g.drawImage(lockedCells, clip.x, clip.y, clip.x + clip.width, clip.y + clip.height,
+                clip.x, clip.y, clip.x + clip.width, clip.y + clip.height, null);
+    }
+
+    // Redraws rows [from, to] of the cached image; the color only changes when the cell color does
+    private void updateLockedCells(TetrisBoard board, int from, int to) {
+        Graphics g = lockedCells.getGraphics();
+        g.setColor(Color.BLACK);
+        g.fillRect(0, from * TILE_SIZE, lockedCells.getWidth(), (to - from + 1) * TILE_SIZE + 1);
+        Color current = null;
+        for (int row = from; row <= to; row++) {
             for (int col = 0; col < BOARD_WIDTH; col++) {
-                if (board[row][col] != 0) {
-                    g.setColor(COLORS[board[row][col]]);
+                int color = board.colorAt(row, col);
+                if (color >= 0) {
+                    if (current != COLORS[color]) {
+                        current = COLORS[color];
+                        g.setColor(current);
+                    }
                     g.fillRect(col * TILE_SIZE, row * TILE_SIZE, TILE_SIZE, TILE_SIZE);
-                    g.setColor(Color.BLACK);
+                }
+            }
+        }
+        g.setColor(Color.BLACK);
+        for (int row = from; row <= to; row++) {
+            for (int col = 0; col < BOARD_WIDTH; col++) {
+                if (board.isOccupied(row, col)) {
                     g.drawRect(col * TILE_SIZE, row * TILE_SIZE, TILE_SIZE, TILE_SIZE);
                 }
             }
         }
+        g.dispose();
     }
 
     private void drawCurrentPiece(Graphics g) {
-        for (int[] block : currentPiece.getShape()) {
-            int row = block[0] + currentPiece.y;
-            int col = block[1] + currentPiece.x;
-            g.setColor(COLORS[currentPiece.colorIndex]);
+        int shape = engine.getShape();
+        g.setColor(COLORS[engine.getPiece()]);
+        for (int block = 0; block < TetrominoTable.BLOCKS; block++) {
+            int row = TetrominoTable.blockRow(shape, block) + engine.getPieceY();
+            int col = TetrominoTable.blockCol(shape, block) + engine.getPieceX();
             g.fillRect(col * TILE_SIZE, row * TILE_SIZE, TILE_SIZE, TILE_SIZE);
-            g.setColor(Color.BLACK);
-            g.drawRect(col * TILE_SIZE, row * TILE_SIZE, TILE_SIZE, TILE_SIZE);
-        }
-    }
-
-    class Tetromino {
-        int colorIndex;
-        int x, y;
-
-        private final int[][][] shapes = {
-            {{0, 1}, {1, 1}, {2, 1}, {1, 0}}, // T
-            {{0, 1}, {1, 1}, {2, 1}, {2, 0}}, // L
-            {{0, 1}, {1, 1}, {1, 0}, {1, 2}}, // J
-            {{0, 0}, {0, 1}, {1, 0}, {1, 1}}, // O
-            {{0, 1}, {1, 1}, {1, 0}, {2, 0}}, // S
-            {{0, 0}, {0, 1}, {1, 1}, {1, 2}}, // Z
-            {{0, 0}, {0, 1}, {0, 2}, {0, 3}}  // I
-        };
-
-        public Tetromino(int colorIndex, int x, int y) {
-            this.colorIndex = colorIndex;
-            this.x = x;
-            this.y = y;
         }
-
-        public int[][] getShape() {
-            return shapes[colorIndex];
-        }
-
-        public Tetromino rotate() {
-            int[][] rotatedShape = new int[shapes[colorIndex].length][2];
-            for (int i = 0; i < shapes[colorIndex].length; i++) {
-                rotatedShape[i][0] = -shapes[colorIndex][i][1]; // Rotate
-                rotatedShape[i][1] = shapes[colorIndex][i][0];
-            }
-            return new Tetromino(colorIndex, x, y) {
-                @Override
-                public int[][] getShape() {
-                    return rotatedShape;
-                }
-            };
+        g.setColor(Color.BLACK);
+        for (int block = 0; block < TetrominoTable.BLOCKS; block++) {
+            int row = TetrominoTable.blockRow(shape, block) + engine.getPieceY();
+            int col = TetrominoTable.blockCol(shape, block) + engine.getPieceX();
+            g.drawRect(col * TILE_SIZE, row * TILE_SIZE, TILE_SIZE, TILE_SIZE);
         }
     }
 }
@@ -0,0 +1,43 @@
+package game;
+
+// Linear evaluation of a board after a placement:
+// score = height * aggregate height + lines * lines cleared + holes * holes + bumpiness * bumpiness.
+// Instances are immutable so one heuristic can be shared by every search thread.
+public final class TetrisHeuristic {
+    public static final int FEATURES = 4;
+
+    public static final TetrisHeuristic DEFAULT = new TetrisHeuristic(-0.510066, 0.760666, -0.35663, -0.184483);
+
+    private final double height;
+    private final double lines;
+    private final double holes;
+    private final double bumpiness;
+
+    public TetrisHeuristic(double height, double lines, double holes, double bumpiness) {
+        this.height = height;
+        this.lines = lines;
+        this.holes = holes;
+        this.bumpiness = bumpiness;
+    }
+
+    // Weights in feature order: height, lines, holes, bumpiness
+    public static TetrisHeuristic of(double[] weights) {
+        if (weights.length != FEATURES) {
+            throw new IllegalArgumentException("Expected " + FEATURES + " weights, got " + weights.length);
+        }
+        return new TetrisHeuristic(weights[0], weights[1], weights[2], weights[3]);
+    }
+
+    public double[] toArray() {
+        return new double[] {height, lines, holes, bumpiness};
+    }
+
+    public double score(int aggregateHeight, int linesCleared, int holeCount, int bumps) {
+        return height * aggregateHeight + lines * linesCleared + holes * holeCount + bumpiness * bumps;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("height=%.6f lines=%.6f holes=%.6f bumpiness=%.6f", height, lines, holes, bumpiness);
+    }
+}
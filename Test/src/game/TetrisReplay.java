@@ -0,0 +1,76 @@
+package game;
+
+import java.nio.ByteBuffer;
+
+// Binary replay format shared by TetrisReplayRecorder and TetrisReplayPlayer (big-endian).
+//
+//   header    int magic "TRPL", short version, short width, short height, short 0,
+//             long seed, int snapshot interval (ticks)
+//   events    one entry per effective input, in order:
+//             byte code | min(delta, 31) << 3, [varint delta - 31 if delta >= 31],
+//             [DROP only: byte rotation, zigzag varint x]
+//             where delta is the tick distance to the previous event and code is an
+//             Input ordinal or DROP
+//   snapshots long tick, int event offset, int event index, long previous event tick,
+//             engine state (TetrisEngine.writeState), one every `interval` ticks
+//   index     (long tick, long file offset) per snapshot, sorted by tick
+//   trailer   long events length, int event count, int snapshot count, long index offset,
+//             long final tick, int lines, int pieces, int magic "TEND"
+//
+// A tick's events are applied before that tick's gravity step, and snapshots are taken at the
+// start of a tick (after the gravity step that reached it, before its inputs).
+final class TetrisReplay {
+    static final int MAGIC = 0x5452504C;     // "TRPL"
+    static final int END_MAGIC = 0x54454E44; // "TEND"
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 24;
+    static final int TRAILER_SIZE = 44;
+    static final int INDEX_ENTRY_SIZE = 16;
+    static final int SNAPSHOT_HEADER_SIZE = 24;
+
+    static final int DROP = 7;              // autoplayer placement, carries rotation and column
+    static final int SMALL_DELTA_LIMIT = 31;
+
+    private TetrisReplay() {
+    }
+
+    static void putVarint(ByteBuffer out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    static long getVarint(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint in replay");
+    }
+
+    static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    // Returns a buffer with room for `extra` more bytes, copying into a larger direct buffer if needed
+    static ByteBuffer ensureCapacity(ByteBuffer buffer, int extra) {
+        if (buffer.remaining() >= extra) {
+            return buffer;
+        }
+        int capacity = Math.max(buffer.capacity() * 2, buffer.position() + extra);
+        ByteBuffer bigger = ByteBuffer.allocateDirect(capacity);
+        buffer.flip();
+        bigger.put(buffer);
+        return bigger;
+    }
+}
@@ -0,0 +1,365 @@
+package game;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+// Re-simulates TetrisReplay files: at unbounded speed to the end (score verification) or to any
+// tick, seeking through the file's snapshot index so only the ticks after the nearest snapshot
+// are simulated. verify() never restores a snapshot: it replays from the seed and checks every
+// snapshot and the trailer against the re-simulated state, since both come from the submitter.
+// load() checks every count and offset, so a truncated or corrupt file fails there with an
+// IOException. One player can load any number of replays; the direct read buffer and the engine
+// are reused while the board size stays the same.
+//
+// usage: TetrisReplayPlayer replay...              verify every replay against its trailer
+//        TetrisReplayPlayer --seek tick replay     print the board at the start of `tick`
+public class TetrisReplayPlayer {
+    private ByteBuffer data = ByteBuffer.allocateDirect(64 * 1024);
+    private TetrisEngine engine;
+    private ByteBuffer state;          // verify() writes the re-simulated engine state here
+
+    private long seed;
+    private int eventsStart;
+    private int eventCount;
+    private int snapshotCount;
+    private int indexOffset;
+    private long finalTick;
+    private int finalLines;
+    private int finalPieces;
+
+    // Event cursor: the next undecoded event and the tick of the one before it
+    private int eventPosition;
+    private int eventIndex;
+    private long previousEventTick;
+
+    public void load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < TetrisReplay.HEADER_SIZE + TetrisReplay.TRAILER_SIZE || size > Integer.MAX_VALUE) {
+                throw new IOException("Not a replay file: " + file);
+            }
+            if (data.capacity() < size) {
+                data = ByteBuffer.allocateDirect((int) Math.max(size, data.capacity() * 2L));
+            }
+            data.clear().limit((int) size);
+            while (data.hasRemaining()) {
+                if (channel.read(data) < 0) {
+                    throw new IOException("Unexpected end of replay file: " + file);
+                }
+            }
+        }
+        int size = data.limit();
+        if (data.getInt(0) != TetrisReplay.MAGIC || data.getInt(size - 4) != TetrisReplay.END_MAGIC) {
+            throw new IOException("Not a replay file: " + file);
+        }
+        if (data.getShort(4) != TetrisReplay.VERSION) {
+            throw new IOException("Unsupported replay version " + data.getShort(4) + ": " + file);
+        }
+        int width = data.getShort(6);
+        int height = data.getShort(8);
+        seed = data.getLong(12);
+
+        // Layout: header, events, snapshots, index, trailer, each region ending where the next begins
+        int trailer = size - TetrisReplay.TRAILER_SIZE;
+        long eventsLength = data.getLong(trailer);
+        eventCount = data.getInt(trailer + 8);
+        snapshotCount = data.getInt(trailer + 12);
+        long index = data.getLong(trailer + 16);
+        finalTick = data.getLong(trailer + 24);
+        finalLines = data.getInt(trailer + 32);
+        finalPieces = data.getInt(trailer + 36);
+        eventsStart = TetrisReplay.HEADER_SIZE;
+        if (eventsLength < 0 || eventCount < 0 || eventCount > eventsLength || snapshotCount < 0 || finalTick < 0
+                || eventsStart + eventsLength > index
+                || index + (long) snapshotCount * TetrisReplay.INDEX_ENTRY_SIZE != trailer) {
+            throw corrupt(file, "bad trailer");
+        }
+        int eventsEnd = eventsStart + (int) eventsLength;
+        indexOffset = (int) index;
+
+        TetrisBoard board = engine == null ? null : engine.getBoard();
+        if (board == null || board.getWidth() != width || board.getHeight() != height) {
+            try {
+                engine = new TetrisEngine(width, height, seed);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Corrupt replay file " + file + ": " + e.getMessage(), e);
+            }
+            state = ByteBuffer.allocateDirect(engine.maxStateSize());
+        }
+        checkSnapshots(file, eventsEnd, height);
+        checkEvents(file, eventsEnd, width);
+        rewind();
+    }
+
+    // Snapshots are contiguous between the events and the index, in increasing tick order
+    private void checkSnapshots(Path file, int eventsEnd, int height) throws IOException {
+        long expectedOffset = eventsEnd;
+        long previousTick = -1;
+        int previousEventIndex = 0;
+        for (int s = 0; s < snapshotCount; s++) {
+            long tick = snapshotTick(s);
+            long offset = data.getLong(indexOffset + s * TetrisReplay.INDEX_ENTRY_SIZE + 8);
+            if (tick <= previousTick || tick > finalTick || offset != expectedOffset
+                    || offset + TetrisReplay.SNAPSHOT_HEADER_SIZE + TetrisEngine.STATE_FIELDS_SIZE + 4 > indexOffset) {
+                throw corrupt(file, "bad index entry " + s);
+            }
+            int o = (int) offset;
+            int eventIndex = data.getInt(o + 12);
+            int top = data.getInt(o + TetrisReplay.SNAPSHOT_HEADER_SIZE + TetrisEngine.STATE_FIELDS_SIZE);
+            if (data.getLong(o) != tick || eventIndex < previousEventIndex || eventIndex > eventCount
+                    || top < 0 || top > height) {
+                throw corrupt(file, "bad snapshot " + s);
+            }
+            expectedOffset = offset + TetrisReplay.SNAPSHOT_HEADER_SIZE + engine.stateSize(top);
+            previousTick = tick;
+            previousEventIndex = eventIndex;
+        }
+        if (expectedOffset != indexOffset) {
+            throw corrupt(file, "snapshots do not end at the index");
+        }
+    }
+
+    // Decodes every event once without applying it, so seek() and verify() never read outside the
+    // events, and checks each snapshot's event offset lands on the event it names
+    private void checkEvents(Path file, int eventsEnd, int width) throws IOException {
+        ByteBuffer in = data.duplicate();
+        in.limit(eventsEnd).position(eventsStart);
+        int s = 0;
+        try {
+            for (int i = 0; ; i++) {
+                while (s < snapshotCount && data.getInt(snapshotOffset(s) + 12) == i) {
+                    if (data.getInt(snapshotOffset(s) + 8) != in.position() - eventsStart) {
+                        throw corrupt(file, "snapshot " + s + " event offset");
+                    }
+                    s++;
+                }
+                if (i == eventCount) {
+                    break;
+                }
+                int first = in.get() & 0xFF;
+                if (first >>> 3 == TetrisReplay.SMALL_DELTA_LIMIT) {
+                    TetrisReplay.getVarint(in);
+                }
+                if ((first & 7) == TetrisReplay.DROP) {
+                    int rotation = in.get();
+                    int x = TetrisReplay.unzigzag((int) TetrisReplay.getVarint(in));
+                    // piece masks are 4 columns wide, so a placement never starts left of -3
+                    if (rotation < 0 || rotation >= TetrominoTable.ROTATIONS || x < -3 || x >= width) {
+                        throw corrupt(file, "bad drop event " + i);
+                    }
+                }
+            }
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw corrupt(file, "events end early");
+        }
+        if (in.hasRemaining()) {
+            throw corrupt(file, "bytes after the last event");
+        }
+    }
+
+    private static IOException corrupt(Path file, String problem) {
+        return new IOException("Corrupt replay file " + file + ": " + problem);
+    }
+
+    public TetrisEngine getEngine() {
+        return engine;
+    }
+
+    public long getFinalTick() {
+        return finalTick;
+    }
+
+    // Puts the engine at the start of `tick`: after that many gravity steps, before that tick's inputs
+    public void seek(long tick) {
+        if (tick < 0 || tick > finalTick) {
+            throw new IllegalArgumentException("Tick " + tick + " outside replay range 0.." + finalTick);
+        }
+        int snapshot = findSnapshot(tick);
+        long snapshotTick = snapshot < 0 ? 0 : snapshotTick(snapshot);
+        if (tick <= engine.getTick() || snapshotTick > engine.getTick()) {
+            if (snapshot < 0) {
+                rewind();
+            } else {
+                restore(snapshotOffset(snapshot));
+            }
+        }
+        while (engine.getTick() < tick && !engine.isGameOver()) {
+            applyEvents(engine.getTick());
+            engine.step(TetrisEngine.Input.NONE);
+        }
+    }
+
+    public void playToEnd() {
+        seek(finalTick);
+        applyEvents(finalTick);
+    }
+
+    // Re-simulates the whole game from the seed, one tick at a time, and checks it reproduces every
+    // snapshot as its tick is reached and the recorded result. Never restores from the file.
+    public boolean verify() {
+        rewind();
+        int snapshot = 0;
+        while (true) {
+            if (snapshot < snapshotCount && snapshotTick(snapshot) == engine.getTick()) {
+                if (!matchesSnapshot(snapshotOffset(snapshot))) {
+                    return false;
+                }
+                snapshot++;
+            }
+            if (engine.getTick() >= finalTick || engine.isGameOver()) {
+                break;
+            }
+            applyEvents(engine.getTick());
+            engine.step(TetrisEngine.Input.NONE);
+        }
+        applyEvents(finalTick);
+        return snapshot == snapshotCount && eventIndex == eventCount && engine.getTick() == finalTick
+                && engine.getLines() == finalLines && engine.getPieces() == finalPieces;
+    }
+
+    // The snapshot at `offset` holds exactly the current event cursor and engine state
+    private boolean matchesSnapshot(int offset) {
+        if (data.getInt(offset + 8) != eventPosition - eventsStart || data.getInt(offset + 12) != eventIndex
+                || data.getLong(offset + 16) != previousEventTick) {
+            return false;
+        }
+        state.clear();
+        engine.writeState(state);
+        int length = state.position();
+        int from = offset + TetrisReplay.SNAPSHOT_HEADER_SIZE;
+        if (from + length > indexOffset) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (state.get(i) != data.get(from + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void rewind() {
+        engine.reset(seed);
+        eventPosition = eventsStart;
+        eventIndex = 0;
+        previousEventTick = 0;
+    }
+
+    private void restore(int offset) {
+        ByteBuffer in = data.duplicate();
+        in.position(offset);
+        in.getLong(); // snapshot tick, also stored in the engine state
+        eventPosition = eventsStart + in.getInt();
+        eventIndex = in.getInt();
+        previousEventTick = in.getLong();
+        engine.readState(in);
+    }
+
+    // Last snapshot at or before `tick`, or -1
+    private int findSnapshot(long tick) {
+        int low = 0;
+        int high = snapshotCount - 1;
+        int found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (snapshotTick(mid) <= tick) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return found;
+    }
+
+    private long snapshotTick(int snapshot) {
+        return data.getLong(indexOffset + snapshot * TetrisReplay.INDEX_ENTRY_SIZE);
+    }
+
+    // Checked against the file size by load()
+    private int snapshotOffset(int snapshot) {
+        return (int) data.getLong(indexOffset + snapshot * TetrisReplay.INDEX_ENTRY_SIZE + 8);
+    }
+
+    // Applies every event recorded at `tick`, decoding in place with absolute reads
+    private void applyEvents(long tick) {
+        while (eventIndex < eventCount) {
+            int position = eventPosition;
+            int first = data.get(position++) & 0xFF;
+            long delta = first >>> 3;
+            if (delta == TetrisReplay.SMALL_DELTA_LIMIT) {
+                data.position(position);
+                delta += TetrisReplay.getVarint(data);
+                position = data.position();
+            }
+            long eventTick = previousEventTick + delta;
+            if (eventTick != tick) {
+                return;
+            }
+            int code = first & 7;
+            if (code == TetrisReplay.DROP) {
+                int rotation = data.get(position++);
+                data.position(position);
+                int x = TetrisReplay.unzigzag((int) TetrisReplay.getVarint(data));
+                position = data.position();
+                engine.drop(rotation, x);
+            } else {
+                engine.apply(TetrisEngine.Input.of(code));
+            }
+            eventPosition = position;
+            eventIndex++;
+            previousEventTick = eventTick;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        TetrisReplayPlayer player = new TetrisReplayPlayer();
+        if (args.length == 3 && args[0].equals("--seek")) {
+            player.load(Paths.get(args[2]));
+            player.seek(Long.parseLong(args[1]));
+            print(player.getEngine());
+            return;
+        }
+        int failed = 0;
+        long start = System.nanoTime();
+        for (String arg : args) {
+            try {
+                player.load(Paths.get(arg));
+            } catch (IOException e) {
+                failed++;
+                System.out.println("CORRUPT " + arg + ": " + e.getMessage());
+                continue;
+            }
+            if (!player.verify()) {
+                failed++;
+                System.out.println("MISMATCH " + arg);
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d replays verified, %d failed, %.0f replays/s%n",
+                args.length, failed, args.length / seconds);
+    }
+
+    private static void print(TetrisEngine engine) {
+        TetrisBoard board = engine.getBoard();
+        int shape = engine.getShape();
+        StringBuilder sb = new StringBuilder();
+        for (int row = 0; row < board.getHeight(); row++) {
+            for (int col = 0; col < board.getWidth(); col++) {
+                int r = row - engine.getPieceY();
+                int c = col - engine.getPieceX();
+                boolean falling = r >= 0 && r < TetrominoTable.MAX_ROWS && c >= 0 && c < 4
+                        && (TetrominoTable.rowMask(shape, r) >>> c & 1) != 0;
+                sb.append(falling ? '@' : board.isOccupied(row, col) ? '#' : '.');
+            }
+            sb.append('\n');
+        }
+        System.out.print(sb);
+        System.out.printf("tick %d, lines %d, pieces %d%n", engine.getTick(), engine.getLines(), engine.getPieces());
+    }
+}
@@ -0,0 +1,151 @@
+package game;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// Records a TetrisEngine game in the TetrisReplay format.
+// The view drives the engine through apply()/step()/drop() here instead of calling the engine
+// directly; only inputs that changed the game are stored. Events and snapshots accumulate in
+// direct buffers and are written with a single gathering FileChannel write.
+public class TetrisReplayRecorder {
+    public static final int DEFAULT_SNAPSHOT_INTERVAL = 600; // 5 minutes at the 500 ms gravity tick
+
+    private final TetrisEngine engine;
+    private final int snapshotInterval;
+    private ByteBuffer events = ByteBuffer.allocateDirect(16 * 1024);
+    private ByteBuffer snapshots;
+    private long[] snapshotTicks = new long[16];
+    private int[] snapshotOffsets = new int[16];
+    private int snapshotCount;
+    private int eventCount;
+    private long lastEventTick;
+
+    public TetrisReplayRecorder(TetrisEngine engine) {
+        this(engine, DEFAULT_SNAPSHOT_INTERVAL);
+    }
+
+    // The engine must be freshly reset: the replay starts from its seed
+    public TetrisReplayRecorder(TetrisEngine engine, int snapshotInterval) {
+        if (engine.getTick() != 0 || engine.getPieces() != 0) {
+            throw new IllegalStateException("Recording must start on a freshly reset engine");
+        }
+        if (snapshotInterval < 1) {
+            throw new IllegalArgumentException("Snapshot interval must be positive: " + snapshotInterval);
+        }
+        this.engine = engine;
+        this.snapshotInterval = snapshotInterval;
+        this.snapshots = ByteBuffer.allocateDirect(4 * (TetrisReplay.SNAPSHOT_HEADER_SIZE + engine.maxStateSize()));
+    }
+
+    public TetrisEngine getEngine() {
+        return engine;
+    }
+
+    public boolean apply(TetrisEngine.Input input) {
+        long tick = engine.getTick();
+        if (!engine.apply(input)) {
+            return false;
+        }
+        writeEvent(tick, input.ordinal());
+        return true;
+    }
+
+    public boolean drop(int rotation, int x) {
+        long tick = engine.getTick();
+        if (!engine.drop(rotation, x)) {
+            return false;
+        }
+        writeEvent(tick, TetrisReplay.DROP);
+        events.put((byte) rotation);
+        TetrisReplay.putVarint(events, TetrisReplay.zigzag(x) & 0xFFFFFFFFL);
+        return true;
+    }
+
+    // One gravity tick with no input
+    public void step() {
+        if (engine.isGameOver()) {
+            return;
+        }
+        engine.step(TetrisEngine.Input.NONE);
+        if (engine.getTick() % snapshotInterval == 0 && !engine.isGameOver()) {
+            snapshot();
+        }
+    }
+
+    private void writeEvent(long tick, int code) {
+        events = TetrisReplay.ensureCapacity(events, 32);
+        long delta = tick - lastEventTick;
+        if (delta < TetrisReplay.SMALL_DELTA_LIMIT) {
+            events.put((byte) (code | delta << 3));
+        } else {
+            events.put((byte) (code | TetrisReplay.SMALL_DELTA_LIMIT << 3));
+            TetrisReplay.putVarint(events, delta - TetrisReplay.SMALL_DELTA_LIMIT);
+        }
+        lastEventTick = tick;
+        eventCount++;
+    }
+
+    private void snapshot() {
+        snapshots = TetrisReplay.ensureCapacity(snapshots, TetrisReplay.SNAPSHOT_HEADER_SIZE + engine.maxStateSize());
+        if (snapshotCount == snapshotTicks.length) {
+            snapshotTicks = Arrays.copyOf(snapshotTicks, snapshotCount * 2);
+            snapshotOffsets = Arrays.copyOf(snapshotOffsets, snapshotCount * 2);
+        }
+        snapshotTicks[snapshotCount] = engine.getTick();
+        snapshotOffsets[snapshotCount] = snapshots.position();
+        snapshotCount++;
+        snapshots.putLong(engine.getTick());
+        snapshots.putInt(events.position());
+        snapshots.putInt(eventCount);
+        snapshots.putLong(lastEventTick);
+        engine.writeState(snapshots);
+    }
+
+    public void write(Path file) throws IOException {
+        TetrisBoard board = engine.getBoard();
+        ByteBuffer header = ByteBuffer.allocateDirect(TetrisReplay.HEADER_SIZE);
+        header.putInt(TetrisReplay.MAGIC);
+        header.putShort(TetrisReplay.VERSION);
+        header.putShort((short) board.getWidth());
+        header.putShort((short) board.getHeight());
+        header.putShort((short) 0);
+        header.putLong(engine.getSeed());
+        header.putInt(snapshotInterval);
+        header.flip();
+
+        ByteBuffer eventData = events.duplicate().flip();
+        ByteBuffer snapshotData = snapshots.duplicate().flip();
+        long snapshotStart = TetrisReplay.HEADER_SIZE + eventData.remaining();
+        long indexOffset = snapshotStart + snapshotData.remaining();
+
+        ByteBuffer index = ByteBuffer.allocateDirect(snapshotCount * TetrisReplay.INDEX_ENTRY_SIZE);
+        for (int i = 0; i < snapshotCount; i++) {
+            index.putLong(snapshotTicks[i]);
+            index.putLong(snapshotStart + snapshotOffsets[i]);
+        }
+        index.flip();
+
+        ByteBuffer trailer = ByteBuffer.allocateDirect(TetrisReplay.TRAILER_SIZE);
+        trailer.putLong(eventData.remaining());
+        trailer.putInt(eventCount);
+        trailer.putInt(snapshotCount);
+        trailer.putLong(indexOffset);
+        trailer.putLong(engine.getTick());
+        trailer.putInt(engine.getLines());
+        trailer.putInt(engine.getPieces());
+        trailer.putInt(TetrisReplay.END_MAGIC);
+        trailer.flip();
+
+        ByteBuffer[] parts = {header, eventData, snapshotData, index, trailer};
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (trailer.hasRemaining()) {
+                channel.write(parts);
+            }
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package game;
+
+import java.util.Arrays;
+
+// Single-threaded placement search over rotation x column, with optional one-piece lookahead.
+// All scratch boards and feature buffers are allocated once, so a search allocates nothing;
+// keep one searcher per thread. Placements are packed ints, see placement()/rotationOf()/xOf().
+public class TetrisSearcher {
+    public static final int NONE = -1;
+
+    private final int height;
+    private final TetrisBoard first;   // board after the candidate placement
+    private final TetrisBoard second;  // board after the lookahead placement
+    private final long[] covered;
+    private final int[] heights;
+    private TetrisHeuristic heuristic;
+    private long evaluated;
+
+    public TetrisSearcher(int width, int height, TetrisHeuristic heuristic) {
+        this.height = height;
+        this.first = new TetrisBoard(width, height);
+        this.second = new TetrisBoard(width, height);
+        this.covered = new long[first.getWords()];
+        this.heights = new int[width];
+        this.heuristic = heuristic;
+    }
+
+    public static int placement(int rotation, int x) {
+        return rotation << 16 | (x & 0xFFFF);
+    }
+
+    public static int rotationOf(int placement) {
+        return placement >>> 16;
+    }
+
+    public static int xOf(int placement) {
+        return (short) placement;
+    }
+
+    public void setHeuristic(TetrisHeuristic heuristic) {
+        this.heuristic = heuristic;
+    }
+
+    // Number of boards scored since the searcher was created
+    public long getEvaluated() {
+        return evaluated;
+    }
+
+    // Best placement for `piece` entering at row y, or NONE if nothing fits.
+    public int best(TetrisBoard board, int piece, int nextPiece, int y, boolean lookahead) {
+        int best = NONE;
+        double bestScore = Double.NEGATIVE_INFINITY;
+        for (int rotation = 0; rotation < TetrominoTable.ROTATIONS; rotation++) {
+            int shape = TetrominoTable.shape(piece, rotation);
+            for (int x = -TetrominoTable.minCol(shape); x + TetrominoTable.maxCol(shape) < board.getWidth(); x++) {
+                double score = score(board, piece, rotation, x, y, nextPiece, lookahead);
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = placement(rotation, x);
+                }
+            }
+            if (piece == TetrominoTable.O) {
+                break; // every O rotation is the same shape
+            }
+        }
+        return best;
+    }
+
+    // Score of dropping `piece` with the given rotation and column; -infinity if it cannot enter at row y
+    // (see TetrominoTable.entryY).
+    public double score(TetrisBoard board, int piece, int rotation, int x, int y, int nextPiece, boolean lookahead) {
+        int shape = TetrominoTable.shape(piece, rotation);
+        y = TetrominoTable.entryY(shape, y);
+        if (!TetrominoTable.fits(board, shape, x, y)) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        first.copyFrom(board);
+        int lines = dropAndClear(first, shape, x, y, piece);
+        if (!lookahead) {
+            return evaluate(first, lines);
+        }
+        double best = Double.NEGATIVE_INFINITY;
+        for (int nextRotation = 0; nextRotation < TetrominoTable.ROTATIONS; nextRotation++) {
+            int nextShape = TetrominoTable.shape(nextPiece, nextRotation);
+            int nextY = TetrominoTable.entryY(nextShape, TetrominoTable.spawnY(nextPiece));
+            for (int nx = -TetrominoTable.minCol(nextShape); nx + TetrominoTable.maxCol(nextShape) < board.getWidth(); nx++) {
+                if (!TetrominoTable.fits(first, nextShape, nx, nextY)) {
+                    continue;
+                }
+                second.copyFrom(first);
+                int nextLines = dropAndClear(second, nextShape, nx, nextY, nextPiece);
+                best = Math.max(best, evaluate(second, lines + nextLines));
+            }
+            if (nextPiece == TetrominoTable.O) {
+                break;
+            }
+        }
+        // A placement that tops out the lookahead piece is still playable, just bad
+        return best == Double.NEGATIVE_INFINITY ? evaluate(first, lines) - 1e6 : best;
+    }
+
+    private static int dropAndClear(TetrisBoard board, int shape, int x, int y, int color) {
+        while (TetrominoTable.fits(board, shape, x, y + 1)) {
+            y++;
+        }
+        TetrominoTable.place(board, shape, x, y, color);
+        return board.clearLines();
+    }
+
+    // Aggregate height, holes and bumpiness from one top-down sweep over the row words
+    private double evaluate(TetrisBoard board, int lines) {
+        evaluated++;
+        Arrays.fill(covered, 0L);
+        Arrays.fill(heights, 0);
+        int words = covered.length;
+        int holes = 0;
+        for (int row = board.getTop(); row < height; row++) {
+            for (int w = 0; w < words; w++) {
+                long bits = board.word(row, w);
+                long fresh = bits & ~covered[w];
+                while (fresh != 0) {
+                    heights[(w << 6) + Long.numberOfTrailingZeros(fresh)] = height - row;
+                    fresh &= fresh - 1;
+                }
+                holes += Long.bitCount(covered[w] & ~bits);
+                covered[w] |= bits;
+            }
+        }
+        int aggregate = 0;
+        int bumpiness = 0;
+        for (int col = 0; col < heights.length; col++) {
+            aggregate += heights[col];
+            if (col > 0) {
+                bumpiness += Math.abs(heights[col] - heights[col - 1]);
+            }
+        }
+        return heuristic.score(aggregate, lines, holes, bumpiness);
+    }
+}
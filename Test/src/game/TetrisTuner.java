@@ -0,0 +1,202 @@
+package game;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+// Cross-entropy tuner for TetrisHeuristic weights using headless self-play.
+// Every generation samples candidate weight vectors from a per-weight Gaussian, plays a batch of
+// games for each candidate across all cores and refits the Gaussian to the elite candidates.
+// Each worker thread owns its TetrisEngine and TetrisSearcher, so games share no mutable state and
+// nothing is allocated per move. The distribution is checkpointed after every generation and a
+// run resumes from the checkpoint file if it exists.
+//
+// usage: TetrisTuner [checkpoint] [generations] [candidates] [gamesPerCandidate] [maxPieces]
+public class TetrisTuner {
+    private static final int WIDTH = 10;
+    private static final int HEIGHT = 20;
+    private static final double ELITE_FRACTION = 0.1;
+    private static final double MIN_STDDEV = 0.01;  // keeps the search from collapsing too early
+
+    private final Path checkpoint;
+    private final int candidates;
+    private final int gamesPerCandidate;
+    private final int maxPieces;
+
+    private int generation;
+    private double[] mean = TetrisHeuristic.DEFAULT.toArray();
+    private double[] stddev = {0.5, 0.5, 0.5, 0.5};
+    private double[] best = mean.clone();
+    private double bestFitness = Double.NEGATIVE_INFINITY;
+
+    // One engine and searcher per pool thread, reused for every game that thread plays
+    private final ThreadLocal<TetrisEngine> engines = ThreadLocal.withInitial(() -> new TetrisEngine(WIDTH, HEIGHT, 0));
+    private final ThreadLocal<TetrisSearcher> searchers =
+            ThreadLocal.withInitial(() -> new TetrisSearcher(WIDTH, HEIGHT, TetrisHeuristic.DEFAULT));
+
+    public TetrisTuner(Path checkpoint, int candidates, int gamesPerCandidate, int maxPieces) {
+        // The elite refit needs at least two candidates, and fitness is an average over the games
+        if (candidates < 2 || gamesPerCandidate < 1 || maxPieces < 1) {
+            throw new IllegalArgumentException("Need at least 2 candidates, 1 game and 1 piece: "
+                    + candidates + " candidates, " + gamesPerCandidate + " games, " + maxPieces + " pieces");
+        }
+        this.checkpoint = checkpoint;
+        this.candidates = candidates;
+        this.gamesPerCandidate = gamesPerCandidate;
+        this.maxPieces = maxPieces;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path checkpoint = Paths.get(args.length > 0 ? args[0] : "tetris-tuner.properties");
+        int generations = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int candidates = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+        int games = args.length > 3 ? Integer.parseInt(args[3]) : 20;
+        int maxPieces = args.length > 4 ? Integer.parseInt(args[4]) : 500;
+
+        TetrisTuner tuner = new TetrisTuner(checkpoint, candidates, games, maxPieces);
+        if (Files.exists(checkpoint)) {
+            tuner.load();
+            System.out.println("Resumed from " + checkpoint + " at generation " + tuner.generation);
+        }
+        for (int i = 0; i < generations; i++) {
+            tuner.runGeneration();
+            tuner.save();
+        }
+        System.out.println("Best: " + TetrisHeuristic.of(tuner.best));
+    }
+
+    public void runGeneration() {
+        Random random = new Random(generation * 0x9E3779B97F4A7C15L);
+        TetrisHeuristic[] heuristics = new TetrisHeuristic[candidates];
+        double[][] weights = new double[candidates][];
+        for (int c = 0; c < candidates; c++) {
+            weights[c] = new double[TetrisHeuristic.FEATURES];
+            for (int f = 0; f < TetrisHeuristic.FEATURES; f++) {
+                weights[c][f] = mean[f] + stddev[f] * random.nextGaussian();
+            }
+            heuristics[c] = TetrisHeuristic.of(weights[c]);
+        }
+
+        // Every candidate plays the same seeds, so differences come from the weights and not the piece luck
+        int jobs = candidates * gamesPerCandidate;
+        long seedBase = (long) generation * gamesPerCandidate;
+        int[] lines = new int[jobs];
+        long start = System.nanoTime();
+        IntStream.range(0, jobs).parallel().forEach(job ->
+                lines[job] = play(heuristics[job / gamesPerCandidate], seedBase + job % gamesPerCandidate));
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        double[] fitness = new double[candidates];
+        long totalLines = 0;
+        for (int job = 0; job < jobs; job++) {
+            fitness[job / gamesPerCandidate] += lines[job];
+            totalLines += lines[job];
+        }
+        Integer[] order = new Integer[candidates];
+        for (int c = 0; c < candidates; c++) {
+            fitness[c] /= gamesPerCandidate;
+            order[c] = c;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(fitness[b], fitness[a]));
+
+        int elite = Math.max(2, (int) Math.round(candidates * ELITE_FRACTION));
+        for (int f = 0; f < TetrisHeuristic.FEATURES; f++) {
+            double sum = 0;
+            for (int e = 0; e < elite; e++) {
+                sum += weights[order[e]][f];
+            }
+            double m = sum / elite;
+            double var = 0;
+            for (int e = 0; e < elite; e++) {
+                double d = weights[order[e]][f] - m;
+                var += d * d;
+            }
+            mean[f] = m;
+            stddev[f] = Math.max(MIN_STDDEV, Math.sqrt(var / elite));
+        }
+        if (fitness[order[0]] > bestFitness) {
+            bestFitness = fitness[order[0]];
+            best = weights[order[0]].clone();
+        }
+
+        System.out.printf(Locale.ROOT, "gen %d: best %.1f lines, elite cutoff %.1f, %d games in %.2f s (%.0f games/s, %.0f lines/s)%n",
+                generation, fitness[order[0]], fitness[order[elite - 1]], jobs, seconds, jobs / seconds, totalLines / seconds);
+        generation++;
+    }
+
+    // Lines cleared by one capped game; runs entirely on the calling thread's engine and searcher
+    private int play(TetrisHeuristic heuristic, long seed) {
+        TetrisEngine engine = engines.get();
+        TetrisSearcher searcher = searchers.get();
+        searcher.setHeuristic(heuristic);
+        engine.reset(seed);
+        while (!engine.isGameOver() && engine.getPieces() < maxPieces) {
+            int placement = searcher.best(engine.getBoard(), engine.getPiece(), engine.getNextPiece(), engine.getPieceY(), false);
+            if (placement == TetrisSearcher.NONE
+                    || !engine.drop(TetrisSearcher.rotationOf(placement), TetrisSearcher.xOf(placement))) {
+                engine.apply(TetrisEngine.Input.HARD_DROP);
+            }
+        }
+        return engine.getLines();
+    }
+
+    public void save() throws IOException {
+        Properties props = new Properties();
+        props.setProperty("generation", Integer.toString(generation));
+        props.setProperty("mean", join(mean));
+        props.setProperty("stddev", join(stddev));
+        props.setProperty("best", join(best));
+        props.setProperty("bestFitness", Double.toString(bestFitness));
+        // Write next to the checkpoint and rename, so an interrupted run never leaves a torn file
+        Path tmp = checkpoint.resolveSibling(checkpoint.getFileName() + ".tmp");
+        try (Writer out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            props.store(out, "TetrisTuner checkpoint");
+        }
+        Files.move(tmp, checkpoint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public void load() throws IOException {
+        Properties props = new Properties();
+        try (Reader in = Files.newBufferedReader(checkpoint, StandardCharsets.UTF_8)) {
+            props.load(in);
+        }
+        generation = Integer.parseInt(props.getProperty("generation"));
+        mean = split(props.getProperty("mean"));
+        stddev = split(props.getProperty("stddev"));
+        best = split(props.getProperty("best"));
+        bestFitness = Double.parseDouble(props.getProperty("bestFitness"));
+    }
+
+    private static String join(double[] values) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(values[i]);
+        }
+        return sb.toString();
+    }
+
+    private static double[] split(String value) {
+        String[] parts = value.split(",");
+        if (parts.length != TetrisHeuristic.FEATURES) {
+            throw new IllegalArgumentException("Expected " + TetrisHeuristic.FEATURES + " weights: " + value);
+        }
+        double[] values = new double[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            values[i] = Double.parseDouble(parts[i].trim());
+        }
+        return values;
+    }
+}
@@ -0,0 +1,188 @@
+package game;
+
+// Precomputed, read-only table of every tetromino in every rotation state (SRS layout).
+// A piece state is addressed by a shape index = piece * ROTATIONS + rotation, so rotating is an
+// index change and nothing is allocated after class initialization. Cells live inside the
+// piece's SRS bounding box (3x3, 4x4 for I, 2x2 for O), so offsets are never negative and the
+// box center is the rotation pivot. The table is shared by the game, the AI and the simulators.
+public final class TetrominoTable {
+    public static final int PIECES = 7;     // T, L, J, O, S, Z, I (same order as the color table)
+    public static final int ROTATIONS = 4;  // 0, R, 2, L
+    public static final int BLOCKS = 4;
+    public static final int KICKS = 5;
+    public static final int MAX_ROWS = 4;
+
+    public static final int O = 3;
+    public static final int I = 6;
+
+    // Spawn orientation cells as {row, col} inside the bounding box
+    private static final int[][][] SPAWN = {
+        {{0, 1}, {1, 0}, {1, 1}, {1, 2}}, // T
+        {{0, 2}, {1, 0}, {1, 1}, {1, 2}}, // L
+        {{0, 0}, {1, 0}, {1, 1}, {1, 2}}, // J
+        {{0, 0}, {0, 1}, {1, 0}, {1, 1}}, // O
+        {{0, 1}, {0, 2}, {1, 0}, {1, 1}}, // S
+        {{0, 0}, {0, 1}, {1, 1}, {1, 2}}, // Z
+        {{1, 0}, {1, 1}, {1, 2}, {1, 3}}  // I
+    };
+    private static final int[] BOX_SIZE = {3, 3, 3, 2, 3, 3, 4};
+
+    // SRS wall kicks as {dx, dy} with y pointing up, indexed [from rotation][test].
+    private static final int[][][] JLSTZ_CW = {
+        {{0, 0}, {-1, 0}, {-1, 1}, {0, -2}, {-1, -2}}, // 0 -> R
+        {{0, 0}, {1, 0}, {1, -1}, {0, 2}, {1, 2}},     // R -> 2
+        {{0, 0}, {1, 0}, {1, 1}, {0, -2}, {1, -2}},    // 2 -> L
+        {{0, 0}, {-1, 0}, {-1, -1}, {0, 2}, {-1, 2}}   // L -> 0
+    };
+    private static final int[][][] JLSTZ_CCW = {
+        {{0, 0}, {1, 0}, {1, 1}, {0, -2}, {1, -2}},    // 0 -> L
+        {{0, 0}, {1, 0}, {1, -1}, {0, 2}, {1, 2}},     // R -> 0
+        {{0, 0}, {-1, 0}, {-1, 1}, {0, -2}, {-1, -2}}, // 2 -> R
+        {{0, 0}, {-1, 0}, {-1, -1}, {0, 2}, {-1, 2}}   // L -> 2
+    };
+    private static final int[][][] I_CW = {
+        {{0, 0}, {-2, 0}, {1, 0}, {-2, -1}, {1, 2}},   // 0 -> R
+        {{0, 0}, {-1, 0}, {2, 0}, {-1, 2}, {2, -1}},   // R -> 2
+        {{0, 0}, {2, 0}, {-1, 0}, {2, 1}, {-1, -2}},   // 2 -> L
+        {{0, 0}, {1, 0}, {-2, 0}, {1, -2}, {-2, 1}}    // L -> 0
+    };
+    private static final int[][][] I_CCW = {
+        {{0, 0}, {-1, 0}, {2, 0}, {-1, 2}, {2, -1}},   // 0 -> L
+        {{0, 0}, {2, 0}, {-1, 0}, {2, 1}, {-1, -2}},   // R -> 0
+        {{0, 0}, {1, 0}, {-2, 0}, {1, -2}, {-2, 1}},   // 2 -> R
+        {{0, 0}, {-2, 0}, {1, 0}, {-2, -1}, {1, 2}}    // L -> 2
+    };
+
+    private static final int SHAPES = PIECES * ROTATIONS;
+
+    // Flat tables, indexed by shape (and block / row / kick test)
+    private static final int[] CELL_ROW = new int[SHAPES * BLOCKS];
+    private static final int[] CELL_COL = new int[SHAPES * BLOCKS];
+    private static final int[] ROW_MASKS = new int[SHAPES * MAX_ROWS];
+    private static final int[] MIN_ROW = new int[SHAPES];
+    private static final int[] MAX_ROW = new int[SHAPES];
+    private static final int[] MIN_COL = new int[SHAPES];
+    private static final int[] MAX_COL = new int[SHAPES];
+    // [piece][from rotation][cw = 0, ccw = 1][test] -> dx, dy in board coordinates (row axis down)
+    private static final int[] KICK_X = new int[PIECES * ROTATIONS * 2 * KICKS];
+    private static final int[] KICK_Y = new int[PIECES * ROTATIONS * 2 * KICKS];
+
+    static {
+        for (int piece = 0; piece < PIECES; piece++) {
+            int n = BOX_SIZE[piece];
+            int[] rows = new int[BLOCKS];
+            int[] cols = new int[BLOCKS];
+            for (int b = 0; b < BLOCKS; b++) {
+                rows[b] = SPAWN[piece][b][0];
+                cols[b] = SPAWN[piece][b][1];
+            }
+            for (int rotation = 0; rotation < ROTATIONS; rotation++) {
+                int shape = shape(piece, rotation);
+                MIN_ROW[shape] = MIN_COL[shape] = Integer.MAX_VALUE;
+                MAX_ROW[shape] = MAX_COL[shape] = Integer.MIN_VALUE;
+                for (int b = 0; b < BLOCKS; b++) {
+                    CELL_ROW[shape * BLOCKS + b] = rows[b];
+                    CELL_COL[shape * BLOCKS + b] = cols[b];
+                    ROW_MASKS[shape * MAX_ROWS + rows[b]] |= 1 << cols[b];
+                    MIN_ROW[shape] = Math.min(MIN_ROW[shape], rows[b]);
+                    MAX_ROW[shape] = Math.max(MAX_ROW[shape], rows[b]);
+                    MIN_COL[shape] = Math.min(MIN_COL[shape], cols[b]);
+                    MAX_COL[shape] = Math.max(MAX_COL[shape], cols[b]);
+                }
+                // Clockwise turn about the box center: (r, c) -> (c, n - 1 - r)
+                for (int b = 0; b < BLOCKS; b++) {
+                    int r = rows[b];
+                    rows[b] = cols[b];
+                    cols[b] = n - 1 - r;
+                }
+                if (piece == O) {
+                    continue; // O never kicks
+                }
+                int[][][] cw = piece == I ? I_CW : JLSTZ_CW;
+                int[][][] ccw = piece == I ? I_CCW : JLSTZ_CCW;
+                for (int k = 0; k < KICKS; k++) {
+                    int cwIndex = kickIndex(piece, rotation, true, k);
+                    int ccwIndex = kickIndex(piece, rotation, false, k);
+                    KICK_X[cwIndex] = cw[rotation][k][0];
+                    KICK_Y[cwIndex] = -cw[rotation][k][1];
+                    KICK_X[ccwIndex] = ccw[rotation][k][0];
+                    KICK_Y[ccwIndex] = -ccw[rotation][k][1];
+                }
+            }
+        }
+    }
+
+    private TetrominoTable() {
+    }
+
+    public static int shape(int piece, int rotation) {
+        return piece * ROTATIONS + rotation;
+    }
+
+    public static int rotate(int rotation, boolean clockwise) {
+        return (rotation + (clockwise ? 1 : 3)) & 3;
+    }
+
+    public static int blockRow(int shape, int block) {
+        return CELL_ROW[shape * BLOCKS + block];
+    }
+
+    public static int blockCol(int shape, int block) {
+        return CELL_COL[shape * BLOCKS + block];
+    }
+
+    public static int rowMask(int shape, int row) {
+        return ROW_MASKS[shape * MAX_ROWS + row];
+    }
+
+    public static int minRow(int shape) {
+        return MIN_ROW[shape];
+    }
+
+    public static int maxRow(int shape) {
+        return MAX_ROW[shape];
+    }
+
+    public static int minCol(int shape) {
+        return MIN_COL[shape];
+    }
+
+    public static int maxCol(int shape) {
+        return MAX_COL[shape];
+    }
+
+    public static int kickX(int piece, int fromRotation, boolean clockwise, int test) {
+        return KICK_X[kickIndex(piece, fromRotation, clockwise, test)];
+    }
+
+    public static int kickY(int piece, int fromRotation, boolean clockwise, int test) {
+        return KICK_Y[kickIndex(piece, fromRotation, clockwise, test)];
+    }
+
+    // Box column that centers the spawn orientation on a board of the given width
+    public static int spawnX(int piece, int boardWidth) {
+        return (boardWidth - BOX_SIZE[piece]) / 2;
+    }
+
+    // Box row that puts the top of the spawn orientation on row 0
+    public static int spawnY(int piece) {
+        return -MIN_ROW[shape(piece, 0)];
+    }
+
+    // Lowest of y and the first row at which the shape's top cell is on the board
+    public static int entryY(int shape, int y) {
+        return Math.max(y, -MIN_ROW[shape]);
+    }
+
+    public static boolean fits(TetrisBoard board, int shape, int x, int y) {
+        return board.fits(ROW_MASKS, shape * MAX_ROWS, MAX_ROWS, x, y);
+    }
+
+    public static void place(TetrisBoard board, int shape, int x, int y, int color) {
+        board.place(ROW_MASKS, shape * MAX_ROWS, MAX_ROWS, x, y, color);
+    }
+
+    private static int kickIndex(int piece, int fromRotation, boolean clockwise, int test) {
+        return ((piece * ROTATIONS + fromRotation) * 2 + (clockwise ? 0 : 1)) * KICKS + test;
+    }
+}
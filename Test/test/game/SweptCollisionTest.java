@@ -0,0 +1,102 @@
+package game;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+// SweptCollision against a brute-force sampled answer at high speeds, and the tunneling cases the old
+// end-of-tick test (GalaxyGrid.intersects) missed in Galaxy and Pac-Man.
+class SweptCollisionTest {
+    private static final int SAMPLES = 1000;
+    private static final int PAIRS = 20_000;
+    private static final int MAX_SPEED = 400;
+
+    // Random pairs of boxes moving up to MAX_SPEED px per tick: whenever the boxes overlap at any of
+    // SAMPLES times in the tick or at its end, the swept test must report a hit, and its time of impact
+    // must not come after the first sampled overlap
+    @Test
+    void agreesWithBruteForceAtHighSpeed() {
+        Random random = new Random(1);
+        int[] box = new int[12];
+        int tunneling = 0;
+        for (int n = 0; n < PAIRS; n++) {
+            randomPair(random, box);
+            boolean discrete = GalaxyGrid.intersects(box[0], box[1], box[2], box[3], box[6], box[7], box[8], box[9]);
+            double sampled = firstSampledOverlap(box);
+            double swept = SweptCollision.timeOfImpact(box[0], box[1], box[2], box[3], box[4], box[5],
+                    box[6], box[7], box[8], box[9], box[10], box[11]);
+            if ((discrete || sampled >= 0) && (swept == SweptCollision.NO_HIT || swept > Math.max(sampled, 0))) {
+                fail("Missed a: " + box[0] + "," + box[1] + " " + box[2] + "x" + box[3] + " v " + box[4] + "," + box[5]
+                        + "  b: " + box[6] + "," + box[7] + " " + box[8] + "x" + box[9] + " v " + box[10] + "," + box[11]
+                        + "  sampled " + sampled + " swept " + swept);
+            }
+            tunneling += sampled >= 0 && !discrete ? 1 : 0;
+        }
+        assertTrue(tunneling > 0, "no pair passed through the other between ticks, so nothing was tested");
+    }
+
+    @Test
+    void fastGalaxyBulletHitsEnemyItPassesThrough() {
+        assertEquals(1, galaxyTunnel(200));
+    }
+
+    @Test
+    void slowGalaxyBulletBelowEnemyDoesNotHitYet() {
+        assertEquals(0, galaxyTunnel(5));
+    }
+
+    // Pac-Man and a ghost (20x20) passing head-on at 30 and 35 px/tick: 15 px apart before, 10 px after
+    @Test
+    void pacmanAndGhostPassingHeadOnHit() {
+        assertFalse(GalaxyGrid.intersects(110, 100, 20, 20, 80, 100, 20, 20), "discrete test should miss");
+        assertTrue(SweptCollision.hits(110, 100, 20, 20, 30, 0, 80, 100, 20, 20, -35, 0));
+    }
+
+    @Test
+    void boxesTouchingEdgesAtTheEndDoNotHit() {
+        assertFalse(SweptCollision.hits(0, 0, 20, 20, 10, 0, 20, 0, 20, 20, 0, 0));
+    }
+
+    // a then b: x, y, w, h, vx, vy, with the end positions close enough to meet fairly often
+    private static void randomPair(Random random, int[] box) {
+        for (int k = 0; k < 12; k += 6) {
+            box[k] = random.nextInt(2 * MAX_SPEED + 100);
+            box[k + 1] = random.nextInt(2 * MAX_SPEED + 100);
+            box[k + 2] = 1 + random.nextInt(40);
+            box[k + 3] = 1 + random.nextInt(40);
+            box[k + 4] = random.nextInt(2 * MAX_SPEED + 1) - MAX_SPEED;
+            box[k + 5] = random.nextInt(2 * MAX_SPEED + 1) - MAX_SPEED;
+        }
+    }
+
+    // Brute force: the first of SAMPLES evenly spaced times in (0, 1] at which the boxes overlap, or -1.
+    // Coordinates are scaled by SAMPLES so every sample is exact.
+    private static double firstSampledOverlap(int[] box) {
+        for (int s = 1; s <= SAMPLES; s++) {
+            long back = SAMPLES - s;
+            long ax = (long) box[0] * SAMPLES - box[4] * back, ay = (long) box[1] * SAMPLES - box[5] * back;
+            long bx = (long) box[6] * SAMPLES - box[10] * back, by = (long) box[7] * SAMPLES - box[11] * back;
+            if (ax < bx + box[8] * SAMPLES && bx < ax + box[2] * SAMPLES
+                    && ay < by + box[9] * SAMPLES && by < ay + box[3] * SAMPLES) {
+                return (double) s / SAMPLES;
+            }
+        }
+        return -1;
+    }
+
+    // One Galaxy tick with a single enemy at y = 200 and a bullet starting 30 px below it; the kills
+    private static long galaxyTunnel(int bulletSpeed) {
+        GalaxyWorld world = new GalaxyWorld(1);
+        world.setInvincible(true);
+        world.enemies().acquire(300, 200, 0, 0);
+        world.bullets().acquire(315, 270, 0, -bulletSpeed);
+        world.moveBullets();
+        world.checkCollisions();
+        return world.getKills();
+    }
+}
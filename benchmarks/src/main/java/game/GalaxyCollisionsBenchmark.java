@@ -0,0 +1,81 @@
+package game;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// GalaxyWorld.checkCollisions() at growing entity counts (enemies : bullets = 2 : 5).
+// A pass removes what it hits, so every invocation first refills the world's pools from fixed
+// positions; the refill is linear and part of the measured time. The player is invincible so the
+// pass never stops early on a game over. threads > 1 runs the strip-parallel mode
+// (-p threads=1,2,4,8 for a scaling series).
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GalaxyCollisionsBenchmark {
+    @Param({"100", "500", "2000", "4000"})
+    int enemyCount;
+
+    @Param({"1"})
+    int threads;
+
+    private int[] enemyX, enemyY, bulletX, bulletY;
+    private GalaxyWorld world;
+
+    @Setup
+    public void setup() {
+        int bulletCount = enemyCount * 5 / 2;
+        Random random = new Random(enemyCount);
+        enemyX = new int[enemyCount];
+        enemyY = new int[enemyCount];
+        for (int i = 0; i < enemyCount; i++) {
+            enemyX[i] = random.nextInt(760);
+            enemyY[i] = random.nextInt(300);
+        }
+        bulletX = new int[bulletCount];
+        bulletY = new int[bulletCount];
+        for (int i = 0; i < bulletCount; i++) {
+            bulletX[i] = random.nextInt(795);
+            bulletY[i] = random.nextInt(600);
+        }
+        world = new GalaxyWorld(1, enemyCount, bulletCount);
+        world.setInvincible(true);
+        world.setCollisionThreads(threads);
+    }
+
+    @TearDown
+    public void tearDown() {
+        world.setCollisionThreads(1);
+    }
+
+    @Benchmark
+    public long checkCollisions() {
+        GalaxyEntities enemies = world.enemies();
+        enemies.clear();
+        for (int i = 0; i < enemyX.length; i++) {
+            enemies.acquire(enemyX[i], enemyY[i], 0, 2);
+        }
+        GalaxyEntities bullets = world.bullets();
+        bullets.clear();
+        for (int i = 0; i < bulletX.length; i++) {
+            bullets.acquire(bulletX[i], bulletY[i], 0, -5);
+        }
+        world.checkCollisions();
+        return world.getKills();
+    }
+}
@@ -0,0 +1,64 @@
+package game;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// PacmanWorld.Ghost.move(): one tick of a ghost chasing a target tile through a generated maze.
+// The target jumps to another open tile every 64 invocations, so the cost includes the A* searches
+// that follow a target change as well as the cached steps in between. moveFlow() is the same tick
+// through a shared PacmanFlowFields, recomputed (chase and flee) when the target changes.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PacmanGhostBenchmark {
+    @Param({"39", "201"})
+    int mazeSize;
+
+    private PacmanMaze maze;
+    private PacmanPathfinder pathfinder;
+    private PacmanFlowFields fields;
+    private PacmanWorld.Ghost ghost;
+    private final int[] targets = new int[16];
+    private int calls;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(1);
+        maze = PacmanMaze.generate(mazeSize, mazeSize, 0.15, 1);
+        pathfinder = new PacmanPathfinder(maze);
+        for (int i = 0; i < targets.length; i++) {
+            targets[i] = maze.firstOpen(random.nextInt(mazeSize), random.nextInt(mazeSize - 1));
+        }
+        fields = new PacmanFlowFields(maze, maze.corners(), targets[0], false);
+        int start = maze.firstOpen(1, 1);
+        ghost = new PacmanWorld.Ghost(start % mazeSize * PacmanMaze.TILE, start / mazeSize * PacmanMaze.TILE, random);
+    }
+
+    @Benchmark
+    public PacmanWorld.Ghost move() {
+        ghost.move(maze, pathfinder, targets[(calls++ >>> 6) & (targets.length - 1)]);
+        return ghost;
+    }
+
+    @Benchmark
+    public PacmanWorld.Ghost moveFlow() {
+        fields.update(targets[(calls++ >>> 6) & (targets.length - 1)]);
+        ghost.move(maze, fields.current().chase);
+        return ghost;
+    }
+}
@@ -0,0 +1,41 @@
+package game;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Test2.hashPassword (SHA-256 + hex) and bytesToHex alone on a 32-byte digest
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PasswordHashBenchmark {
+    private final String input = "keka+password";
+    private final byte[] digest = new byte[32];
+
+    {
+        for (int i = 0; i < digest.length; i++) {
+            digest[i] = (byte) (i * 37);
+        }
+    }
+
+    @Benchmark
+    public String hashPassword() {
+        return Test2.hashPassword(input);
+    }
+
+    @Benchmark
+    public String bytesToHex() {
+        return Test2.bytesToHex(digest);
+    }
+}
@@ -0,0 +1,99 @@
+package game;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// The old TetrisGame.canMove / clearLines / rotate paths, which now live in TetrisBoard.fits,
+// TetrisBoard.clearLines and TetrisEngine.apply(ROTATE_CW) (rotation with wall kicks).
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TetrisBenchmark {
+    @Param({"20", "200", "1000"})
+    int height;
+
+    private static final int WIDTH = 10;
+
+    private TetrisBoard stacked;
+    private final int[] shapes = new int[64];
+    private final int[] xs = new int[64];
+    private final int[] ys = new int[64];
+
+    private TetrisBoard clearing;
+    private int[] gapped;
+    private final int verticalI = TetrominoTable.shape(TetrominoTable.I, 1);
+
+    private TetrisEngine engine;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(1);
+
+        // Ragged stack over the bottom half and probe positions all over the board
+        stacked = new TetrisBoard(WIDTH, height);
+        for (int row = height / 2; row < height; row++) {
+            int mask = random.nextInt(1 << WIDTH) & ~(1 << random.nextInt(WIDTH));
+            stacked.place(new int[] {mask}, 0, row, 0);
+        }
+        stacked.clearLines();
+        for (int i = 0; i < shapes.length; i++) {
+            shapes[i] = TetrominoTable.shape(random.nextInt(TetrominoTable.PIECES), random.nextInt(TetrominoTable.ROTATIONS));
+            xs[i] = random.nextInt(WIDTH) - 1;
+            ys[i] = random.nextInt(height);
+        }
+
+        // Same steady state as TetrisClearLinesBenchmark: a gapped half-height stack
+        clearing = new TetrisBoard(WIDTH, height);
+        gapped = new int[] {(1 << (WIDTH - 1)) - 1};
+        for (int row = height / 2; row < height; row++) {
+            clearing.place(gapped, 0, row, 1);
+        }
+        clearing.clearLines();
+
+        engine = new TetrisEngine(WIDTH, height, 1);
+    }
+
+    @Benchmark
+    public int canMove() {
+        int fits = 0;
+        for (int i = 0; i < shapes.length; i++) {
+            if (TetrominoTable.fits(stacked, shapes[i], xs[i], ys[i])) {
+                fits++;
+            }
+        }
+        return fits;
+    }
+
+    // Drops an I into the gap (4 full rows), clears them and rebuilds the 4 rows
+    @Benchmark
+    public int clearLines() {
+        TetrominoTable.place(clearing, verticalI, WIDTH - 3, height - 4, TetrominoTable.I);
+        int cleared = clearing.clearLines();
+        for (int row = height / 2; row < height / 2 + 4; row++) {
+            clearing.place(gapped, 0, row, 1);
+        }
+        clearing.clearLines();
+        return cleared;
+    }
+
+    // The spawned piece keeps rotating in open space, so every call runs the same kick test
+    @Benchmark
+    public boolean rotate() {
+        return engine.apply(TetrisEngine.Input.ROTATE_CW);
+    }
+}